@@ -0,0 +1,103 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for the segment paths used to describe what a move reads and writes.
+ * <p>
+ * A path is a list of segments from the root: field names and array indices as strings.
+ * {@link #ANY} matches any single segment (array patterns, {@code .*}) and {@link #DEEP}
+ * matches the whole document (recursive descent).
+ */
+public final class AccessPaths {
+    public static final String ANY = "*";
+    public static final String DEEP = "**";
+
+    private AccessPaths() {
+    }
+
+    public static List<String> fromPath(String path) {
+        return fromComponents(JsonPathParser.parse(path));
+    }
+
+    public static List<String> fromComponents(List<PathComponent> components) {
+        List<String> segments = new ArrayList<>();
+        for (PathComponent component : components) {
+            switch (component.getType()) {
+                case FIELD:
+                    segments.add(component.getField());
+                    break;
+                case ARRAY_INDEX:
+                    addField(segments, component);
+                    segments.add(String.valueOf(component.getIndex()));
+                    break;
+                case ARRAY_ALL:
+                case ARRAY_ALL_OFFSET:
+                case ARRAY_RANGE:
+                case ARRAY_VALUES:
+                case ARRAY_FILTER:
+                    addField(segments, component);
+                    segments.add(ANY);
+                    break;
+                case WILDCARD:
+                    segments.add(ANY);
+                    break;
+                case RECURSIVE_DESCENT:
+                    segments.add(DEEP);
+                    return segments;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Converts an RFC 6901 JSON Pointer into segments.
+     */
+    public static List<String> fromPointer(String pointer) {
+        List<String> segments = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return segments;
+        }
+        if (pointer.charAt(0) != '/') {
+            throw new IllegalArgumentException("JSON Pointer must start with '/': " + pointer);
+        }
+        for (String token : pointer.substring(1).split("/", -1)) {
+            segments.add(token.replace("~1", "/").replace("~0", "~"));
+        }
+        return segments;
+    }
+
+    /**
+     * Two paths overlap when one addresses a node inside (or equal to) the other.
+     */
+    public static boolean overlaps(List<String> a, List<String> b) {
+        int common = Math.min(a.size(), b.size());
+        for (int i = 0; i < common; i++) {
+            String left = a.get(i);
+            String right = b.get(i);
+            if (DEEP.equals(left) || DEEP.equals(right)) {
+                return true;
+            }
+            if (!left.equals(right) && !ANY.equals(left) && !ANY.equals(right)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean overlapsAny(List<String> path, List<List<String>> paths) {
+        for (List<String> other : paths) {
+            if (overlaps(path, other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addField(List<String> segments, PathComponent component) {
+        if (component.getField() != null && !component.getField().isEmpty()) {
+            segments.add(component.getField());
+        }
+    }
+}
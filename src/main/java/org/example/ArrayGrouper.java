@@ -0,0 +1,337 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.*;
+
+/**
+ * Grouping of array elements by key paths, for {@code GROUP_BY}.
+ * <p>
+ * One pass over the array assigns each element a group through an open-addressing hash table:
+ * integer keys (and whole-number doubles) are probed as primitive longs, other keys as the values
+ * {@code DISTINCT} compares, so 1 and 1.0 share a group and missing keys group with null. Per-group
+ * aggregates are accumulated in primitive columns during the same pass. Groups keep the order in
+ * which their first element appears, and elements keep their order within a group.
+ */
+final class ArrayGrouper {
+    static final String ITEMS = "items";
+
+    private final List<List<String>> keys;
+    private final List<GroupAggregate> aggregates;
+    private final JsonNodeFactory factory;
+
+    private final GroupTable table = new GroupTable();
+    private final List<JsonNode[]> keyValues = new ArrayList<>();
+    private final List<ArrayNode> items = new ArrayList<>();
+    private final Accumulator[] accumulators;
+
+    private ArrayGrouper(List<List<String>> keys, List<GroupAggregate> aggregates, JsonNodeFactory factory) {
+        this.keys = keys;
+        this.aggregates = aggregates;
+        this.factory = factory;
+        this.accumulators = new Accumulator[aggregates.size()];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = new Accumulator();
+        }
+    }
+
+    /**
+     * Groups copies of the elements of {@code array}.
+     * <p>
+     * {@link JsonTransformationMachine.GroupShape#OBJECT} gives an object keyed by the text of each
+     * key (one nesting level per key path) whose leaves are the arrays of elements, or, with
+     * aggregates, objects holding the aggregates and the elements under {@value #ITEMS}. Distinct
+     * keys with the same text (such as 1 and "1", or null and "null") cannot share a field, so they
+     * are rejected with an {@link IllegalStateException}.
+     * {@link JsonTransformationMachine.GroupShape#ARRAY} gives one object per group holding the key
+     * values (named by the last segment of each key path), the aggregates and {@value #ITEMS}.
+     */
+    static JsonNode group(ArrayNode array, List<List<String>> keys, List<GroupAggregate> aggregates,
+                          JsonTransformationMachine.GroupShape shape, JsonNodeFactory factory) {
+        ArrayGrouper grouper = new ArrayGrouper(keys, aggregates, factory);
+        for (JsonNode element : array) {
+            grouper.add(element);
+        }
+        return shape == JsonTransformationMachine.GroupShape.OBJECT ? grouper.toObject() : grouper.toArray();
+    }
+
+    private void add(JsonNode element) {
+        JsonNode[] values = new JsonNode[keys.size()];
+        for (int k = 0; k < values.length; k++) {
+            values[k] = resolve(element, keys.get(k));
+        }
+        int group = values.length == 1 && isWholeNumber(values[0])
+                ? table.find(wholeNumber(values[0]), items.size())
+                : table.find(hashKey(values), items.size());
+        if (group == items.size()) {
+            keyValues.add(values);
+            items.add(factory.arrayNode());
+        }
+        items.get(group).add(element.deepCopy());
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i].add(group, resolve(element, aggregates.get(i).getPath()),
+                    aggregates.get(i).getFunction() == Command.COUNT);
+        }
+    }
+
+    private JsonNode toObject() {
+        ObjectNode result = factory.objectNode();
+        Map<List<String>, Integer> named = new HashMap<>();
+        for (int group = 0; group < items.size(); group++) {
+            ObjectNode parent = result;
+            JsonNode[] values = keyValues.get(group);
+            List<String> names = new ArrayList<>(values.length);
+            for (int k = 0; k < values.length; k++) {
+                names.add(keyText(values[k]));
+                Integer other = named.putIfAbsent(List.copyOf(names), group);
+                if (other != null && !hashKey(Arrays.copyOf(keyValues.get(other), k + 1))
+                        .equals(hashKey(Arrays.copyOf(values, k + 1)))) {
+                    throw new IllegalStateException(String.format("GROUP_BY keys %s and %s both name field \"%s\"",
+                            keyValues.get(other)[k], values[k], names.get(k)));
+                }
+            }
+            for (int k = 0; k < values.length - 1; k++) {
+                String name = names.get(k);
+                JsonNode child = parent.get(name);
+                parent = child instanceof ObjectNode ? (ObjectNode) child : parent.putObject(name);
+            }
+            String name = names.get(values.length - 1);
+            if (aggregates.isEmpty()) {
+                parent.set(name, items.get(group));
+            } else {
+                ObjectNode leaf = parent.putObject(name);
+                putAggregates(leaf, group);
+                leaf.set(ITEMS, items.get(group));
+            }
+        }
+        return result;
+    }
+
+    private JsonNode toArray() {
+        ArrayNode result = factory.arrayNode();
+        for (int group = 0; group < items.size(); group++) {
+            ObjectNode record = result.addObject();
+            JsonNode[] values = keyValues.get(group);
+            for (int k = 0; k < values.length; k++) {
+                List<String> key = keys.get(k);
+                record.set(key.get(key.size() - 1), values[k].isMissingNode() ? factory.nullNode() : values[k].deepCopy());
+            }
+            putAggregates(record, group);
+            record.set(ITEMS, items.get(group));
+        }
+        return result;
+    }
+
+    private void putAggregates(ObjectNode target, int group) {
+        for (int i = 0; i < accumulators.length; i++) {
+            Object value = accumulators[i].result(group, aggregates.get(i).getFunction());
+            if (value == null) {
+                target.putNull(aggregates.get(i).getField());
+            } else if (value instanceof Long) {
+                target.put(aggregates.get(i).getField(), (Long) value);
+            } else if (value instanceof Integer) {
+                target.put(aggregates.get(i).getField(), (Integer) value);
+            } else {
+                target.put(aggregates.get(i).getField(), (Double) value);
+            }
+        }
+    }
+
+    private static String keyText(JsonNode value) {
+        return value.isMissingNode() || value.isNull() ? "null" : value.isValueNode() ? value.asText() : value.toString();
+    }
+
+    private static JsonNode resolve(JsonNode element, List<String> path) {
+        JsonNode node = element;
+        for (String field : path) {
+            node = node.path(field);
+        }
+        return node;
+    }
+
+    private static boolean isWholeNumber(JsonNode value) {
+        if (value.isIntegralNumber()) {
+            return value.canConvertToLong();
+        }
+        if (!value.isNumber()) {
+            return false;
+        }
+        double number = value.doubleValue();
+        return number == Math.rint(number) && Math.abs(number) < 0x1p63;
+    }
+
+    private static long wholeNumber(JsonNode value) {
+        return value.isIntegralNumber() ? value.longValue() : (long) value.doubleValue();
+    }
+
+    private static Object hashKey(JsonNode[] values) {
+        if (values.length == 1) {
+            return ArraySorter.hashKey(values[0]);
+        }
+        List<Object> key = new ArrayList<>(values.length);
+        for (JsonNode value : values) {
+            key.add(ArraySorter.hashKey(value));
+        }
+        return key;
+    }
+
+    /**
+     * Open-addressing table (linear probing) from key to group number. A slot holds either a long
+     * key, marked by {@link #LONG_KEY} in the object column, or an object key.
+     */
+    private static final class GroupTable {
+        private static final Object LONG_KEY = new Object();
+
+        private long[] longs = new long[16];
+        private Object[] objects = new Object[16];
+        private int[] groups = new int[16];
+        private int size;
+
+        /**
+         * The group of {@code key}, inserting it as {@code next} when absent.
+         */
+        int find(long key, int next) {
+            int mask = objects.length - 1;
+            for (int slot = mix(Long.hashCode(key)) & mask; ; slot = (slot + 1) & mask) {
+                if (objects[slot] == null) {
+                    return insert(slot, key, LONG_KEY, next);
+                }
+                if (objects[slot] == LONG_KEY && longs[slot] == key) {
+                    return groups[slot];
+                }
+            }
+        }
+
+        int find(Object key, int next) {
+            int mask = objects.length - 1;
+            for (int slot = mix(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+                if (objects[slot] == null) {
+                    return insert(slot, 0, key, next);
+                }
+                if (objects[slot] != LONG_KEY && objects[slot].equals(key)) {
+                    return groups[slot];
+                }
+            }
+        }
+
+        private int insert(int slot, long longKey, Object key, int group) {
+            longs[slot] = longKey;
+            objects[slot] = key;
+            groups[slot] = group;
+            if (++size * 2 > objects.length) {
+                grow();
+            }
+            return group;
+        }
+
+        private void grow() {
+            long[] oldLongs = longs;
+            Object[] oldObjects = objects;
+            int[] oldGroups = groups;
+            longs = new long[oldObjects.length * 2];
+            objects = new Object[oldObjects.length * 2];
+            groups = new int[oldObjects.length * 2];
+            int mask = objects.length - 1;
+            for (int i = 0; i < oldObjects.length; i++) {
+                if (oldObjects[i] == null) {
+                    continue;
+                }
+                int hash = oldObjects[i] == LONG_KEY ? Long.hashCode(oldLongs[i]) : oldObjects[i].hashCode();
+                int slot = mix(hash) & mask;
+                while (objects[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                longs[slot] = oldLongs[i];
+                objects[slot] = oldObjects[i];
+                groups[slot] = oldGroups[i];
+            }
+        }
+
+        private static int mix(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Running state of one aggregate for every group, with the semantics of
+     * {@link ColumnAggregates}: integer sums wrap but fall back to the double sum when it leaves
+     * the safe range, and a group becomes fractional at its first non-integer value.
+     */
+    private static final class Accumulator {
+        private long[] counts = new long[16];
+        private long[] longSums = new long[16];
+        private double[] doubleSums = new double[16];
+        private long[] longMins = new long[16];
+        private long[] longMaxes = new long[16];
+        private double[] doubleMins = new double[16];
+        private double[] doubleMaxes = new double[16];
+        private boolean[] fractional = new boolean[16];
+
+        void add(int group, JsonNode value, boolean countPresent) {
+            if (group == counts.length) {
+                grow();
+            }
+            if (countPresent) {
+                if (!value.isMissingNode() && !value.isNull()) {
+                    counts[group]++;
+                }
+                return;
+            }
+            if (!value.isNumber()) {
+                return;
+            }
+            boolean first = counts[group]++ == 0;
+            double number = value.doubleValue();
+            doubleSums[group] += number;
+            doubleMins[group] = first ? number : Math.min(doubleMins[group], number);
+            doubleMaxes[group] = first ? number : Math.max(doubleMaxes[group], number);
+            if (!value.isIntegralNumber() || !value.canConvertToLong()) {
+                fractional[group] = true;
+                return;
+            }
+            long integer = value.longValue();
+            longSums[group] += integer;
+            longMins[group] = first ? integer : Math.min(longMins[group], integer);
+            longMaxes[group] = first ? integer : Math.max(longMaxes[group], integer);
+        }
+
+        Object result(int group, Command function) {
+            long count = counts[group];
+            switch (function) {
+                case COUNT:
+                    return (int) count;
+                case SUM:
+                    return sum(group);
+                case AVG:
+                    return count == 0 ? null : sum(group).doubleValue() / count;
+                case MIN:
+                    return count == 0 ? null : fractional[group] ? (Object) doubleMins[group] : (Object) longMins[group];
+                default:
+                    return count == 0 ? null : fractional[group] ? (Object) doubleMaxes[group] : (Object) longMaxes[group];
+            }
+        }
+
+        private Number sum(int group) {
+            if (fractional[group] || Math.abs(doubleSums[group]) >= 0x1p62) {
+                return doubleSums[group];
+            }
+            return longSums[group];
+        }
+
+        private void grow() {
+            int length = counts.length * 2;
+            counts = Arrays.copyOf(counts, length);
+            longSums = Arrays.copyOf(longSums, length);
+            doubleSums = Arrays.copyOf(doubleSums, length);
+            longMins = Arrays.copyOf(longMins, length);
+            longMaxes = Arrays.copyOf(longMaxes, length);
+            doubleMins = Arrays.copyOf(doubleMins, length);
+            doubleMaxes = Arrays.copyOf(doubleMaxes, length);
+            fractional = Arrays.copyOf(fractional, length);
+        }
+    }
+}
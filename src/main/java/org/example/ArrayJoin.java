@@ -0,0 +1,116 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.*;
+
+/**
+ * Hash join of two arrays by key paths, for {@code JOIN}.
+ * <p>
+ * The smaller array is indexed by key once and the other probes the index, so a join costs
+ * O(left + right) instead of O(left * right). Keys compare as {@code DISTINCT} compares them
+ * (numbers by value); missing and null keys never match. The result lists, in left order, one
+ * merged object per matching pair: a copy of the left element plus the right element's fields it
+ * does not already have. A left join also keeps unmatched left elements, copied unchanged.
+ */
+final class ArrayJoin {
+
+    private ArrayJoin() {
+    }
+
+    static ArrayNode join(ArrayNode left, ArrayNode right, List<String> leftKey, List<String> rightKey,
+                          JsonTransformationMachine.JoinType type, JsonNodeFactory factory) {
+        List<List<JsonNode>> matches = right.size() <= left.size()
+                ? probeLeft(left, right, leftKey, rightKey)
+                : probeRight(left, right, leftKey, rightKey);
+
+        ArrayNode result = factory.arrayNode();
+        for (int i = 0; i < left.size(); i++) {
+            JsonNode element = left.get(i);
+            List<JsonNode> matched = matches.get(i);
+            if (matched == null) {
+                if (type == JsonTransformationMachine.JoinType.LEFT) {
+                    result.add(element.deepCopy());
+                }
+                continue;
+            }
+            for (JsonNode match : matched) {
+                result.add(merge(element, match));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indexes {@code right} and looks up every left element.
+     */
+    private static List<List<JsonNode>> probeLeft(ArrayNode left, ArrayNode right,
+                                                  List<String> leftKey, List<String> rightKey) {
+        Map<Object, List<JsonNode>> index = new HashMap<>();
+        for (JsonNode element : right) {
+            Object key = key(element, rightKey);
+            if (key != null) {
+                index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(element);
+            }
+        }
+        List<List<JsonNode>> matches = new ArrayList<>(left.size());
+        for (JsonNode element : left) {
+            Object key = key(element, leftKey);
+            matches.add(key == null ? null : index.get(key));
+        }
+        return matches;
+    }
+
+    /**
+     * Indexes the positions of {@code left} and streams every right element through the index.
+     */
+    private static List<List<JsonNode>> probeRight(ArrayNode left, ArrayNode right,
+                                                   List<String> leftKey, List<String> rightKey) {
+        Map<Object, List<Integer>> index = new HashMap<>();
+        for (int i = 0; i < left.size(); i++) {
+            Object key = key(left.get(i), leftKey);
+            if (key != null) {
+                index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(i);
+            }
+        }
+        List<List<JsonNode>> matches = new ArrayList<>(Collections.nCopies(left.size(), null));
+        for (JsonNode element : right) {
+            Object key = key(element, rightKey);
+            List<Integer> positions = key == null ? null : index.get(key);
+            if (positions == null) {
+                continue;
+            }
+            for (int position : positions) {
+                if (matches.get(position) == null) {
+                    matches.set(position, new ArrayList<>(1));
+                }
+                matches.get(position).add(element);
+            }
+        }
+        return matches;
+    }
+
+    private static Object key(JsonNode element, List<String> path) {
+        JsonNode value = element;
+        for (String field : path) {
+            value = value.path(field);
+        }
+        return value.isMissingNode() || value.isNull() ? null : ArraySorter.hashKey(value);
+    }
+
+    private static JsonNode merge(JsonNode left, JsonNode right) {
+        JsonNode merged = left.deepCopy();
+        if (merged instanceof ObjectNode && right instanceof ObjectNode) {
+            ObjectNode target = (ObjectNode) merged;
+            right.fields().forEachRemaining(field -> {
+                if (!target.has(field.getKey())) {
+                    target.set(field.getKey(), field.getValue().deepCopy());
+                }
+            });
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,394 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Sorting and de-duplication of array elements by key paths, for {@code SORT_ARRAY} and
+ * {@code DISTINCT}.
+ * <p>
+ * Keys are extracted once per element into primitive columns (a type rank plus a long, double or
+ * string per key), so comparisons never walk the elements. Values order by type first: missing and
+ * null, then booleans, numbers, strings, and finally containers, which compare equal to each other.
+ * Sorting is stable. Arrays larger than the run size are sorted a run at a time; the keys of each
+ * sorted run and the positions of its elements are written to a temporary file, and merging the
+ * runs gives the final order, in which the original nodes are put back. Elements are never
+ * serialized, so they keep their node types and identity, and the extra memory for keys is bounded
+ * by one run instead of growing with the array.
+ */
+final class ArraySorter {
+    static final int DEFAULT_RUN_SIZE = 1 << 20;
+
+    private static final byte MISSING = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte NUMBER = 2;
+    private static final byte STRING = 3;
+    private static final byte CONTAINER = 4;
+
+    private final int runSize;
+
+    ArraySorter(int runSize) {
+        if (runSize < 2) {
+            throw new IllegalArgumentException("Run size must be at least 2: " + runSize);
+        }
+        this.runSize = runSize;
+    }
+
+    /**
+     * Sorts {@code array} in place by {@code keys}; an empty key path is the element itself.
+     */
+    void sort(ArrayNode array, List<List<String>> keys) throws IOException {
+        if (array.size() <= runSize) {
+            List<JsonNode> elements = elements(array, 0, array.size());
+            replace(array, permute(elements, new Keys(elements, keys).sortedOrder()));
+            return;
+        }
+        List<JsonNode> elements = elements(array, 0, array.size());
+        List<Path> runs = new ArrayList<>();
+        try {
+            for (int start = 0; start < elements.size(); start += runSize) {
+                int end = Math.min(start + runSize, elements.size());
+                runs.add(writeRun(new Keys(elements.subList(start, end), keys), start));
+            }
+            replace(array, permute(elements, merge(runs, keys.size(), elements.size())));
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Removes elements whose key equals that of an earlier element, keeping the first; a null
+     * key path compares whole elements. Returns the number of elements removed.
+     */
+    static int distinct(ArrayNode array, List<String> key) {
+        Set<Object> seen = new HashSet<>();
+        List<JsonNode> kept = new ArrayList<>();
+        for (JsonNode element : array) {
+            if (seen.add(hashKey(key == null ? element : resolve(element, key)))) {
+                kept.add(element);
+            }
+        }
+        int removed = array.size() - kept.size();
+        if (removed > 0) {
+            replace(array, kept);
+        }
+        return removed;
+    }
+
+    /**
+     * Writes the keys of a run in sorted order, each preceded by the array position of its element.
+     */
+    private static Path writeRun(Keys keys, int start) throws IOException {
+        Path file = Files.createTempFile("jtm-sort-", ".run");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (int index : keys.sortedOrder()) {
+                out.writeInt(start + index);
+                keys.write(index, out);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Merges the runs into the array positions in final order.
+     */
+    private static int[] merge(List<Path> runs, int columns, int size) throws IOException {
+        PriorityQueue<RunReader> heads = new PriorityQueue<>((a, b) -> {
+            int order = a.key.compare(0, b.key, 0);
+            return order != 0 ? order : Integer.compare(a.run, b.run);
+        });
+        List<RunReader> readers = new ArrayList<>();
+        int[] order = new int[size];
+        int next = 0;
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(i, runs.get(i), columns);
+                readers.add(reader);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+            while (!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                order[next++] = reader.position;
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.in.close();
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Reads the entries of one sorted run back, keeping the key and position of the current one.
+     */
+    private static final class RunReader {
+        final int run;
+        final DataInputStream in;
+        final Keys key;
+        int position;
+
+        RunReader(int run, Path file, int columns) throws IOException {
+            this.run = run;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+            this.key = new Keys(columns, 1);
+        }
+
+        boolean advance() throws IOException {
+            try {
+                position = in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            key.read(0, in);
+            return true;
+        }
+    }
+
+    /**
+     * Extracted keys of a list of elements, one column per key path.
+     */
+    private static final class Keys {
+        private final int size;
+        private final byte[][] ranks;
+        private final long[][] longs;
+        private final double[][] doubles;
+        private final boolean[][] integral;
+        private final String[][] strings;
+
+        Keys(List<JsonNode> elements, List<List<String>> paths) {
+            this(paths.size(), elements.size());
+            for (int c = 0; c < paths.size(); c++) {
+                for (int i = 0; i < size; i++) {
+                    extract(c, i, resolve(elements.get(i), paths.get(c)));
+                }
+            }
+        }
+
+        Keys(int columns, int size) {
+            this.size = size;
+            this.ranks = new byte[columns][size];
+            this.longs = new long[columns][];
+            this.doubles = new double[columns][];
+            this.integral = new boolean[columns][];
+            this.strings = new String[columns][];
+        }
+
+        private void extract(int c, int i, JsonNode value) {
+            if (value == null || value.isMissingNode() || value.isNull()) {
+                ranks[c][i] = MISSING;
+            } else if (value.isBoolean()) {
+                ranks[c][i] = BOOLEAN;
+                longs(c)[i] = value.booleanValue() ? 1 : 0;
+                integral[c][i] = true;
+            } else if (value.isNumber()) {
+                ranks[c][i] = NUMBER;
+                if (value.canConvertToLong() && value.isIntegralNumber()) {
+                    longs(c)[i] = value.longValue();
+                    integral[c][i] = true;
+                }
+                doubles(c)[i] = value.doubleValue();
+            } else if (value.isTextual()) {
+                ranks[c][i] = STRING;
+                strings(c)[i] = value.textValue();
+            } else {
+                ranks[c][i] = CONTAINER;
+            }
+        }
+
+        void write(int i, DataOutputStream out) throws IOException {
+            for (int c = 0; c < ranks.length; c++) {
+                out.writeByte(ranks[c][i]);
+                switch (ranks[c][i]) {
+                    case BOOLEAN:
+                        out.writeLong(longs[c][i]);
+                        break;
+                    case NUMBER:
+                        out.writeBoolean(integral[c][i]);
+                        out.writeLong(longs[c][i]);
+                        out.writeDouble(doubles[c][i]);
+                        break;
+                    case STRING:
+                        byte[] bytes = strings[c][i].getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        void read(int i, DataInputStream in) throws IOException {
+            for (int c = 0; c < ranks.length; c++) {
+                ranks[c][i] = in.readByte();
+                switch (ranks[c][i]) {
+                    case BOOLEAN:
+                        longs(c)[i] = in.readLong();
+                        integral[c][i] = true;
+                        break;
+                    case NUMBER:
+                        boolean whole = in.readBoolean();
+                        longs(c)[i] = in.readLong();
+                        doubles(c)[i] = in.readDouble();
+                        integral[c][i] = whole;
+                        break;
+                    case STRING:
+                        strings(c)[i] = new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        private long[] longs(int c) {
+            if (longs[c] == null) {
+                longs[c] = new long[size];
+                integral[c] = new boolean[size];
+            }
+            return longs[c];
+        }
+
+        private double[] doubles(int c) {
+            if (doubles[c] == null) {
+                doubles[c] = new double[size];
+            }
+            longs(c);
+            return doubles[c];
+        }
+
+        private String[] strings(int c) {
+            if (strings[c] == null) {
+                strings[c] = new String[size];
+            }
+            return strings[c];
+        }
+
+        int compare(int i, Keys other, int j) {
+            for (int c = 0; c < ranks.length; c++) {
+                int rank = ranks[c][i];
+                int order = Integer.compare(rank, other.ranks[c][j]);
+                if (order == 0) {
+                    switch (rank) {
+                        case BOOLEAN:
+                            order = Long.compare(longs[c][i], other.longs[c][j]);
+                            break;
+                        case NUMBER:
+                            order = integral[c][i] && other.integral[c][j]
+                                    ? Long.compare(longs[c][i], other.longs[c][j])
+                                    : Double.compare(doubles[c][i], other.doubles[c][j]);
+                            break;
+                        case STRING:
+                            order = strings[c][i].compareTo(other.strings[c][j]);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                if (order != 0) {
+                    return order;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Positions in key order; equal keys keep their original order (bottom-up merge sort).
+         */
+        int[] sortedOrder() {
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            int[] buffer = new int[size];
+            for (int width = 1; width < size; width *= 2) {
+                for (int low = 0; low < size - width; low += 2 * width) {
+                    int mid = low + width;
+                    int high = Math.min(low + 2 * width, size);
+                    if (compare(order[mid - 1], this, order[mid]) <= 0) {
+                        continue;
+                    }
+                    int left = low;
+                    int right = mid;
+                    for (int k = low; k < high; k++) {
+                        if (right >= high || (left < mid && compare(order[left], this, order[right]) <= 0)) {
+                            buffer[k] = order[left++];
+                        } else {
+                            buffer[k] = order[right++];
+                        }
+                    }
+                    System.arraycopy(buffer, low, order, low, high - low);
+                }
+            }
+            return order;
+        }
+    }
+
+    private static JsonNode resolve(JsonNode element, List<String> path) {
+        JsonNode node = element;
+        for (String field : path) {
+            node = node.path(field);
+        }
+        return node;
+    }
+
+    /**
+     * A value with the same equality as the sort order: numbers by value regardless of node type.
+     */
+    static Object hashKey(JsonNode value) {
+        if (value == null || value.isMissingNode() || value.isNull()) {
+            return Collections.emptyList();
+        }
+        if (value.isTextual()) {
+            return value.textValue();
+        }
+        if (value.isNumber()) {
+            if (value.isIntegralNumber() && value.canConvertToLong()) {
+                return value.longValue();
+            }
+            double number = value.doubleValue();
+            return number == Math.rint(number) && Math.abs(number) < 0x1p63 ? (Object) (long) number : (Object) number;
+        }
+        if (value.isBoolean()) {
+            return value.booleanValue();
+        }
+        return value;
+    }
+
+    private static List<JsonNode> elements(ArrayNode array, int start, int end) {
+        List<JsonNode> elements = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            elements.add(array.get(i));
+        }
+        return elements;
+    }
+
+    private static List<JsonNode> permute(List<JsonNode> elements, int[] order) {
+        List<JsonNode> sorted = new ArrayList<>(order.length);
+        for (int index : order) {
+            sorted.add(elements.get(index));
+        }
+        return sorted;
+    }
+
+    private static void replace(ArrayNode array, List<JsonNode> elements) {
+        array.removeAll();
+        array.addAll(elements);
+    }
+}
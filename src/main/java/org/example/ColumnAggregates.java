@@ -0,0 +1,219 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.util.List;
+
+/**
+ * Reductions over one field path of every element of an array, for {@code SUM}, {@code AVG},
+ * {@code MIN}, {@code MAX} and {@code COUNT}.
+ * <p>
+ * The numeric values at the path are copied into a primitive buffer first: a {@code long[]} while
+ * every value is an integer that fits, a {@code double[]} otherwise. Elements whose value is
+ * missing or not a number are skipped. The reductions run over the buffer with four independent
+ * accumulators, a loop shape the JIT unrolls and vectorizes without boxing. Integer sums are
+ * exact unless the total leaves the long range, in which case the sum is a double.
+ */
+final class ColumnAggregates {
+    private final long[] longs;
+    private final double[] doubles;
+    private final int count;
+
+    private ColumnAggregates(long[] longs, double[] doubles, int count) {
+        this.longs = longs;
+        this.doubles = doubles;
+        this.count = count;
+    }
+
+    /**
+     * Extracts the numbers at {@code path} (relative to each element; empty for the elements
+     * themselves) from {@code array}.
+     */
+    static ColumnAggregates of(ArrayNode array, List<String> path) {
+        long[] longs = new long[array.size()];
+        double[] doubles = null;
+        int count = 0;
+        for (JsonNode element : array) {
+            JsonNode value = element;
+            for (String field : path) {
+                value = value.path(field);
+            }
+            if (!value.isNumber()) {
+                continue;
+            }
+            if (doubles == null && value.isIntegralNumber() && value.canConvertToLong()) {
+                longs[count++] = value.longValue();
+                continue;
+            }
+            if (doubles == null) {
+                doubles = new double[array.size()];
+                for (int i = 0; i < count; i++) {
+                    doubles[i] = longs[i];
+                }
+            }
+            doubles[count++] = value.doubleValue();
+        }
+        return doubles == null ? new ColumnAggregates(longs, null, count) : new ColumnAggregates(null, doubles, count);
+    }
+
+    /**
+     * Number of elements with a value other than null at {@code path}, numeric or not.
+     */
+    static int countPresent(ArrayNode array, List<String> path) {
+        int present = 0;
+        for (JsonNode element : array) {
+            JsonNode value = element;
+            for (String field : path) {
+                value = value.path(field);
+            }
+            if (!value.isMissingNode() && !value.isNull()) {
+                present++;
+            }
+        }
+        return present;
+    }
+
+    /**
+     * A {@code Long} when all values are integers and the sum stays well inside the long range, a
+     * {@code Double} otherwise; 0 for no values.
+     */
+    Number sum() {
+        if (doubles != null) {
+            return sumDoubles(doubles, count);
+        }
+        // Wrapping long arithmetic is exact whenever the true total fits; the double sum tells
+        // whether it can have left the long range.
+        double estimate = sumLongsAsDoubles(longs, count);
+        return Math.abs(estimate) < 0x1p62 ? (Number) sumLongs(longs, count) : (Number) estimate;
+    }
+
+    /**
+     * The mean as a {@code Double}, or null for no values.
+     */
+    Double average() {
+        return count == 0 ? null : sum().doubleValue() / count;
+    }
+
+    /**
+     * The smallest value as a {@code Long} or {@code Double}, or null for no values.
+     */
+    Number min() {
+        if (count == 0) {
+            return null;
+        }
+        return doubles != null ? (Number) minDoubles(doubles, count) : (Number) minLongs(longs, count);
+    }
+
+    Number max() {
+        if (count == 0) {
+            return null;
+        }
+        return doubles != null ? (Number) maxDoubles(doubles, count) : (Number) maxLongs(longs, count);
+    }
+
+    private static long sumLongs(long[] values, int count) {
+        long a = 0, b = 0, c = 0, d = 0;
+        int i = 0;
+        for (; i + 3 < count; i += 4) {
+            a += values[i];
+            b += values[i + 1];
+            c += values[i + 2];
+            d += values[i + 3];
+        }
+        for (; i < count; i++) {
+            a += values[i];
+        }
+        return (a + b) + (c + d);
+    }
+
+    private static double sumLongsAsDoubles(long[] values, int count) {
+        double a = 0, b = 0, c = 0, d = 0;
+        int i = 0;
+        for (; i + 3 < count; i += 4) {
+            a += values[i];
+            b += values[i + 1];
+            c += values[i + 2];
+            d += values[i + 3];
+        }
+        for (; i < count; i++) {
+            a += values[i];
+        }
+        return (a + b) + (c + d);
+    }
+
+    private static double sumDoubles(double[] values, int count) {
+        double a = 0, b = 0, c = 0, d = 0;
+        int i = 0;
+        for (; i + 3 < count; i += 4) {
+            a += values[i];
+            b += values[i + 1];
+            c += values[i + 2];
+            d += values[i + 3];
+        }
+        for (; i < count; i++) {
+            a += values[i];
+        }
+        return (a + b) + (c + d);
+    }
+
+    private static long minLongs(long[] values, int count) {
+        long a = Long.MAX_VALUE, b = Long.MAX_VALUE, c = Long.MAX_VALUE, d = Long.MAX_VALUE;
+        int i = 0;
+        for (; i + 3 < count; i += 4) {
+            a = Math.min(a, values[i]);
+            b = Math.min(b, values[i + 1]);
+            c = Math.min(c, values[i + 2]);
+            d = Math.min(d, values[i + 3]);
+        }
+        for (; i < count; i++) {
+            a = Math.min(a, values[i]);
+        }
+        return Math.min(Math.min(a, b), Math.min(c, d));
+    }
+
+    private static long maxLongs(long[] values, int count) {
+        long a = Long.MIN_VALUE, b = Long.MIN_VALUE, c = Long.MIN_VALUE, d = Long.MIN_VALUE;
+        int i = 0;
+        for (; i + 3 < count; i += 4) {
+            a = Math.max(a, values[i]);
+            b = Math.max(b, values[i + 1]);
+            c = Math.max(c, values[i + 2]);
+            d = Math.max(d, values[i + 3]);
+        }
+        for (; i < count; i++) {
+            a = Math.max(a, values[i]);
+        }
+        return Math.max(Math.max(a, b), Math.max(c, d));
+    }
+
+    private static double minDoubles(double[] values, int count) {
+        double a = Double.POSITIVE_INFINITY, b = a, c = a, d = a;
+        int i = 0;
+        for (; i + 3 < count; i += 4) {
+            a = Math.min(a, values[i]);
+            b = Math.min(b, values[i + 1]);
+            c = Math.min(c, values[i + 2]);
+            d = Math.min(d, values[i + 3]);
+        }
+        for (; i < count; i++) {
+            a = Math.min(a, values[i]);
+        }
+        return Math.min(Math.min(a, b), Math.min(c, d));
+    }
+
+    private static double maxDoubles(double[] values, int count) {
+        double a = Double.NEGATIVE_INFINITY, b = a, c = a, d = a;
+        int i = 0;
+        for (; i + 3 < count; i += 4) {
+            a = Math.max(a, values[i]);
+            b = Math.max(b, values[i + 1]);
+            c = Math.max(c, values[i + 2]);
+            d = Math.max(d, values[i + 3]);
+        }
+        for (; i < count; i++) {
+            a = Math.max(a, values[i]);
+        }
+        return Math.max(Math.max(a, b), Math.max(c, d));
+    }
+}
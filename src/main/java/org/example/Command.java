@@ -9,6 +9,7 @@ public enum Command {
     MOVE_INTO_ARRAY,      // Move into array field
     MOVE_INTO_INDEX,      // Move to specific array index
     MOVE_INTO_FIELD,      // Move into field value
+    COLLECT_DESCENDANTS,  // Push array of all descendant values with given field name
 
     // Stack operations
     PUSH_ELEMENT,         // Push current element to element stack
@@ -41,7 +42,7 @@ public enum Command {
     FORMAT_TIME,        // Format unix timestamp on stack
     TO_TIMESTAMP,       // Convert time to unix timestamp
     COALESCE,           // Coalesce n values on value stack
-    CONCAT,             // Concat n values on value stack
+    CONCAT,             // Concat n values on value stack (n is the parameter, default 2)
     IS_NULL,            // check if last value on value stack is null
 
     // Control flow
@@ -57,10 +58,28 @@ public enum Command {
     CONCAT_ARRAYS,        // Concatenate arrays
     FILTER_ARRAY,         // Filter array based on condition
     MAP_ARRAY,           // Transform array elements
+    PUSH_COLUMN,          // Push array of one field path's values across current array
+    POP_COLUMN,           // Pop array into one field path across current array, from offset
+    BROADCAST_ELEMENT,    // Set top element into one field path of every current array element
+    RESERVE_ARRAY,        // Grow current array to a size in one step
+    FORMAT_TIME_ARRAY,    // Format timestamps at one field path of every current array element
+    TO_TIMESTAMP_ARRAY,   // Parse times at one field path of every current array element
+    SORT_ARRAY,           // Stable sort of current array by key paths, spilling large arrays to disk
+    DISTINCT,             // Remove current array elements whose key repeats an earlier one
+    JOIN,                 // Hash join current array with the popped array by key paths, push merged array
+    GROUP_BY,             // Group current array elements by key paths with optional aggregates, push result
+
+    // Aggregations over one field path of the current array, pushed on the value stack
+    SUM,                  // Sum of numeric values
+    AVG,                  // Mean of numeric values, null if none
+    MIN,                  // Smallest numeric value, null if none
+    MAX,                  // Largest numeric value, null if none
+    COUNT,                // Number of non-null values
 
     // Structure modifications
     CREATE_OBJECT,        // Create new empty object
     CREATE_ARRAY,         // Create new empty array
     DELETE,              // Delete current node
-    MERGE_OBJECTS        // Merge top two objects from stack
+    MERGE_OBJECTS,       // Merge top two objects from stack
+    MERGE_PATCH          // Apply an RFC 7386 merge patch to the current node in place
 }
\ No newline at end of file
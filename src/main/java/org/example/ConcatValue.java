@@ -0,0 +1,109 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * The result of {@code CONCAT} on the value stack: the parts to join, not the joined string.
+ * <p>
+ * Concatenating a {@code ConcatValue} again takes over its parts instead of joining them, so a
+ * value assembled in several steps is built once, when it is written into the tree or read as a
+ * string. Null parts are skipped. The joined string is cached after the first materialization.
+ */
+final class ConcatValue implements CharSequence {
+    private final Object[] parts;
+    private String text;
+
+    private ConcatValue(Object[] parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * Joins {@code values} in order, flattening unmaterialized concatenations.
+     */
+    static ConcatValue of(List<Object> values) {
+        int count = 0;
+        for (Object value : values) {
+            count += value instanceof ConcatValue && ((ConcatValue) value).text == null
+                    ? ((ConcatValue) value).parts.length : 1;
+        }
+        Object[] parts = new Object[count];
+        int i = 0;
+        for (Object value : values) {
+            if (value instanceof ConcatValue && ((ConcatValue) value).text == null) {
+                Object[] nested = ((ConcatValue) value).parts;
+                System.arraycopy(nested, 0, parts, i, nested.length);
+                i += nested.length;
+            } else {
+                parts[i++] = value;
+            }
+        }
+        return new ConcatValue(parts);
+    }
+
+    /**
+     * Returns {@code value} as a plain value, joining it with {@code builder} if it is a concatenation.
+     */
+    static Object materialize(Object value, StringBuilder builder) {
+        return value instanceof ConcatValue ? ((ConcatValue) value).join(builder) : value;
+    }
+
+    String join(StringBuilder builder) {
+        if (text == null) {
+            builder.setLength(0);
+            for (Object part : parts) {
+                append(builder, part);
+            }
+            text = builder.toString();
+        }
+        return text;
+    }
+
+    private static void append(StringBuilder builder, Object part) {
+        if (part == null) {
+            return;
+        }
+        if (part instanceof ConcatValue) {
+            builder.append(((ConcatValue) part).text);
+        } else if (part instanceof CharSequence) {
+            builder.append((CharSequence) part);
+        } else if (part instanceof Integer || part instanceof Long || part instanceof Short) {
+            builder.append(((Number) part).longValue());
+        } else if (part instanceof Double) {
+            builder.append((double) (Double) part);
+        } else if (part instanceof Boolean) {
+            builder.append((boolean) (Boolean) part);
+        } else {
+            builder.append(part);
+        }
+    }
+
+    @Override
+    public int length() {
+        return toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return join(new StringBuilder());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ConcatValue && toString().equals(o.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+}
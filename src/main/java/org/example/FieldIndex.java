@@ -0,0 +1,395 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.*;
+
+/**
+ * Inverted index from field names to the objects (parent frames) that contain them.
+ * The index is built lazily in a single pass over the document and is kept up to date
+ * incrementally by the machine when it replaces or deletes nodes, so repeated
+ * {@code ..field} lookups cost O(matches) instead of O(document).
+ * <p>
+ * Lookups return values in document order. Every container in the document has a position:
+ * its parent and a key ordering it among its siblings, so two fields compare in document order by
+ * walking up to the common ancestor of their objects. Each field name keeps its objects sorted by
+ * that order, and an added subtree is inserted where it belongs by binary search. New fields and
+ * array elements take a key after their siblings; a subtree replacing a container takes over its
+ * key.
+ */
+public class FieldIndex {
+    private static final long KEY_GAP = 1L << 32;
+
+    private final JsonNode root;
+    private final Map<String, List<ObjectNode>> parentsByField;
+    private final Map<JsonNode, Position> positions;
+    private boolean built;
+
+    public FieldIndex(JsonNode root) {
+        this.root = root;
+        this.parentsByField = new HashMap<>();
+        this.positions = new IdentityHashMap<>();
+        this.built = false;
+    }
+
+    /**
+     * Where a container sits: its parent's position and its key among its siblings.
+     */
+    private static final class Position {
+        final Position parent;
+        final int depth;
+        long key;
+        long nextKey;  // key for the next child appended after all others
+
+        Position(Position parent, long key) {
+            this.parent = parent;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            this.key = key;
+        }
+    }
+
+    public JsonNode getRoot() {
+        return root;
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Returns the values of every field with the given name anywhere in the document.
+     */
+    public List<JsonNode> lookup(String field) {
+        List<ObjectNode> parents = parentsOf(field);
+        List<JsonNode> result = new ArrayList<>(parents.size());
+        for (ObjectNode parent : parents) {
+            JsonNode value = parent.get(field);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the objects that hold a field with the given name, in document order.
+     */
+    public List<ObjectNode> parentsOf(String field) {
+        ensureBuilt();
+        List<ObjectNode> parents = parentsByField.get(field);
+        return parents == null ? List.of() : Collections.unmodifiableList(parents);
+    }
+
+    /**
+     * Records that {@code parent[field]} changed from {@code oldValue} to {@code newValue}.
+     * For array parents {@code field} is null and only the subtrees are reindexed. A parent that
+     * is not part of the indexed document leaves the index to be rebuilt on the next lookup.
+     */
+    public void onReplace(JsonNode parent, String field, JsonNode oldValue, JsonNode newValue) {
+        if (!built) {
+            return;
+        }
+        Position parentPosition = positions.get(parent);
+        if (parentPosition == null) {
+            invalidate();
+            return;
+        }
+        Position replaced = oldValue == null ? null : positions.get(oldValue);
+        if (oldValue != null) {
+            removeSubtree(oldValue);
+        }
+        if (parent instanceof ObjectNode && field != null && oldValue == null) {
+            insert(field, (ObjectNode) parent);
+        }
+        if (newValue != null && newValue.isContainerNode()) {
+            long key;
+            if (replaced != null) {
+                key = replaced.key;
+            } else if (parent.isObject() && oldValue == null) {
+                // A new field is the last one of its object
+                key = parentPosition.nextKey;
+                parentPosition.nextKey += KEY_GAP;
+            } else {
+                key = childKey(parent, parentPosition, newValue);
+            }
+            addSubtree(newValue, new Position(parentPosition, key));
+        }
+    }
+
+    /**
+     * Records that {@code parent[field]} (or an array element when {@code field} is null) was removed.
+     */
+    public void onRemove(JsonNode parent, String field, JsonNode oldValue) {
+        if (!built) {
+            return;
+        }
+        if (oldValue != null) {
+            removeSubtree(oldValue);
+        }
+        if (parent instanceof ObjectNode && field != null) {
+            List<ObjectNode> parents = parentsByField.get(field);
+            if (parents != null) {
+                parents.removeIf(p -> p == parent);
+                if (parents.isEmpty()) {
+                    parentsByField.remove(field);
+                }
+            }
+        }
+    }
+
+    public void invalidate() {
+        parentsByField.clear();
+        positions.clear();
+        built = false;
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        parentsByField.clear();
+        positions.clear();
+        if (root != null && root.isContainerNode()) {
+            index(root, new Position(null, 0));
+        }
+        built = true;
+    }
+
+    /**
+     * Indexes a subtree in document order, appending to the per-name lists.
+     */
+    private void index(JsonNode node, Position position) {
+        positions.put(node, position);
+        for (Map.Entry<String, JsonNode> entry : node.properties()) {
+            parentsByField.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add((ObjectNode) node);
+            indexChild(entry.getValue(), position);
+        }
+        if (node.isArray()) {
+            for (JsonNode element : node) {
+                indexChild(element, position);
+            }
+        }
+    }
+
+    private void indexChild(JsonNode child, Position parent) {
+        if (child.isContainerNode()) {
+            index(child, new Position(parent, parent.nextKey));
+            parent.nextKey += KEY_GAP;
+        }
+    }
+
+    /**
+     * Indexes a subtree added to the document, inserting its objects at their place in each list.
+     */
+    private void addSubtree(JsonNode node, Position position) {
+        positions.put(node, position);
+        for (Map.Entry<String, JsonNode> entry : node.properties()) {
+            insert(entry.getKey(), (ObjectNode) node);
+            addChild(entry.getValue(), position);
+        }
+        if (node.isArray()) {
+            for (JsonNode element : node) {
+                addChild(element, position);
+            }
+        }
+    }
+
+    private void addChild(JsonNode child, Position parent) {
+        if (child.isContainerNode()) {
+            addSubtree(child, new Position(parent, parent.nextKey));
+            parent.nextKey += KEY_GAP;
+        }
+    }
+
+    /**
+     * A key for {@code child}, already stored in {@code parent}, between the keys of the
+     * indexed siblings around it. The siblings are renumbered when no key is left between them.
+     */
+    private long childKey(JsonNode parent, Position position, JsonNode child) {
+        List<JsonNode> siblings = siblings(parent);
+        int index = siblings.size() - 1;
+        while (index >= 0 && siblings.get(index) != child) {
+            index--;
+        }
+        Position after = null;
+        for (int i = index + 1; i < siblings.size() && after == null; i++) {
+            after = positions.get(siblings.get(i));
+        }
+        if (after == null) {
+            long key = position.nextKey;
+            position.nextKey += KEY_GAP;
+            return key;
+        }
+        Position before = null;
+        for (int i = index - 1; i >= 0 && before == null; i--) {
+            before = positions.get(siblings.get(i));
+        }
+        long low = before == null ? after.key - KEY_GAP : before.key;
+        if (after.key - low > 1) {
+            return low + (after.key - low) / 2;
+        }
+        long key = 0;
+        position.nextKey = 0;
+        for (JsonNode sibling : siblings) {
+            Position indexed = positions.get(sibling);
+            if (sibling == child) {
+                key = position.nextKey;
+            } else if (indexed != null) {
+                indexed.key = position.nextKey;
+            } else {
+                continue;
+            }
+            position.nextKey += KEY_GAP;
+        }
+        return key;
+    }
+
+    /**
+     * The children of a container in order; arrays are read in place, without copying.
+     */
+    private static List<JsonNode> siblings(JsonNode parent) {
+        if (parent.isArray()) {
+            return new AbstractList<>() {
+                @Override
+                public JsonNode get(int index) {
+                    return parent.get(index);
+                }
+
+                @Override
+                public int size() {
+                    return parent.size();
+                }
+            };
+        }
+        List<JsonNode> values = new ArrayList<>(parent.size());
+        parent.forEach(values::add);
+        return values;
+    }
+
+    /**
+     * Orders two objects by where their field {@code field} appears in the document: below the
+     * common ancestor of the objects, by the keys of the children leading to each, and when one
+     * object contains the other, by whether the field comes before the child holding the other.
+     */
+    private int compare(ObjectNode first, ObjectNode second, String field) {
+        if (first == second) {
+            return 0;
+        }
+        Position a = positions.get(first);
+        Position b = positions.get(second);
+        Position belowA = null;
+        Position belowB = null;
+        while (a.depth > b.depth) {
+            belowA = a;
+            a = a.parent;
+        }
+        while (b.depth > a.depth) {
+            belowB = b;
+            b = b.parent;
+        }
+        while (a != b) {
+            belowA = a;
+            belowB = b;
+            a = a.parent;
+            b = b.parent;
+        }
+        if (belowA == null) {
+            return fieldPrecedes(first, field, belowB) ? -1 : 1;
+        }
+        if (belowB == null) {
+            return fieldPrecedes(second, field, belowA) ? 1 : -1;
+        }
+        return Long.compare(belowA.key, belowB.key);
+    }
+
+    /**
+     * Whether {@code object[field]} comes before, or is, its child container at {@code child}.
+     */
+    private boolean fieldPrecedes(ObjectNode object, String field, Position child) {
+        Position value = positions.get(object.get(field));
+        if (value != null) {
+            return value.key <= child.key;
+        }
+        for (Map.Entry<String, JsonNode> entry : object.properties()) {
+            if (entry.getKey().equals(field)) {
+                return true;
+            }
+            if (positions.get(entry.getValue()) == child) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void insert(String field, ObjectNode parent) {
+        List<ObjectNode> parents = parentsByField.computeIfAbsent(field, k -> new ArrayList<>());
+        int index = Collections.binarySearch(parents, parent, (a, b) -> compare(a, b, field));
+        if (index < 0) {
+            parents.add(-index - 1, parent);
+        }
+    }
+
+    /**
+     * Drops the objects of a removed subtree by identity; the tree no longer shows where they were,
+     * so removals do not search by document order.
+     */
+    private void removeSubtree(JsonNode node) {
+        Map<String, Set<ObjectNode>> removed = new HashMap<>();
+        collectObjects(node, removed);
+        for (Map.Entry<String, Set<ObjectNode>> entry : removed.entrySet()) {
+            List<ObjectNode> parents = parentsByField.get(entry.getKey());
+            if (parents != null) {
+                Set<ObjectNode> objects = entry.getValue();
+                parents.removeIf(objects::contains);
+                if (parents.isEmpty()) {
+                    parentsByField.remove(entry.getKey());
+                }
+            }
+        }
+    }
+
+    private void collectObjects(JsonNode node, Map<String, Set<ObjectNode>> removed) {
+        if (positions.remove(node) == null) {
+            return;
+        }
+        for (Map.Entry<String, JsonNode> entry : node.properties()) {
+            removed.computeIfAbsent(entry.getKey(),
+                    k -> Collections.newSetFromMap(new IdentityHashMap<>())).add((ObjectNode) node);
+            collectObjects(entry.getValue(), removed);
+        }
+        if (node.isArray()) {
+            for (JsonNode element : node) {
+                collectObjects(element, removed);
+            }
+        }
+    }
+
+    /**
+     * Collects the values of every field named {@code field} below {@code node} by walking the subtree,
+     * in the same order as {@link #lookup(String)}.
+     */
+    public static List<JsonNode> scan(JsonNode node, String field) {
+        List<JsonNode> result = new ArrayList<>();
+        scan(node, field, result);
+        return result;
+    }
+
+    private static void scan(JsonNode node, String field, List<JsonNode> result) {
+        if (node instanceof ObjectNode) {
+            for (Map.Entry<String, JsonNode> entry : node.properties()) {
+                if (entry.getKey().equals(field)) {
+                    result.add(entry.getValue());
+                }
+                scan(entry.getValue(), field, result);
+            }
+        } else if (node != null && node.isArray()) {
+            for (JsonNode element : node) {
+                scan(element, field, result);
+            }
+        }
+    }
+}
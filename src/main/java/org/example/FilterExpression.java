@@ -0,0 +1,561 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A compiled {@code [?(...)]} filter, tested against one array element ({@code @}).
+ * <p>
+ * Supported: {@code @}, {@code @.a.b}, {@code @['a b']} and {@code @.tags[0]} operands; string,
+ * number, {@code true}, {@code false} and {@code null} literals; {@code == != < <= > >=};
+ * {@code && || !} and parentheses. A bare operand such as {@code @.active} matches when the value
+ * is present and neither null nor false.
+ * <p>
+ * The expression is parsed once into a tree of conditions specialised by literal type, so testing
+ * an element walks only the operand paths and compares primitives: integers as longs, other
+ * numbers as doubles, strings lexicographically. {@code &&} and {@code ||} short-circuit. A
+ * comparison of different types, or with a missing value, is false; {@code !=} is its negation.
+ */
+public final class FilterExpression implements Predicate<JsonNode> {
+    private final String source;
+    private final Condition condition;
+    private final List<List<String>> paths;
+
+    private FilterExpression(String source, Condition condition, List<List<String>> paths) {
+        this.source = source;
+        this.condition = condition;
+        this.paths = paths;
+    }
+
+    /**
+     * Compiles the expression inside {@code [?(...)]}.
+     *
+     * @throws JsonPathParser.JsonPathParseException if the expression is malformed
+     */
+    public static FilterExpression compile(String expression) {
+        Parser parser = new Parser(expression);
+        Condition condition = parser.parseOr();
+        parser.skipSpace();
+        if (parser.position < expression.length()) {
+            throw parser.error("unexpected '" + expression.charAt(parser.position) + "'");
+        }
+        return new FilterExpression(expression.trim(), condition, Collections.unmodifiableList(parser.paths));
+    }
+
+    @Override
+    public boolean test(JsonNode element) {
+        return condition.test(element);
+    }
+
+    /**
+     * The operand paths the filter reads, relative to the element.
+     */
+    public List<List<String>> getPaths() {
+        return paths;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private interface Condition {
+        boolean test(JsonNode element);
+    }
+
+    private enum Operator {
+        EQ("=="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">=");
+
+        final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        boolean accepts(int order) {
+            switch (this) {
+                case EQ:
+                    return order == 0;
+                case NE:
+                    return order != 0;
+                case LT:
+                    return order < 0;
+                case LE:
+                    return order <= 0;
+                case GT:
+                    return order > 0;
+                default:
+                    return order >= 0;
+            }
+        }
+
+        /**
+         * The operator with its operands swapped: {@code 3 < @.a} is {@code @.a > 3}.
+         */
+        Operator flip() {
+            switch (this) {
+                case LT:
+                    return GT;
+                case LE:
+                    return GE;
+                case GT:
+                    return LT;
+                case GE:
+                    return LE;
+                default:
+                    return this;
+            }
+        }
+
+        boolean isOrdering() {
+            return this != EQ && this != NE;
+        }
+    }
+
+    /**
+     * A path below the element; segments are field names, or array indices where {@code index}
+     * is not negative.
+     */
+    private static final class Operand {
+        private final String[] fields;
+        private final int[] indices;
+
+        Operand(List<String> fields, List<Integer> indices) {
+            this.fields = fields.toArray(new String[0]);
+            this.indices = indices.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * The value, or null when the path does not exist.
+         */
+        JsonNode resolve(JsonNode element) {
+            JsonNode node = element;
+            for (int i = 0; i < fields.length && node != null; i++) {
+                node = indices[i] >= 0 ? (node.isArray() ? node.get(indices[i]) : null) : node.get(fields[i]);
+            }
+            return node;
+        }
+    }
+
+    private static boolean isIntegral(JsonNode value) {
+        return value.isIntegralNumber() && value.canConvertToLong();
+    }
+
+    private static final class NumberComparison implements Condition {
+        private final Operand operand;
+        private final Operator operator;
+        private final boolean integral;
+        private final long longValue;
+        private final double doubleValue;
+
+        NumberComparison(Operand operand, Operator operator, String literal) {
+            this.operand = operand;
+            this.operator = operator;
+            long parsed = 0;
+            boolean isLong;
+            try {
+                parsed = Long.parseLong(literal);
+                isLong = true;
+            } catch (NumberFormatException e) {
+                isLong = false;
+            }
+            this.integral = isLong;
+            this.longValue = parsed;
+            this.doubleValue = Double.parseDouble(literal);
+        }
+
+        @Override
+        public boolean test(JsonNode element) {
+            JsonNode value = operand.resolve(element);
+            if (value == null || !value.isNumber()) {
+                return operator == Operator.NE;
+            }
+            int order = integral && isIntegral(value)
+                    ? Long.compare(value.longValue(), longValue)
+                    : Double.compare(value.doubleValue(), doubleValue);
+            return operator.accepts(order);
+        }
+    }
+
+    private static final class TextComparison implements Condition {
+        private final Operand operand;
+        private final Operator operator;
+        private final String text;
+
+        TextComparison(Operand operand, Operator operator, String text) {
+            this.operand = operand;
+            this.operator = operator;
+            this.text = text;
+        }
+
+        @Override
+        public boolean test(JsonNode element) {
+            JsonNode value = operand.resolve(element);
+            if (value == null || !value.isTextual()) {
+                return operator == Operator.NE;
+            }
+            return operator.accepts(value.textValue().compareTo(text));
+        }
+    }
+
+    /**
+     * {@code == true}, {@code != null} and the like: an equality against a constant node kind.
+     */
+    private static final class ConstantComparison implements Condition {
+        private final Operand operand;
+        private final boolean negated;
+        private final Boolean bool;     // null for the null literal
+
+        ConstantComparison(Operand operand, Operator operator, Boolean bool) {
+            this.operand = operand;
+            this.negated = operator == Operator.NE;
+            this.bool = bool;
+        }
+
+        @Override
+        public boolean test(JsonNode element) {
+            JsonNode value = operand.resolve(element);
+            boolean equal = value != null && (bool == null
+                    ? value.isNull()
+                    : value.isBoolean() && value.booleanValue() == bool);
+            return equal != negated;
+        }
+    }
+
+    private static final class OperandComparison implements Condition {
+        private final Operand left;
+        private final Operator operator;
+        private final Operand right;
+
+        OperandComparison(Operand left, Operator operator, Operand right) {
+            this.left = left;
+            this.operator = operator;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(JsonNode element) {
+            JsonNode a = left.resolve(element);
+            JsonNode b = right.resolve(element);
+            if (a == null || b == null) {
+                return operator == Operator.NE;
+            }
+            int order;
+            if (a.isNumber() && b.isNumber()) {
+                order = isIntegral(a) && isIntegral(b)
+                        ? Long.compare(a.longValue(), b.longValue())
+                        : Double.compare(a.doubleValue(), b.doubleValue());
+            } else if (a.isTextual() && b.isTextual()) {
+                order = a.textValue().compareTo(b.textValue());
+            } else if (operator.isOrdering()) {
+                return false;
+            } else {
+                order = a.equals(b) ? 0 : 1;
+            }
+            return operator.accepts(order);
+        }
+    }
+
+    private static final class Truthy implements Condition {
+        private final Operand operand;
+
+        Truthy(Operand operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean test(JsonNode element) {
+            JsonNode value = operand.resolve(element);
+            return value != null && !value.isNull() && !(value.isBoolean() && !value.booleanValue());
+        }
+    }
+
+    private static final class Not implements Condition {
+        private final Condition condition;
+
+        Not(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean test(JsonNode element) {
+            return !condition.test(element);
+        }
+    }
+
+    private static final class And implements Condition {
+        private final Condition[] conditions;
+
+        And(List<Condition> conditions) {
+            this.conditions = conditions.toArray(new Condition[0]);
+        }
+
+        @Override
+        public boolean test(JsonNode element) {
+            for (Condition condition : conditions) {
+                if (!condition.test(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Or implements Condition {
+        private final Condition[] conditions;
+
+        Or(List<Condition> conditions) {
+            this.conditions = conditions.toArray(new Condition[0]);
+        }
+
+        @Override
+        public boolean test(JsonNode element) {
+            for (Condition condition : conditions) {
+                if (condition.test(element)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Recursive descent parser; operands are either paths ({@link Operand}) or literal tokens
+     * kept as text until the comparison they belong to is known.
+     */
+    private static final class Parser {
+        private final String text;
+        private final List<List<String>> paths = new ArrayList<>();
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Condition parseOr() {
+            List<Condition> conditions = new ArrayList<>();
+            conditions.add(parseAnd());
+            while (accept("||")) {
+                conditions.add(parseAnd());
+            }
+            return conditions.size() == 1 ? conditions.get(0) : new Or(conditions);
+        }
+
+        private Condition parseAnd() {
+            List<Condition> conditions = new ArrayList<>();
+            conditions.add(parseUnary());
+            while (accept("&&")) {
+                conditions.add(parseUnary());
+            }
+            return conditions.size() == 1 ? conditions.get(0) : new And(conditions);
+        }
+
+        private Condition parseUnary() {
+            skipSpace();
+            if (peek('!') && !text.startsWith("!=", position)) {
+                position++;
+                return new Not(parseUnary());
+            }
+            if (accept("(")) {
+                Condition condition = parseOr();
+                expect(")");
+                return condition;
+            }
+            return parseComparison();
+        }
+
+        private Condition parseComparison() {
+            Object left = parseOperand();
+            Operator operator = parseOperator();
+            if (operator == null) {
+                if (!(left instanceof Operand)) {
+                    throw error("a literal is not a condition");
+                }
+                return new Truthy((Operand) left);
+            }
+            Object right = parseOperand();
+            if (left instanceof Operand && right instanceof Operand) {
+                return new OperandComparison((Operand) left, operator, (Operand) right);
+            }
+            if (left instanceof Operand) {
+                return literalComparison((Operand) left, operator, (Literal) right);
+            }
+            if (right instanceof Operand) {
+                return literalComparison((Operand) right, operator.flip(), (Literal) left);
+            }
+            throw error("a comparison needs an @ operand");
+        }
+
+        private Condition literalComparison(Operand operand, Operator operator, Literal literal) {
+            switch (literal.kind) {
+                case NUMBER:
+                    return new NumberComparison(operand, operator, literal.text);
+                case STRING:
+                    return new TextComparison(operand, operator, literal.text);
+                default:
+                    if (operator.isOrdering()) {
+                        throw error("'" + operator.symbol + "' cannot compare with " + literal.text);
+                    }
+                    return new ConstantComparison(operand, operator,
+                            literal.kind == LiteralKind.NULL ? null : Boolean.valueOf(literal.text));
+            }
+        }
+
+        private Operator parseOperator() {
+            skipSpace();
+            for (Operator operator : new Operator[]{Operator.EQ, Operator.NE, Operator.LE, Operator.GE,
+                    Operator.LT, Operator.GT}) {
+                if (text.startsWith(operator.symbol, position)) {
+                    position += operator.symbol.length();
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private Object parseOperand() {
+            skipSpace();
+            if (position >= text.length()) {
+                throw error("operand expected");
+            }
+            char c = text.charAt(position);
+            if (c == '@') {
+                position++;
+                return parsePath();
+            }
+            if (c == '\'' || c == '"') {
+                return new Literal(LiteralKind.STRING, parseString());
+            }
+            if (c == '-' || Character.isDigit(c)) {
+                int start = position++;
+                while (position < text.length() && "0123456789.eE+-".indexOf(text.charAt(position)) >= 0) {
+                    position++;
+                }
+                String number = text.substring(start, position);
+                try {
+                    Double.parseDouble(number);
+                } catch (NumberFormatException e) {
+                    throw error("invalid number " + number);
+                }
+                return new Literal(LiteralKind.NUMBER, number);
+            }
+            for (String keyword : new String[]{"true", "false", "null"}) {
+                if (text.startsWith(keyword, position)) {
+                    position += keyword.length();
+                    return new Literal(keyword.equals("null") ? LiteralKind.NULL : LiteralKind.BOOLEAN, keyword);
+                }
+            }
+            throw error("operand expected");
+        }
+
+        private Operand parsePath() {
+            List<String> fields = new ArrayList<>();
+            List<Integer> indices = new ArrayList<>();
+            while (position < text.length()) {
+                char c = text.charAt(position);
+                if (c == '.') {
+                    position++;
+                    int start = position;
+                    while (position < text.length() && isNameChar(text.charAt(position))) {
+                        position++;
+                    }
+                    if (start == position) {
+                        throw error("field name expected");
+                    }
+                    fields.add(text.substring(start, position));
+                    indices.add(-1);
+                } else if (c == '[') {
+                    position++;
+                    skipSpace();
+                    if (peek('\'') || peek('"')) {
+                        fields.add(parseString());
+                        indices.add(-1);
+                    } else {
+                        int start = position;
+                        while (position < text.length() && Character.isDigit(text.charAt(position))) {
+                            position++;
+                        }
+                        if (start == position) {
+                            throw error("index or quoted field expected");
+                        }
+                        fields.add(text.substring(start, position));
+                        indices.add(Integer.parseInt(fields.get(fields.size() - 1)));
+                    }
+                    expect("]");
+                } else {
+                    break;
+                }
+            }
+            paths.add(List.copyOf(fields));
+            return new Operand(fields, indices);
+        }
+
+        private String parseString() {
+            char quote = text.charAt(position++);
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == quote) {
+                    return value.toString();
+                }
+                if (c == '\\' && position < text.length()) {
+                    c = text.charAt(position++);
+                }
+                value.append(c);
+            }
+            throw error("unterminated string");
+        }
+
+        private static boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '-';
+        }
+
+        private boolean peek(char c) {
+            return position < text.length() && text.charAt(position) == c;
+        }
+
+        private boolean accept(String token) {
+            skipSpace();
+            if (text.startsWith(token, position)) {
+                position += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw error("'" + token + "' expected");
+            }
+        }
+
+        void skipSpace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        JsonPathParser.JsonPathParseException error(String message) {
+            return new JsonPathParser.JsonPathParseException(
+                    "Invalid filter [?(" + text + ")] at " + position + ": " + message);
+        }
+    }
+
+    private enum LiteralKind {
+        STRING, NUMBER, BOOLEAN, NULL
+    }
+
+    private static final class Literal {
+        final LiteralKind kind;
+        final String text;
+
+        Literal(LiteralKind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One per-group aggregate of a {@code GROUP_BY}: an aggregation command ({@code SUM}, {@code AVG},
+ * {@code MIN}, {@code MAX} or {@code COUNT}) over a field path of the group's elements, written
+ * to {@code field} of the group. The results follow the commands of the same name.
+ */
+public final class GroupAggregate {
+    private final Command function;
+    private final String field;
+    private final List<String> path;
+
+    private GroupAggregate(Command function, String field, List<String> path) {
+        this.function = function;
+        this.field = field;
+        this.path = path;
+    }
+
+    /**
+     * @param path field path within each element; empty for the elements themselves
+     */
+    public static GroupAggregate of(Command function, String field, List<String> path) {
+        switch (Objects.requireNonNull(function, "function")) {
+            case SUM:
+            case AVG:
+            case MIN:
+            case MAX:
+            case COUNT:
+                break;
+            default:
+                throw new IllegalArgumentException("Not an aggregation: " + function);
+        }
+        for (String segment : path) {
+            Objects.requireNonNull(segment, "path segment");
+        }
+        return new GroupAggregate(function, Objects.requireNonNull(field, "field"), List.copyOf(path));
+    }
+
+    public Command getFunction() {
+        return function;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public List<String> getPath() {
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return function + "(" + String.join(".", path) + ") as " + field;
+    }
+}
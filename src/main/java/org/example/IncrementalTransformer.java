@@ -0,0 +1,374 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.*;
+
+/**
+ * Keeps a transformed document up to date when its input changes by RFC 6902 patches.
+ * <p>
+ * {@link #transform} runs every move once. {@link #applyPatch} applies a patch to the same
+ * document and re-executes only the moves whose read or write paths overlap a changed path, in
+ * program order; the paths each re-executed move writes count as changed for the moves after it.
+ * When a change falls inside a single element of a pattern move's source or target array, only
+ * that element is moved again.
+ * <p>
+ * A pattern move into {@code [*]} or {@code [*+$.array]} remembers the range of target elements
+ * it wrote last. When such a move runs in full again, what it wrote outside its new range is
+ * removed and target elements left empty at the end of the array are dropped, so a source that
+ * shrank leaves no stale elements behind. For moves whose output depends only on the paths they read,
+ * the result then equals running all moves on the patched document.
+ */
+public class IncrementalTransformer {
+    private static final int FULL = -1;
+    private static final int NONE = -2;
+
+    private final List<Move> moves;
+    private final List<Program> programs;
+    private final JsonTransformationMachine machine;
+    private final List<Integer> lastRerun;
+    private final int[][] written;
+    private JsonNode document;
+
+    public IncrementalTransformer(List<Move> moves) {
+        this.moves = List.copyOf(moves);
+        this.programs = new ArrayList<>();
+        for (Move move : this.moves) {
+            programs.add(move.compile());
+        }
+        this.machine = new JsonTransformationMachine(null);
+        this.lastRerun = new ArrayList<>();
+        this.written = new int[this.moves.size()][];
+    }
+
+    /**
+     * Runs all moves on {@code document} in place and remembers it for later patches.
+     */
+    public JsonNode transform(JsonNode document) {
+        this.document = document;
+        Arrays.fill(written, null);
+        runAll();
+        return document;
+    }
+
+    /**
+     * Applies {@code patch} to the remembered document and brings the output up to date.
+     */
+    public JsonNode applyPatch(JsonNode patch) {
+        if (document == null) {
+            throw new IllegalStateException("transform() must be called before applyPatch()");
+        }
+
+        List<List<String>> changed;
+        try {
+            changed = new ArrayList<>(JsonPatch.apply(document, patch));
+        } catch (RuntimeException e) {
+            // Part of the patch may have been applied, so bring every output up to date
+            runAll();
+            throw e;
+        }
+
+        lastRerun.clear();
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            Set<Integer> elements = new TreeSet<>();
+            boolean full = false;
+            for (List<String> path : changed) {
+                int element;
+                if (readsSize(move, path)) {
+                    element = FULL;
+                } else if (AccessPaths.overlaps(path, move.getReadPaths().get(0))) {
+                    element = sourceElement(move, path);
+                } else if (AccessPaths.overlapsAny(path, move.getWritePaths())) {
+                    element = targetElement(move, path);
+                } else {
+                    continue;
+                }
+                if (element == FULL) {
+                    full = true;
+                    break;
+                }
+                if (element != NONE) {
+                    elements.add(element);
+                }
+            }
+
+            if (full) {
+                runMove(i);
+                changed.addAll(move.getWritePaths());
+            } else if (!elements.isEmpty()) {
+                for (int element : elements) {
+                    run(JsonPathTransformer.generateElementMoveInstructions(
+                            move.getSourceComponents(), move.getTargetComponents(), move.getMapping(), element));
+                    changed.add(writtenPath(move, element));
+                }
+            } else {
+                continue;
+            }
+            lastRerun.add(i);
+        }
+        return document;
+    }
+
+    /**
+     * Indices of the moves re-executed by the last {@link #applyPatch} call.
+     */
+    public List<Integer> getLastRerunMoves() {
+        return Collections.unmodifiableList(lastRerun);
+    }
+
+    public JsonNode getDocument() {
+        return document;
+    }
+
+    private void runAll() {
+        lastRerun.clear();
+        for (int i = 0; i < programs.size(); i++) {
+            runMove(i);
+            lastRerun.add(i);
+        }
+    }
+
+    /**
+     * Runs move {@code i} in full, then clears the target elements it wrote last time but no
+     * longer writes.
+     */
+    private void runMove(int i) {
+        Move move = moves.get(i);
+        int[] previous = written[i];
+        run(programs.get(i).getInstructions());
+        written[i] = writtenRange(move);
+        if (previous != null) {
+            clearStale(i, previous);
+        }
+    }
+
+    /**
+     * The target elements {@code [start, end)} a pattern move writes, or null when the move
+     * is not handled element by element or writes below something other than fields.
+     */
+    private int[] writtenRange(Move move) {
+        List<String> sourceArrayPath = elementArrayPath(move, move.getSourceComponents());
+        if (sourceArrayPath == null || elementFields(move) == null) {
+            return null;
+        }
+        int start = offsetOf(move);
+        return new int[]{start, start + arraySize(sourceArrayPath.subList(0, sourceArrayPath.size() - 1))};
+    }
+
+    /**
+     * Removes what move {@code i} wrote to the elements of {@code previous} outside its current
+     * range: the target field, with the objects that held only it, or the element itself when
+     * the move writes whole elements. Elements another move writes the same field of are kept.
+     * Empty objects that no move writes are then dropped from the end of the array.
+     */
+    private void clearStale(int i, int[] previous) {
+        Move move = moves.get(i);
+        List<String> arrayPath = elementArrayPath(move, move.getTargetComponents());
+        JsonNode array = node(arrayPath.subList(0, arrayPath.size() - 1));
+        if (!(array instanceof ArrayNode)) {
+            return;
+        }
+        ArrayNode elements = (ArrayNode) array;
+        List<String> fields = elementFields(move);
+        for (int index = previous[0]; index < Math.min(previous[1], elements.size()); index++) {
+            if (writes(index, arrayPath, fields)) {
+                continue;
+            }
+            if (fields.isEmpty()) {
+                elements.set(index, elements.objectNode());
+            } else {
+                removeField(elements.get(index), fields, 0);
+            }
+        }
+        for (int last = elements.size() - 1; last >= 0 && isEmptyObject(elements.get(last))
+                && !writes(last, arrayPath, null); last--) {
+            elements.remove(last);
+        }
+        // A fresh run creates the target array only when a move writes into it
+        JsonNode parent = node(arrayPath.subList(0, arrayPath.size() - 2));
+        if (elements.isEmpty() && parent instanceof ObjectNode && !writesAny(arrayPath)) {
+            ((ObjectNode) parent).remove(arrayPath.get(arrayPath.size() - 2));
+        }
+    }
+
+    /**
+     * Whether a move currently writes element {@code index} of the target array
+     * {@code arrayPath}, at {@code fields} or, when null, at any fields.
+     */
+    private boolean writes(int index, List<String> arrayPath, List<String> fields) {
+        for (int j = 0; j < moves.size(); j++) {
+            Move other = moves.get(j);
+            if (written[j] == null || index < written[j][0] || index >= written[j][1]) {
+                continue;
+            }
+            if (arrayPath.equals(elementArrayPath(other, other.getTargetComponents()))
+                    && (fields == null || fields.equals(elementFields(other)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes {@code fields} below {@code node}; returns whether {@code node} is left empty.
+     */
+    private static boolean removeField(JsonNode node, List<String> fields, int depth) {
+        if (!(node instanceof ObjectNode)) {
+            return false;
+        }
+        ObjectNode object = (ObjectNode) node;
+        String field = fields.get(depth);
+        if (depth == fields.size() - 1 || removeField(object.get(field), fields, depth + 1)) {
+            object.remove(field);
+        }
+        return object.isEmpty();
+    }
+
+    /**
+     * Whether any move targets the array {@code arrayPath} and was not recorded as writing
+     * nothing into it.
+     */
+    private boolean writesAny(List<String> arrayPath) {
+        for (int j = 0; j < moves.size(); j++) {
+            Move other = moves.get(j);
+            if (arrayPath.equals(elementArrayPath(other, other.getTargetComponents()))
+                    && (written[j] == null || written[j][1] > written[j][0])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEmptyObject(JsonNode node) {
+        return node instanceof ObjectNode && node.isEmpty();
+    }
+
+    /**
+     * The fields a pattern move writes within each target element; empty when it writes the
+     * elements themselves, or null when the path below the array is not made of fields.
+     */
+    private static List<String> elementFields(Move move) {
+        List<PathComponent> target = move.getTargetComponents();
+        PathComponent array = JsonPathTransformer.findArrayComponent(target);
+        List<String> fields = new ArrayList<>();
+        for (PathComponent component : target.subList(target.indexOf(array) + 1, target.size())) {
+            if (component.getType() != PathComponent.Type.FIELD) {
+                return null;
+            }
+            fields.add(component.getField());
+        }
+        return fields;
+    }
+
+    private void run(List<Instruction> instructions) {
+        machine.reset(document);
+        machine.execute(instructions);
+    }
+
+    /**
+     * A change below an element cannot alter the array size, since inserts and removals
+     * report the array itself as changed.
+     */
+    private static boolean readsSize(Move move, List<String> path) {
+        for (List<String> sizeRead : move.getSizeReadPaths()) {
+            if (path.size() <= sizeRead.size() && AccessPaths.overlaps(path, sizeRead)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the source array index when {@code path} lies inside one element of a pattern
+     * move's {@code [*]} source, otherwise {@link #FULL}.
+     */
+    private int sourceElement(Move move, List<String> path) {
+        List<String> arrayPath = elementArrayPath(move, move.getSourceComponents());
+        if (arrayPath == null) {
+            return FULL;
+        }
+        return indexWithin(arrayPath, path);
+    }
+
+    /**
+     * Returns the source index whose iteration writes the target element {@code path} lies in,
+     * {@link #NONE} when the move never writes that element, or {@link #FULL} when unknown.
+     */
+    private int targetElement(Move move, List<String> path) {
+        List<String> arrayPath = elementArrayPath(move, move.getTargetComponents());
+        List<String> sourceArrayPath = elementArrayPath(move, move.getSourceComponents());
+        if (arrayPath == null || sourceArrayPath == null) {
+            return FULL;
+        }
+        int index = indexWithin(arrayPath, path);
+        if (index == FULL) {
+            return FULL;
+        }
+        int element = index - offsetOf(move);
+        int sourceSize = arraySize(sourceArrayPath.subList(0, sourceArrayPath.size() - 1));
+        return element >= 0 && element < sourceSize ? element : NONE;
+    }
+
+    private List<String> writtenPath(Move move, int element) {
+        List<String> arrayPath = elementArrayPath(move, move.getTargetComponents());
+        List<String> written = new ArrayList<>(move.getWritePaths().get(0));
+        written.set(arrayPath.size() - 1, String.valueOf(element + offsetOf(move)));
+        return written;
+    }
+
+    /**
+     * Segments up to and including the {@code *} of the array a pattern move iterates,
+     * or null when the move is not handled element by element.
+     */
+    private static List<String> elementArrayPath(Move move, List<PathComponent> components) {
+        if (move.getKind() != Move.Kind.PATTERN) {
+            return null;
+        }
+        PathComponent sourceArray = JsonPathTransformer.findArrayComponent(move.getSourceComponents());
+        if (sourceArray == null || sourceArray.getType() != PathComponent.Type.ARRAY_ALL) {
+            return null;
+        }
+        PathComponent array = JsonPathTransformer.findArrayComponent(components);
+        if (array == null || (array.getType() != PathComponent.Type.ARRAY_ALL
+                && array.getType() != PathComponent.Type.ARRAY_ALL_OFFSET)) {
+            return null;
+        }
+        return AccessPaths.fromComponents(components.subList(0, components.indexOf(array) + 1));
+    }
+
+    private static int indexWithin(List<String> arrayPath, List<String> path) {
+        int indexPosition = arrayPath.size() - 1;
+        if (path.size() <= indexPosition || !path.subList(0, indexPosition).equals(arrayPath.subList(0, indexPosition))) {
+            return FULL;
+        }
+        try {
+            return Integer.parseInt(path.get(indexPosition));
+        } catch (NumberFormatException e) {
+            return FULL;
+        }
+    }
+
+    private int offsetOf(Move move) {
+        PathComponent targetArray = JsonPathTransformer.findArrayComponent(move.getTargetComponents());
+        if (targetArray.getType() != PathComponent.Type.ARRAY_ALL_OFFSET) {
+            return 0;
+        }
+        return arraySize(AccessPaths.fromPath(targetArray.getOffsetPath()));
+    }
+
+    private int arraySize(List<String> segments) {
+        JsonNode node = node(segments);
+        return node != null && node.isContainerNode() ? node.size() : 0;
+    }
+
+    private JsonNode node(List<String> segments) {
+        JsonNode node = document;
+        for (String segment : segments) {
+            node = node == null ? null : node.get(segment);
+        }
+        return node;
+    }
+}
@@ -0,0 +1,170 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The indices a slice ({@code [start:end:step]}) or index list ({@code [i,j,k]}) selects from an
+ * array of a given size.
+ * <p>
+ * Slices follow Python semantics: bounds are optional, negative bounds count from the end and are
+ * clamped to the array, and a negative step walks backwards. Negative list entries also count
+ * from the end; entries outside the array are skipped. Selected positions are numbered from 0, so
+ * a loop over {@code count(size)} positions visits only the selected elements. A list is resolved
+ * to its valid indices once per array size, so looking up a position does not rescan it.
+ */
+public final class IndexSelection {
+    private final Integer start;
+    private final Integer end;
+    private final int step;
+    private final int[] indices;
+    private volatile Resolved resolved;
+
+    private IndexSelection(Integer start, Integer end, int step, int[] indices) {
+        this.start = start;
+        this.end = end;
+        this.step = step;
+        this.indices = indices;
+    }
+
+    public static IndexSelection range(Integer start, Integer end, int step) {
+        if (step == 0) {
+            throw new IllegalArgumentException("Slice step cannot be zero");
+        }
+        return new IndexSelection(start, end, step, null);
+    }
+
+    public static IndexSelection values(List<Integer> indices) {
+        return new IndexSelection(null, null, 1, indices.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Returns the selection of an {@code ARRAY_RANGE} or {@code ARRAY_VALUES} component, or null
+     * for any other component.
+     */
+    public static IndexSelection of(PathComponent component) {
+        switch (component.getType()) {
+            case ARRAY_RANGE:
+                return range(component.getStartIndex(), component.getEndIndex(), component.getStep());
+            case ARRAY_VALUES:
+                return values(component.getIndices());
+            default:
+                return null;
+        }
+    }
+
+    Integer getStart() {
+        return start;
+    }
+
+    Integer getEnd() {
+        return end;
+    }
+
+    int getStep() {
+        return step;
+    }
+
+    /**
+     * The listed indices, or null for a slice.
+     */
+    int[] getIndices() {
+        return indices == null ? null : indices.clone();
+    }
+
+    /**
+     * The valid indices of a list, normalized, for an array of {@code size} elements; null for a
+     * slice. The result is cached for the last size and must not be modified.
+     */
+    int[] resolve(int size) {
+        if (indices == null) {
+            return null;
+        }
+        Resolved last = resolved;
+        if (last != null && last.size == size) {
+            return last.indices;
+        }
+        int[] valid = new int[indices.length];
+        int count = 0;
+        for (int index : indices) {
+            int normalized = normalize(index, size);
+            if (normalized >= 0) {
+                valid[count++] = normalized;
+            }
+        }
+        valid = count == valid.length ? valid : Arrays.copyOf(valid, count);
+        resolved = new Resolved(size, valid);
+        return valid;
+    }
+
+    /**
+     * Number of elements selected from an array of {@code size} elements.
+     */
+    public int count(int size) {
+        if (indices != null) {
+            return resolve(size).length;
+        }
+        int first = first(size);
+        int last = step > 0 ? bound(end, size, size, 0, size) : bound(end, -1, size, -1, size - 1);
+        int span = step > 0 ? last - first : first - last;
+        return span <= 0 ? 0 : (span + Math.abs(step) - 1) / Math.abs(step);
+    }
+
+    /**
+     * Array index of the selected element at {@code position}, counting from 0.
+     */
+    public int indexAt(int position, int size) {
+        if (indices == null) {
+            return first(size) + position * step;
+        }
+        int[] valid = resolve(size);
+        if (position < 0 || position >= valid.length) {
+            throw new IndexOutOfBoundsException("Position " + position + " is beyond the selection");
+        }
+        return valid[position];
+    }
+
+    private int first(int size) {
+        return step > 0 ? bound(start, 0, size, 0, size) : bound(start, size - 1, size, -1, size - 1);
+    }
+
+    private static int bound(Integer value, int absent, int size, int min, int max) {
+        if (value == null) {
+            return absent;
+        }
+        int resolved = value < 0 ? value + size : value;
+        return Math.max(min, Math.min(max, resolved));
+    }
+
+    /**
+     * A list resolved for one array size; replaced as a whole, so threads sharing a program see
+     * either the old or the new resolution.
+     */
+    private static final class Resolved {
+        final int size;
+        final int[] indices;
+
+        Resolved(int size, int[] indices) {
+            this.size = size;
+            this.indices = indices;
+        }
+    }
+
+    private static int normalize(int index, int size) {
+        int resolved = index < 0 ? index + size : index;
+        return resolved >= 0 && resolved < size ? resolved : -1;
+    }
+
+    @Override
+    public String toString() {
+        if (indices != null) {
+            StringBuilder text = new StringBuilder("[");
+            for (int i = 0; i < indices.length; i++) {
+                text.append(i > 0 ? "," : "").append(indices[i]);
+            }
+            return text.append(']').toString();
+        }
+        return "[" + (start != null ? start : "") + ":" + (end != null ? end : "")
+                + (step != 1 ? ":" + step : "") + "]";
+    }
+}
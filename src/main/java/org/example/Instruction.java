@@ -26,13 +26,25 @@ public class Instruction {
     }
 
     public Object[] getParams() {
-        return params;
+        return params.clone();
+    }
+
+    public Object getParam(int index) {
+        return params[index];
+    }
+
+    public int getParamCount() {
+        return params.length;
     }
 
     public boolean shouldStoreLocation() {
         return storeLocation;
     }
 
+    Instruction withParams(Object... params) {
+        return new Instruction(command, storeLocation, params);
+    }
+
     @Override
     public String toString() {
         return String.format("Instruction{command=%s, storeLocation=%s, params=%s}",
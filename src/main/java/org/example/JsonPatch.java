@@ -0,0 +1,196 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-place application of RFC 6902 JSON Patch documents.
+ * <p>
+ * {@link #apply} reports the paths each operation changed, as segment lists (see {@link AccessPaths}).
+ * Operations that insert or remove array elements shift the following elements, so they report
+ * the whole array as changed.
+ */
+public final class JsonPatch {
+
+    private JsonPatch() {
+    }
+
+    /**
+     * Applies {@code patch} to {@code document} in order. Operations are not transactional: when
+     * one fails, the earlier operations stay applied.
+     *
+     * @return the changed paths
+     * @throws JsonPatchException if an operation is malformed, a path does not exist or a test fails
+     */
+    public static List<List<String>> apply(JsonNode document, JsonNode patch) {
+        if (patch == null || !patch.isArray()) {
+            throw new JsonPatchException("Patch must be an array of operations");
+        }
+        List<List<String>> changed = new ArrayList<>();
+        for (JsonNode operation : patch) {
+            applyOperation(document, operation, changed);
+        }
+        return changed;
+    }
+
+    private static void applyOperation(JsonNode document, JsonNode operation, List<List<String>> changed) {
+        String op = requireText(operation, "op");
+        List<String> path = AccessPaths.fromPointer(requireText(operation, "path"));
+
+        switch (op) {
+            case "add":
+                changed.add(add(document, path, requireValue(operation).deepCopy()));
+                break;
+            case "remove":
+                changed.add(remove(document, path));
+                break;
+            case "replace":
+                get(document, path);
+                changed.add(replace(document, path, requireValue(operation).deepCopy()));
+                break;
+            case "move": {
+                List<String> from = AccessPaths.fromPointer(requireText(operation, "from"));
+                if (path.size() > from.size() && path.subList(0, from.size()).equals(from)) {
+                    throw new JsonPatchException("Cannot move a node into its own child: " + operation);
+                }
+                JsonNode value = get(document, from);
+                changed.add(remove(document, from));
+                changed.add(add(document, path, value));
+                break;
+            }
+            case "copy": {
+                List<String> from = AccessPaths.fromPointer(requireText(operation, "from"));
+                changed.add(add(document, path, get(document, from).deepCopy()));
+                break;
+            }
+            case "test":
+                if (!get(document, path).equals(requireValue(operation))) {
+                    throw new JsonPatchException("Test failed: " + operation);
+                }
+                break;
+            default:
+                throw new JsonPatchException("Unknown patch operation: " + op);
+        }
+    }
+
+    private static List<String> add(JsonNode document, List<String> path, JsonNode value) {
+        if (path.isEmpty()) {
+            return replace(document, path, value);
+        }
+        JsonNode parent = get(document, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+        if (parent instanceof ObjectNode) {
+            ((ObjectNode) parent).set(token, value);
+            return path;
+        }
+        if (parent instanceof ArrayNode) {
+            ArrayNode array = (ArrayNode) parent;
+            if (token.equals("-")) {
+                array.add(value);
+            } else {
+                array.insert(arrayIndex(array, token, true), value);
+            }
+            return path.subList(0, path.size() - 1);
+        }
+        throw new JsonPatchException("Cannot add to a scalar at " + path);
+    }
+
+    private static List<String> remove(JsonNode document, List<String> path) {
+        if (path.isEmpty()) {
+            throw new JsonPatchException("Cannot remove the document root");
+        }
+        JsonNode parent = get(document, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+        if (parent instanceof ObjectNode) {
+            if (((ObjectNode) parent).remove(token) == null) {
+                throw new JsonPatchException("No such field: " + path);
+            }
+            return path;
+        }
+        if (parent instanceof ArrayNode) {
+            ArrayNode array = (ArrayNode) parent;
+            array.remove(arrayIndex(array, token, false));
+            return path.subList(0, path.size() - 1);
+        }
+        throw new JsonPatchException("Cannot remove from a scalar at " + path);
+    }
+
+    private static List<String> replace(JsonNode document, List<String> path, JsonNode value) {
+        if (path.isEmpty()) {
+            if (!(document instanceof ObjectNode) || !(value instanceof ObjectNode)) {
+                throw new JsonPatchException("The document root can only be replaced by an object");
+            }
+            ((ObjectNode) document).removeAll();
+            ((ObjectNode) document).setAll((ObjectNode) value);
+            return path;
+        }
+        JsonNode parent = get(document, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+        if (parent instanceof ObjectNode) {
+            ((ObjectNode) parent).set(token, value);
+        } else if (parent instanceof ArrayNode) {
+            ArrayNode array = (ArrayNode) parent;
+            array.set(arrayIndex(array, token, false), value);
+        } else {
+            throw new JsonPatchException("Cannot replace inside a scalar at " + path);
+        }
+        return path;
+    }
+
+    private static JsonNode get(JsonNode document, List<String> path) {
+        JsonNode node = document;
+        for (String token : path) {
+            if (node instanceof ObjectNode) {
+                node = node.get(token);
+            } else if (node instanceof ArrayNode) {
+                node = node.get(arrayIndex((ArrayNode) node, token, false));
+            } else {
+                node = null;
+            }
+            if (node == null) {
+                throw new JsonPatchException("Path does not exist: " + path);
+            }
+        }
+        return node;
+    }
+
+    private static int arrayIndex(ArrayNode array, String token, boolean allowEnd) {
+        int index;
+        try {
+            index = Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new JsonPatchException("Invalid array index: " + token);
+        }
+        int limit = allowEnd ? array.size() : array.size() - 1;
+        if (index < 0 || index > limit || (token.length() > 1 && token.startsWith("0"))) {
+            throw new JsonPatchException("Array index out of bounds: " + token);
+        }
+        return index;
+    }
+
+    private static String requireText(JsonNode operation, String field) {
+        JsonNode value = operation.get(field);
+        if (value == null || !value.isTextual()) {
+            throw new JsonPatchException("Patch operation is missing '" + field + "': " + operation);
+        }
+        return value.asText();
+    }
+
+    private static JsonNode requireValue(JsonNode operation) {
+        JsonNode value = operation.get("value");
+        if (value == null) {
+            throw new JsonPatchException("Patch operation is missing 'value': " + operation);
+        }
+        return value;
+    }
+
+    public static class JsonPatchException extends RuntimeException {
+        public JsonPatchException(String message) {
+            super(message);
+        }
+    }
+}
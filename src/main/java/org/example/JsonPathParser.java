@@ -13,7 +13,9 @@ public class JsonPathParser {
         List<PathComponent> components = new ArrayList<>();
 
         // Handle root
-        if (path.startsWith("$.")) {
+        if (path.startsWith("$..")) {
+            path = path.substring(1);
+        } else if (path.startsWith("$.")) {
             path = path.substring(2);
         } else if (path.startsWith("$")) {
             path = path.substring(1);
@@ -26,18 +28,30 @@ public class JsonPathParser {
         }
 
         StringBuilder currentPart = new StringBuilder();
-        boolean inBrackets = false;
+        int bracketDepth = 0;
+        char quote = 0;     // open quote inside a filter expression
 
         for (int i = 0; i < path.length(); i++) {
             char c = path.charAt(i);
 
-            if (c == '[') {
-                inBrackets = true;
+            if (quote != 0) {
+                if (c == '\\' && i + 1 < path.length()) {
+                    currentPart.append(c);
+                    c = path.charAt(++i);
+                } else if (c == quote) {
+                    quote = 0;
+                }
+                currentPart.append(c);
+            } else if ((c == '\'' || c == '"') && bracketDepth > 0) {
+                quote = c;
+                currentPart.append(c);
+            } else if (c == '[') {
+                bracketDepth++;
                 currentPart.append(c);
             } else if (c == ']') {
-                inBrackets = false;
+                bracketDepth--;
                 currentPart.append(c);
-            } else if (c == '.' && !inBrackets) {
+            } else if (c == '.' && bracketDepth == 0) {
                 // Process current part if not empty
                 if (currentPart.length() > 0) {
                     processPathPart(currentPart.toString(), components);
@@ -85,19 +99,26 @@ public class JsonPathParser {
         String arrayPattern = part.substring(bracketStart + 1, bracketEnd);
 
         try {
-            if (arrayPattern.equals("*")) {
+            if (arrayPattern.startsWith("?(") && arrayPattern.endsWith(")")) {
+                components.add(PathComponent.arrayFilter(field,
+                        FilterExpression.compile(arrayPattern.substring(2, arrayPattern.length() - 1))));
+            } else if (arrayPattern.equals("*")) {
                 components.add(PathComponent.arrayAll(field));
             } else if (arrayPattern.startsWith("*+$")) {
                 String offsetPath = arrayPattern.substring(2); // Remove *+
                 components.add(PathComponent.arrayAllOffset(field, offsetPath));
             } else if (arrayPattern.contains(":")) {
-                String[] range = arrayPattern.split(":");
-                if (range.length != 2) {
+                String[] range = arrayPattern.split(":", -1);
+                if (range.length > 3) {
                     throw new JsonPathParseException("Invalid range format: " + arrayPattern);
                 }
-                int start = Integer.parseInt(range[0].trim());
-                int end = Integer.parseInt(range[1].trim());
-                components.add(PathComponent.arrayRange(field, start, end));
+                Integer start = optionalInt(range[0]);
+                Integer end = optionalInt(range[1]);
+                Integer step = range.length == 3 ? optionalInt(range[2]) : null;
+                if (step != null && step == 0) {
+                    throw new JsonPathParseException("Slice step cannot be zero: " + arrayPattern);
+                }
+                components.add(PathComponent.arrayRange(field, start, end, step != null ? step : 1));
             } else if (arrayPattern.contains(",")) {
                 String[] indices = arrayPattern.split(",");
                 List<Integer> values = new ArrayList<>();
@@ -114,6 +135,9 @@ public class JsonPathParser {
         }
     }
 
+    private static Integer optionalInt(String text) {
+        return text.isBlank() ? null : Integer.parseInt(text.trim());
+    }
 
     public static class JsonPathParseException extends RuntimeException {
         public JsonPathParseException(String message) {
@@ -6,7 +6,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Predicate;
 
 public class JsonPathTransformer {
     /**
@@ -16,6 +15,11 @@ public class JsonPathTransformer {
         List<PathComponent> sourceComponents = JsonPathParser.parse(sourcePath);
         List<PathComponent> targetComponents = JsonPathParser.parse(targetPath);
 
+        if (!sourceComponents.isEmpty() &&
+                sourceComponents.get(0).getType() == PathComponent.Type.RECURSIVE_DESCENT) {
+            return generateDescendantMoveInstructions(sourceComponents, targetComponents, mapping);
+        }
+
         // Check if target has array pattern but source doesn't
         boolean isReplication = !containsPattern(sourceComponents) && containsPattern(targetComponents);
 
@@ -28,6 +32,128 @@ public class JsonPathTransformer {
         }
     }
 
+    /**
+     * Collects every {@code ..field} value into one array and stores it at the target path.
+     * Target may be a plain field path, optionally ending in {@code [*]}.
+     */
+    private static List<Instruction> generateDescendantMoveInstructions(
+            List<PathComponent> sourceComponents,
+            List<PathComponent> targetComponents,
+            Map<String, JsonNode> mapping
+    ) {
+        if (sourceComponents.size() != 2 || sourceComponents.get(1).getType() != PathComponent.Type.FIELD) {
+            throw new IllegalArgumentException("Recursive descent is only supported as $..field");
+        }
+
+        List<PathComponent> target = new ArrayList<>(targetComponents);
+        PathComponent last = target.isEmpty() ? null : target.get(target.size() - 1);
+        if (last != null && last.getType() == PathComponent.Type.ARRAY_ALL) {
+            target.set(target.size() - 1, PathComponent.field(last.getField()));
+        }
+        if (target.isEmpty() || target.stream().anyMatch(c -> c.getType() != PathComponent.Type.FIELD)) {
+            throw new IllegalArgumentException("Recursive descent target must be a field path");
+        }
+
+        List<Instruction> instructions = new ArrayList<>();
+        instructions.add(Instruction.of(Command.RESET));
+        instructions.add(Instruction.of(Command.MOVE_TO_ROOT));
+        if (mapping != null) {
+            instructions.add(Instruction.of(Command.COLLECT_DESCENDANTS, sourceComponents.get(1).getField(), mapping));
+        } else {
+            instructions.add(Instruction.of(Command.COLLECT_DESCENDANTS, sourceComponents.get(1).getField()));
+        }
+
+        instructions.add(Instruction.of(Command.MOVE_TO_ROOT));
+        instructions.addAll(generatePathNavigation(target));
+        instructions.add(Instruction.of(Command.POP_ELEMENT));
+        instructions.add(Instruction.of(Command.MOVE_OUT));
+
+        return instructions;
+    }
+
+    /**
+     * Generates instructions that hash join two arrays and store the merged elements at the
+     * target path. Both sides are {@code $.fields.array[*].key} paths naming the array and the key
+     * within its elements, e.g. {@code $.users[*].email}; the left array's order is kept. The
+     * target may be a plain field path, optionally ending in {@code [*]}.
+     */
+    public static List<Instruction> generateJoinInstructions(
+            String leftPath, String rightPath, String targetPath, JsonTransformationMachine.JoinType type) {
+        List<PathComponent> target = fieldTarget(targetPath);
+
+        List<Instruction> instructions = new ArrayList<>();
+        instructions.add(Instruction.of(Command.RESET));
+        instructions.add(Instruction.of(Command.MOVE_TO_ROOT));
+        List<String> rightKey = navigateToElementKey(rightPath, instructions);
+        instructions.add(Instruction.of(Command.PUSH_ELEMENT));
+        instructions.add(Instruction.of(Command.MOVE_TO_ROOT));
+        List<String> leftKey = navigateToElementKey(leftPath, instructions);
+        instructions.add(Instruction.of(Command.JOIN, leftKey, rightKey, type));
+        storeTopElement(target, instructions);
+        return instructions;
+    }
+
+    /**
+     * Generates instructions that group the elements of an array and store the groups at the
+     * target path. {@code keyPath} names the array and the key within its elements, e.g.
+     * {@code $.users[*].role}; the target may be a plain field path, optionally ending in
+     * {@code [*]}.
+     */
+    public static List<Instruction> generateGroupByInstructions(
+            String keyPath, String targetPath, JsonTransformationMachine.GroupShape shape,
+            GroupAggregate... aggregates) {
+        List<PathComponent> target = fieldTarget(targetPath);
+
+        List<Instruction> instructions = new ArrayList<>();
+        instructions.add(Instruction.of(Command.RESET));
+        instructions.add(Instruction.of(Command.MOVE_TO_ROOT));
+        List<String> key = navigateToElementKey(keyPath, instructions);
+        List<Object> params = new ArrayList<>();
+        params.add(shape);
+        params.add(key);
+        params.addAll(Arrays.asList(aggregates));
+        instructions.add(Instruction.of(Command.GROUP_BY, params.toArray()));
+        storeTopElement(target, instructions);
+        return instructions;
+    }
+
+    /**
+     * Parses a target that must be a field path; a trailing {@code [*]} names the array itself.
+     */
+    private static List<PathComponent> fieldTarget(String targetPath) {
+        List<PathComponent> target = new ArrayList<>(JsonPathParser.parse(targetPath));
+        PathComponent last = target.isEmpty() ? null : target.get(target.size() - 1);
+        if (last != null && last.getType() == PathComponent.Type.ARRAY_ALL) {
+            target.set(target.size() - 1, PathComponent.field(last.getField()));
+        }
+        if (target.isEmpty() || target.stream().anyMatch(c -> c.getType() != PathComponent.Type.FIELD)) {
+            throw new IllegalArgumentException("Target must be a field path: " + targetPath);
+        }
+        return target;
+    }
+
+    private static void storeTopElement(List<PathComponent> target, List<Instruction> instructions) {
+        instructions.add(Instruction.of(Command.MOVE_TO_ROOT));
+        instructions.addAll(generatePathNavigation(target));
+        instructions.add(Instruction.of(Command.POP_ELEMENT));
+        instructions.add(Instruction.of(Command.MOVE_OUT));
+    }
+
+    /**
+     * Navigates to the array of a {@code $.fields.array[*].key} path and returns the key fields.
+     */
+    private static List<String> navigateToElementKey(String path, List<Instruction> instructions) {
+        List<PathComponent> components = JsonPathParser.parse(path);
+        if (!isFieldsAroundArray(components, false, false)) {
+            throw new IllegalArgumentException("Key paths must have the form $.array[*].key: " + path);
+        }
+        List<String> key = navigateToArray(components, instructions);
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Key path names no key after the array: " + path);
+        }
+        return key;
+    }
+
     private static List<Instruction> generateReplicationInstructions(
             List<PathComponent> sourceComponents,
             List<PathComponent> targetComponents,
@@ -56,6 +182,7 @@ public class JsonPathTransformer {
         if (arrayComponent == null) {
             throw new IllegalArgumentException("No array pattern found in target path");
         }
+        requireNoSlice(targetComponents);
 
         // Navigate to target array
         for (PathComponent comp : targetComponents) {
@@ -78,6 +205,14 @@ public class JsonPathTransformer {
                 Instruction.of(Command.COMPARE, ">"),
                 Instruction.of(Command.JUMP_IF_FALSE, Instruction.of(Command.CREATE_ARRAY))
         ));
+
+        // One field per element: set it on every element in a single pass
+        List<PathComponent> elementPath = targetComponents.subList(targetComponents.indexOf(arrayComponent) + 1,
+                targetComponents.size());
+        if (elementPath.size() == 1 && elementPath.get(0).getType() == PathComponent.Type.FIELD) {
+            instructions.add(Instruction.of(Command.BROADCAST_ELEMENT, List.of(elementPath.get(0).getField())));
+            return instructions;
+        }
         instructions.add(Instruction.of(Command.STORE_SIZE));
         instructions.add(Instruction.of(Command.STORE_VALUE, 0)); // Counter
 
@@ -111,22 +246,18 @@ public class JsonPathTransformer {
         instructions.add(Instruction.of(Command.PUSH_COMMAND, loopBody));
 
         // Add loop condition
-        instructions.add(Instruction.of(Command.LOOP_UNTIL, (Predicate<JsonTransformationMachine>) m -> {
-            if (m.getValueStackSize() < 2) return true;
-            Object size = m.peekValueStack(1);
-            Object counter = m.peekValueStack(0);
-            return ((Number) counter).intValue() >= ((Number) size).intValue();
-        }));
+        instructions.add(Instruction.of(Command.LOOP_UNTIL, LoopCondition.COUNTER_AT_TARGET_SIZE));
 
         return instructions;
     }
 
 
-    private static boolean containsPattern(List<PathComponent> components) {
+    static boolean containsPattern(List<PathComponent> components) {
         return components.stream().anyMatch(c ->
                 c.getType() == PathComponent.Type.ARRAY_ALL ||
                         c.getType() == PathComponent.Type.ARRAY_RANGE ||
                         c.getType() == PathComponent.Type.ARRAY_VALUES ||
+                        c.getType() == PathComponent.Type.ARRAY_FILTER ||
                         c.getType() == PathComponent.Type.WILDCARD ||
                         c.getType() == PathComponent.Type.RECURSIVE_DESCENT
         );
@@ -173,6 +304,209 @@ public class JsonPathTransformer {
         if (sourceArray == null || targetArray == null) {
             throw new IllegalArgumentException("Source or target array pattern not found");
         }
+        requireNoSlice(targetComponents);
+        IndexSelection selection = IndexSelection.of(sourceArray);
+
+        instructions.addAll(generateOffsetInstructions(targetArray)); // Stack: [offsetSize]
+        if (isColumnCopy(sourceComponents, targetComponents)) {
+            instructions.addAll(generateColumnCopyInstructions(sourceComponents, targetComponents, mapping));
+            return instructions;
+        }
+        if (sourceArray.getType() == PathComponent.Type.ARRAY_FILTER) {
+            throw new IllegalArgumentException("Filters are only supported in moves between field paths "
+                    + "around one array, such as $.users[?(@.active)].email -> $.emails[*]");
+        }
+
+        // Navigate to source array and get its size
+        instructions.add(Instruction.of(Command.MOVE_TO_ROOT));
+        for (PathComponent comp : sourceComponents) {
+            if (comp == sourceArray) {
+                instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, comp.getField()));
+                break;
+            }
+            if (comp.getType() == PathComponent.Type.FIELD) {
+                instructions.add(Instruction.of(Command.MOVE_INTO_OBJECT, comp.getField()));
+            }
+        }
+
+        // Store source array size, or how many elements a slice selects from it
+        instructions.add(selection != null
+                ? Instruction.of(Command.STORE_SIZE, selection)
+                : Instruction.of(Command.STORE_SIZE));            // Stack: [offsetSize, sourceSize]
+        instructions.addAll(generateReserveInstructions(targetComponents));
+
+        // Initialize counter
+        instructions.add(Instruction.of(Command.STORE_VALUE, 0)); // Stack: [offsetSize, sourceSize, counter]
+
+        List<Instruction> loopBody = generatePatternLoopBody(sourceComponents, targetComponents, mapping);
+        instructions.add(Instruction.of(Command.PUSH_COMMAND, loopBody));
+
+        // Add loop condition
+        instructions.add(Instruction.of(Command.LOOP_UNTIL, LoopCondition.COUNTER_AT_SOURCE_SIZE));
+
+        return instructions;
+    }
+
+    /**
+     * Pre-sizes the target array once the final length (offset + source size) is known, so the
+     * loop never grows it slot by slot. Nothing is created when the source is empty.
+     */
+    private static List<Instruction> generateReserveInstructions(List<PathComponent> targetComponents) {
+        List<Instruction> reserve = new ArrayList<>();
+        reserve.add(Instruction.of(Command.MOVE_TO_ROOT));
+        for (PathComponent comp : targetComponents) {
+            if (comp.getType() == PathComponent.Type.ARRAY_ALL_OFFSET || comp.getType() == PathComponent.Type.ARRAY_ALL) {
+                reserve.add(Instruction.of(Command.MOVE_INTO_ARRAY, comp.getField()));
+                break;
+            }
+            if (comp.getType() == PathComponent.Type.FIELD) {
+                reserve.add(Instruction.of(Command.MOVE_INTO_OBJECT, comp.getField()));
+            }
+        }
+        reserve.add(Instruction.of(Command.RESERVE_ARRAY, new ValueStackReference(1)));  // gaps before the offset
+        reserve.add(Instruction.of(Command.STORE_VALUE, new ValueStackReference(0)));
+        reserve.add(Instruction.of(Command.STORE_VALUE, new ValueStackReference(2)));
+        reserve.add(Instruction.of(Command.ADD));
+        reserve.add(Instruction.of(Command.RESERVE_ARRAY, new ValueStackReference(0), JsonTransformationMachine.GapFill.OBJECT));
+        reserve.add(Instruction.of(Command.POP_VALUE));
+
+        List<Instruction> instructions = new ArrayList<>();
+        instructions.add(Instruction.of(Command.STORE_VALUE, new ValueStackReference(0)));
+        instructions.add(Instruction.of(Command.PUSH_COMMAND, reserve));
+        instructions.add(Instruction.of(Command.JUMP_IF_TRUE, Instruction.of(Command.POP_COMMAND)));
+        return instructions;
+    }
+
+    /**
+     * Slices select what is read; written elements are always numbered from the start or offset.
+     */
+    private static void requireNoSlice(List<PathComponent> targetComponents) {
+        for (PathComponent comp : targetComponents) {
+            if (comp.getType() == PathComponent.Type.ARRAY_RANGE || comp.getType() == PathComponent.Type.ARRAY_VALUES
+                    || comp.getType() == PathComponent.Type.ARRAY_FILTER) {
+                throw new IllegalArgumentException("Slices, index lists and filters are only supported in source paths: "
+                        + comp);
+            }
+        }
+    }
+
+    /**
+     * A pattern move can copy a whole column at once when both sides are plain field paths around
+     * a single array pattern ({@code [*]}, a slice or a filter in the source, {@code [*]} or
+     * {@code [*+$.offset]} in the target) and the two arrays are distinct.
+     */
+    private static boolean isColumnCopy(List<PathComponent> sourceComponents, List<PathComponent> targetComponents) {
+        if (!isFieldsAroundArray(sourceComponents, true, false) || !isFieldsAroundArray(targetComponents, false, true)) {
+            return false;
+        }
+        return !AccessPaths.overlaps(arrayPath(sourceComponents), arrayPath(targetComponents));
+    }
+
+    private static boolean isFieldsAroundArray(List<PathComponent> components, boolean allowSlice, boolean allowOffset) {
+        int arrays = 0;
+        for (PathComponent comp : components) {
+            PathComponent.Type type = comp.getType();
+            if (type == PathComponent.Type.ARRAY_ALL
+                    || (allowSlice && (type == PathComponent.Type.ARRAY_RANGE || type == PathComponent.Type.ARRAY_VALUES
+                            || type == PathComponent.Type.ARRAY_FILTER))
+                    || (allowOffset && type == PathComponent.Type.ARRAY_ALL_OFFSET)) {
+                if (comp.getField() == null || comp.getField().isEmpty()) {
+                    return false;
+                }
+                arrays++;
+            } else if (comp.getType() != PathComponent.Type.FIELD) {
+                return false;
+            }
+        }
+        return arrays == 1;
+    }
+
+    private static List<String> arrayPath(List<PathComponent> components) {
+        PathComponent array = findArrayComponent(components);
+        return AccessPaths.fromComponents(components.subList(0, components.indexOf(array) + 1));
+    }
+
+    /**
+     * Replaces the per-element loop: the source column is gathered in one step, and only when it
+     * is non-empty is the target array navigated (creating it) and written from the offset.
+     */
+    private static List<Instruction> generateColumnCopyInstructions(
+            List<PathComponent> sourceComponents,
+            List<PathComponent> targetComponents,
+            Map<String, JsonNode> mapping
+    ) {
+        List<Instruction> instructions = new ArrayList<>();
+        instructions.add(Instruction.of(Command.MOVE_TO_ROOT));
+        List<String> sourceFields = navigateToArray(sourceComponents, instructions);
+        PathComponent sourceArray = findArrayComponent(sourceComponents);
+        IndexSelection selection = IndexSelection.of(sourceArray);
+        if (sourceArray.getType() == PathComponent.Type.ARRAY_FILTER) {
+            instructions.add(Instruction.of(Command.PUSH_COLUMN, sourceFields, mapping, sourceArray.getFilter()));
+        } else if (selection != null) {
+            instructions.add(Instruction.of(Command.PUSH_COLUMN, sourceFields, mapping, selection));
+        } else if (mapping != null) {
+            instructions.add(Instruction.of(Command.PUSH_COLUMN, sourceFields, mapping));
+        } else {
+            instructions.add(Instruction.of(Command.PUSH_COLUMN, sourceFields));
+        }
+        instructions.add(Instruction.of(Command.STORE_SIZE));    // Stack: [offsetSize, sourceSize]
+
+        List<Instruction> store = new ArrayList<>();
+        store.add(Instruction.of(Command.MOVE_TO_ROOT));
+        List<String> targetFields = navigateToArray(targetComponents, store);
+        store.add(Instruction.of(Command.POP_COLUMN, targetFields));
+        instructions.add(Instruction.of(Command.PUSH_COMMAND, store));
+        instructions.add(Instruction.of(Command.JUMP_IF_TRUE, Instruction.of(Command.POP_COMMAND)));
+        return instructions;
+    }
+
+    /**
+     * Adds navigation to the single array of a fields-around-array path and returns the field
+     * names that follow it.
+     */
+    private static List<String> navigateToArray(List<PathComponent> components, List<Instruction> instructions) {
+        List<String> fields = new ArrayList<>();
+        boolean afterArray = false;
+        for (PathComponent comp : components) {
+            if (comp.getType() != PathComponent.Type.FIELD) {
+                instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, comp.getField()));
+                afterArray = true;
+            } else if (afterArray) {
+                fields.add(comp.getField());
+            } else {
+                instructions.add(Instruction.of(Command.MOVE_INTO_OBJECT, comp.getField()));
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    /**
+     * Generates instructions that repeat one iteration of a pattern move: the element at
+     * {@code index} of the source array is written to the same target index the full loop uses.
+     */
+    static List<Instruction> generateElementMoveInstructions(
+            List<PathComponent> sourceComponents,
+            List<PathComponent> targetComponents,
+            Map<String, JsonNode> mapping,
+            int index
+    ) {
+        PathComponent targetArray = findArrayComponent(targetComponents);
+        if (findArrayComponent(sourceComponents) == null || targetArray == null) {
+            throw new IllegalArgumentException("Source or target array pattern not found");
+        }
+
+        List<Instruction> instructions = new ArrayList<>();
+        instructions.add(Instruction.of(Command.RESET));
+        instructions.add(Instruction.of(Command.MOVE_TO_ROOT));
+        instructions.addAll(generateOffsetInstructions(targetArray));
+        instructions.add(Instruction.of(Command.STORE_VALUE, 0));     // source size is not used
+        instructions.add(Instruction.of(Command.STORE_VALUE, index)); // Stack: [offsetSize, 0, index]
+        instructions.addAll(generatePatternLoopBody(sourceComponents, targetComponents, mapping));
+        return instructions;
+    }
+
+    private static List<Instruction> generateOffsetInstructions(PathComponent targetArray) {
+        List<Instruction> instructions = new ArrayList<>();
 
         // If we have an offset, get it first
         if (targetArray.getType() == PathComponent.Type.ARRAY_ALL_OFFSET) {
@@ -194,23 +528,16 @@ public class JsonPathTransformer {
             instructions.add(Instruction.of(Command.STORE_VALUE, 0)); // Stack: [0]
         }
 
-        // Navigate to source array and get its size
-        instructions.add(Instruction.of(Command.MOVE_TO_ROOT));
-        for (PathComponent comp : sourceComponents) {
-            if (comp == sourceArray) {
-                instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, comp.getField()));
-                break;
-            }
-            if (comp.getType() == PathComponent.Type.FIELD) {
-                instructions.add(Instruction.of(Command.MOVE_INTO_OBJECT, comp.getField()));
-            }
-        }
-
-        // Store source array size
-        instructions.add(Instruction.of(Command.STORE_SIZE));    // Stack: [offsetSize, sourceSize]
+        return instructions;
+    }
 
-        // Initialize counter
-        instructions.add(Instruction.of(Command.STORE_VALUE, 0)); // Stack: [offsetSize, sourceSize, counter]
+    private static List<Instruction> generatePatternLoopBody(
+            List<PathComponent> sourceComponents,
+            List<PathComponent> targetComponents,
+            Map<String, JsonNode> mapping
+    ) {
+        PathComponent sourceArray = findArrayComponent(sourceComponents);
+        PathComponent targetArray = findArrayComponent(targetComponents);
 
         // Create loop body
         List<Instruction> loopBody = new ArrayList<>();
@@ -219,11 +546,15 @@ public class JsonPathTransformer {
         // Source navigation and value capture
         for (PathComponent comp : sourceComponents) {
             if (comp == sourceArray) {
+                IndexSelection selection = IndexSelection.of(comp);
                 loopBody.add(Instruction.of(Command.MOVE_INTO_ARRAY, comp.getField()));
-                loopBody.add(Instruction.of(Command.MOVE_INTO_INDEX, new ValueStackReference(0))); // Uses counter
-            } else if (comp.getType() == PathComponent.Type.FIELD &&
-                    sourceComponents.indexOf(comp) > sourceComponents.indexOf(sourceArray)) {
-                loopBody.add(Instruction.of(Command.MOVE_INTO_FIELD, comp.getField()));
+                loopBody.add(selection != null  // Uses counter, as a position within the slice
+                        ? Instruction.of(Command.MOVE_INTO_INDEX, new ValueStackReference(0), selection)
+                        : Instruction.of(Command.MOVE_INTO_INDEX, new ValueStackReference(0)));
+            } else if (comp.getType() == PathComponent.Type.FIELD) {
+                // Fields before the array lead to it, as in the size prelude
+                loopBody.add(Instruction.of(sourceComponents.indexOf(comp) > sourceComponents.indexOf(sourceArray)
+                        ? Command.MOVE_INTO_FIELD : Command.MOVE_INTO_OBJECT, comp.getField()));
             }
         }
 
@@ -244,9 +575,9 @@ public class JsonPathTransformer {
                 loopBody.add(Instruction.of(Command.ADD));
                 loopBody.add(Instruction.of(Command.MOVE_INTO_INDEX, new ValueStackReference(0)));
                 loopBody.add(Instruction.of(Command.POP_VALUE));
-            } else if (comp.getType() == PathComponent.Type.FIELD &&
-                    targetComponents.indexOf(comp) > targetComponents.indexOf(targetArray)) {
-                loopBody.add(Instruction.of(Command.MOVE_INTO_FIELD, comp.getField()));
+            } else if (comp.getType() == PathComponent.Type.FIELD) {
+                loopBody.add(Instruction.of(targetComponents.indexOf(comp) > targetComponents.indexOf(targetArray)
+                        ? Command.MOVE_INTO_FIELD : Command.MOVE_INTO_OBJECT, comp.getField()));
             }
         }
 
@@ -258,24 +589,15 @@ public class JsonPathTransformer {
         }
         loopBody.add(Instruction.of(Command.INCREMENT));
 
-        instructions.add(Instruction.of(Command.PUSH_COMMAND, loopBody));
-
-        // Add loop condition
-        instructions.add(Instruction.of(Command.LOOP_UNTIL, (Predicate<JsonTransformationMachine>) m -> {
-            if (m.getValueStackSize() < 3) return true;
-            Object sourceSize = m.peekValueStack(1);
-            Object counter = m.peekValueStack(0);
-            return ((Number) counter).intValue() >= ((Number) sourceSize).intValue();
-        }));
-
-        return instructions;
+        return loopBody;
     }
 
-    private static PathComponent findArrayComponent(List<PathComponent> components) {
+    static PathComponent findArrayComponent(List<PathComponent> components) {
         for (PathComponent comp : components) {
             if (comp.getType() == PathComponent.Type.ARRAY_ALL ||
                     comp.getType() == PathComponent.Type.ARRAY_RANGE ||
                     comp.getType() == PathComponent.Type.ARRAY_VALUES||
+                    comp.getType() == PathComponent.Type.ARRAY_FILTER ||
                     comp.getType() == PathComponent.Type.ARRAY_ALL_OFFSET) {
                 return comp;
             }
@@ -301,80 +623,4 @@ public class JsonPathTransformer {
 
         return instructions;
     }
-
-    private static List<Instruction> generatePatternNavigation(List<PathComponent> components) {
-        List<Instruction> instructions = new ArrayList<>();
-
-        for (PathComponent component : components) {
-            switch (component.getType()) {
-                case FIELD:
-                    instructions.add(Instruction.of(Command.MOVE_INTO_OBJECT, component.getField()));
-                    break;
-
-                case ARRAY_INDEX:
-                    instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, component.getField()));
-                    instructions.add(Instruction.of(Command.MOVE_INTO_INDEX, component.getIndex()));
-                    break;
-
-                case ARRAY_ALL:
-                    instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, component.getField()));
-                    break;
-
-                case ARRAY_RANGE:
-                    instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, component.getField()));
-                    instructions.add(Instruction.of(Command.STORE_VALUE, component.getStartIndex()));
-                    instructions.add(Instruction.of(Command.STORE_VALUE, component.getEndIndex()));
-                    break;
-
-                case ARRAY_VALUES:
-                    instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, component.getField()));
-                    component.getIndices().forEach(index ->
-                            instructions.add(Instruction.of(Command.STORE_VALUE, index)));
-                    break;
-            }
-        }
-
-        return instructions;
-    }
-
-    private static List<Instruction> generateTargetNavigation(List<PathComponent> components) {
-        List<Instruction> instructions = new ArrayList<>();
-        PathComponent lastComponent = components.get(components.size() - 1);
-
-        // Navigate to parent
-        for (int i = 0; i < components.size() - 1; i++) {
-            PathComponent component = components.get(i);
-            switch (component.getType()) {
-                case FIELD:
-                    instructions.add(Instruction.of(Command.MOVE_INTO_OBJECT, component.getField()));
-                    break;
-                case ARRAY_INDEX:
-                    instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, component.getField()));
-                    instructions.add(Instruction.of(Command.MOVE_INTO_INDEX, component.getIndex()));
-                    break;
-                case ARRAY_ALL:
-                    instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, component.getField()));
-                    instructions.add(Instruction.of(Command.STORE_SIZE));
-                    instructions.add(Instruction.of(Command.MOVE_INTO_INDEX, new ValueStackReference(0)));
-                    break;
-            }
-        }
-
-        // Handle last component
-        switch (lastComponent.getType()) {
-            case FIELD:
-                instructions.add(Instruction.of(Command.MOVE_INTO_FIELD, lastComponent.getField()));
-                break;
-            case ARRAY_INDEX:
-                instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, lastComponent.getField()));
-                instructions.add(Instruction.of(Command.MOVE_INTO_INDEX, lastComponent.getIndex()));
-                break;
-            case ARRAY_ALL:
-                instructions.add(Instruction.of(Command.MOVE_INTO_ARRAY, lastComponent.getField()));
-                instructions.add(Instruction.of(Command.MOVE_INTO_INDEX, new ValueStackReference(0)));
-                break;
-        }
-
-        return instructions;
-    }
 }
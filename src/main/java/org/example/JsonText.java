@@ -0,0 +1,165 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte-level scanning and decoding of UTF-8 JSON text, shared by {@link MappedJsonInput} and
+ * {@link TapeDocument}. Scalars decode to the same node types {@code ObjectMapper.readTree} produces.
+ */
+public final class JsonText {
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private JsonText() {
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    static int skipWhitespace(ByteBuffer buffer, int pos) {
+        while (pos < buffer.limit() && isWhitespace(buffer.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    static byte byteAt(ByteBuffer buffer, int pos) {
+        if (pos >= buffer.limit()) {
+            throw new MalformedJsonException("Unexpected end of input");
+        }
+        return buffer.get(pos);
+    }
+
+    static void expect(ByteBuffer buffer, int pos, char expected) {
+        if (byteAt(buffer, pos) != expected) {
+            throw new MalformedJsonException("Expected '" + expected + "' at offset " + pos);
+        }
+    }
+
+    /**
+     * Returns the position of the closing quote of the string starting at {@code start}.
+     */
+    static int stringEnd(ByteBuffer buffer, int start) {
+        int limit = buffer.limit();
+        for (int i = start + 1; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                return i;
+            }
+        }
+        throw new MalformedJsonException("Unterminated string at offset " + start);
+    }
+
+    /**
+     * Returns the position after the number or literal starting at {@code start}.
+     */
+    static int scalarEnd(ByteBuffer buffer, int start) {
+        int pos = start;
+        while (pos < buffer.limit()) {
+            byte c = buffer.get(pos);
+            if (c == ',' || c == '}' || c == ']' || c == ':' || isWhitespace(c)) {
+                break;
+            }
+            pos++;
+        }
+        if (pos == start) {
+            throw new MalformedJsonException("Expected a value at offset " + start);
+        }
+        return pos;
+    }
+
+    /**
+     * Decodes the number or literal in {@code [start, end)}.
+     */
+    static JsonNode decodeScalar(ByteBuffer buffer, int start, int end) {
+        String text = new String(bytes(buffer, start, end), StandardCharsets.US_ASCII);
+        switch (text) {
+            case "true":
+                return NODES.booleanNode(true);
+            case "false":
+                return NODES.booleanNode(false);
+            case "null":
+                return NODES.nullNode();
+            default:
+                break;
+        }
+        try {
+            if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0) {
+                return NODES.numberNode(Double.parseDouble(text));
+            }
+            BigInteger value = new BigInteger(text);
+            if (value.bitLength() < 32) {
+                return NODES.numberNode(value.intValue());
+            }
+            if (value.bitLength() < 64) {
+                return NODES.numberNode(value.longValue());
+            }
+            return NODES.numberNode(value);
+        } catch (NumberFormatException e) {
+            throw new MalformedJsonException("Invalid value '" + text + "' at offset " + start);
+        }
+    }
+
+    /**
+     * Decodes the string between the quotes at {@code open} and {@code close}.
+     */
+    static String decodeString(ByteBuffer buffer, int open, int close) {
+        byte[] bytes = bytes(buffer, open + 1, close);
+        int escape = 0;
+        while (escape < bytes.length && bytes[escape] != '\\') {
+            escape++;
+        }
+        if (escape == bytes.length) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        StringBuilder text = new StringBuilder(bytes.length);
+        int segment = 0;
+        for (int i = escape; i < bytes.length; i++) {
+            if (bytes[i] != '\\') {
+                continue;
+            }
+            text.append(new String(bytes, segment, i - segment, StandardCharsets.UTF_8));
+            char c = (char) bytes[++i];
+            switch (c) {
+                case 'b': text.append('\b'); break;
+                case 'f': text.append('\f'); break;
+                case 'n': text.append('\n'); break;
+                case 'r': text.append('\r'); break;
+                case 't': text.append('\t'); break;
+                case 'u':
+                    if (i + 4 >= bytes.length) {
+                        throw new MalformedJsonException("Invalid unicode escape at offset " + (open + 1 + i));
+                    }
+                    text.append((char) Integer.parseInt(new String(bytes, i + 1, 4, StandardCharsets.US_ASCII), 16));
+                    i += 4;
+                    break;
+                default:
+                    text.append(c);
+                    break;
+            }
+            segment = i + 1;
+        }
+        text.append(new String(bytes, segment, bytes.length - segment, StandardCharsets.UTF_8));
+        return text.toString();
+    }
+
+    static byte[] bytes(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return bytes;
+    }
+
+    public static class MalformedJsonException extends RuntimeException {
+        public MalformedJsonException(String message) {
+            super(message);
+        }
+    }
+}
@@ -3,18 +3,24 @@ package org.example;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import java.time.Instant;
+import java.io.IOException;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 import java.util.stream.StreamSupport;
 
+/**
+ * Executes instruction lists against a JSON document.
+ * <p>
+ * A machine holds per-run state (current node, stacks, counters) and is not thread-safe; confine
+ * each instance to one thread at a time. Instructions can be shared across threads once wrapped in
+ * a {@link Program}, and {@link TransformationExecutor} runs programs concurrently with machine reuse.
+ */
 public class JsonTransformationMachine {
     private static final int MAX_LOOP_ITERATIONS = 10000;
     private static final int MAX_TOTAL_OPERATIONS = 100000;
@@ -28,6 +34,34 @@ public class JsonTransformationMachine {
     private int loopLevel;
     private int totalOperations;
     private boolean debug;
+    private FieldIndex fieldIndex;
+    private final StringBuilder textBuilder = new StringBuilder();
+    private GapFill gapFill = GapFill.OBJECT;
+    private int sortRunSize = ArraySorter.DEFAULT_RUN_SIZE;
+
+    /**
+     * What fills the slots an array is grown by before the index being written.
+     */
+    public enum GapFill {
+        OBJECT,   // a new empty object per slot
+        NULL      // the shared null node, allocating nothing per slot
+    }
+
+    /**
+     * Which left elements {@code JOIN} keeps.
+     */
+    public enum JoinType {
+        INNER,    // only elements with at least one match
+        LEFT      // every element; unmatched ones are copied unchanged
+    }
+
+    /**
+     * What {@code GROUP_BY} builds.
+     */
+    public enum GroupShape {
+        OBJECT,   // an object keyed by the key text, nested per key path
+        ARRAY     // an array of group objects with key values, aggregates and items
+    }
 
     public JsonTransformationMachine(JsonNode initialState, boolean debug) {
         this.mapper = new ObjectMapper();
@@ -45,6 +79,25 @@ public class JsonTransformationMachine {
         this(initialState, false);
     }
 
+    public JsonNode execute(Program program) {
+        return execute(program.getInstructions());
+    }
+
+    /**
+     * Rebinds this machine to a new document, clearing all stacks and counters so the instance
+     * can be reused for another run.
+     */
+    public void reset(JsonNode document) {
+        this.currentState = document;
+        this.rootState = document;
+        this.currentPath = "$";
+        this.stacks.clearAll();
+        this.loopCounters.clear();
+        this.loopLevel = 0;
+        this.totalOperations = 0;
+        this.fieldIndex = null;
+    }
+
     public JsonNode execute(List<Instruction> instructions) {
         for (Instruction instruction : instructions) {
             executeInstruction(instruction);
@@ -68,16 +121,26 @@ public class JsonTransformationMachine {
                     moveOut();
                     break;
                 case MOVE_INTO_OBJECT:
-                    moveIntoObject((String) resolveValue(instruction.getParams()[0]));
+                    moveIntoObject((String) resolveValue(instruction.getParam(0)));
                     break;
                 case MOVE_INTO_ARRAY:
-                    moveIntoArray((String) resolveValue(instruction.getParams()[0]));
+                    moveIntoArray((String) resolveValue(instruction.getParam(0)));
                     break;
                 case MOVE_INTO_INDEX:
-                    moveIntoIndex(((Number) resolveValue(instruction.getParams()[0])).intValue());
+                    int index = ((Number) resolveValue(instruction.getParam(0))).intValue();
+                    if (instruction.getParamCount() > 1 && currentState instanceof ArrayNode) {
+                        index = ((IndexSelection) instruction.getParam(1)).indexAt(index, currentState.size());
+                    }
+                    moveIntoIndex(index);
                     break;
                 case MOVE_INTO_FIELD:
-                    moveIntoField((String) resolveValue(instruction.getParams()[0]));
+                    moveIntoField((String) resolveValue(instruction.getParam(0)));
+                    break;
+                case COLLECT_DESCENDANTS:
+                    @SuppressWarnings("unchecked")
+                    Map<String, JsonNode> descendantMapping = instruction.getParamCount() > 1
+                            ? (Map<String, JsonNode>) instruction.getParam(1) : null;
+                    collectDescendants((String) resolveValue(instruction.getParam(0)), descendantMapping);
                     break;
 
                 // Stack operations
@@ -88,7 +151,7 @@ public class JsonTransformationMachine {
                     setCurrentElement(stacks.elements().pop());
                     break;
                 case STORE_ELEMENT:
-                    stacks.elements().push((JsonNode) instruction.getParams()[0]);
+                    stacks.elements().push(((JsonNode) instruction.getParam(0)).deepCopy());
                     break;
                 case DUPLICATE_ELEMENT:
                     if (!stacks.elements().isEmpty()) {
@@ -120,12 +183,9 @@ public class JsonTransformationMachine {
                     break;
                 case MAP_ELEMENT:
                     @SuppressWarnings("unchecked")
-                    Map<String, JsonNode> mapping = (Map<String, JsonNode>) (instruction.getParams()[0]);
+                    Map<String, JsonNode> mapping = (Map<String, JsonNode>) instruction.getParam(0);
                     if (!stacks.elements().isEmpty()) {
-                        JsonNode val = stacks.elements().pop();
-                        Object key = unwrap(val);
-                        JsonNode mappedValue = mapping.getOrDefault(key, val).deepCopy();
-                        stacks.elements().push(mappedValue);
+                        stacks.elements().push(mapValue(mapping, stacks.elements().pop()));
                     }
                     break;
                 case COALESCE_ELEMENT:
@@ -146,7 +206,7 @@ public class JsonTransformationMachine {
                     }
                     // Value stack operations
                 case STORE_VALUE:
-                    stacks.values().push(resolveValue(instruction.getParams()[0]));
+                    stacks.values().push(resolveValue(instruction.getParam(0)));
                     break;
                 case POP_VALUE:
                     stacks.values().pop();
@@ -164,7 +224,7 @@ public class JsonTransformationMachine {
                     }
                     break;
                 case COMPARE:
-                    compareValues((String) instruction.getParams()[0]);
+                    compareValues((String) instruction.getParam(0));
                     break;
                 case ADD:
                     if (stacks.values().size() >= 2) {
@@ -209,21 +269,16 @@ public class JsonTransformationMachine {
                     break;
                 case FORMAT_TIME:
                     if (stacks.values().size() >= 2) {
-                        String format = (String) stacks.values().pop();
-                        Long timestamp = (Long) stacks.values().pop();
-                        Instant instant = Instant.ofEpochSecond(timestamp);
-                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format).withZone(ZoneOffset.UTC);
-                        stacks.values().push(formatter.format(instant));
+                        String format = (String) materialize(stacks.values().pop());
+                        long timestamp = toTimestamp(materialize(stacks.values().pop()));
+                        stacks.values().push(TimeCodec.format(timestamp, timeUnit(instruction, 0), format, timeZone(instruction, 1)));
                     }
                     break;
                 case TO_TIMESTAMP:
                     if (stacks.values().size() >= 2) {
-                        String format = (String) stacks.values().pop();
-                        String dateTime = (String) stacks.values().pop();
-                        DateTimeFormatter formatter = DateTimeFormatter.
-                                ofPattern(format)
-                                .withZone(ZoneOffset.UTC);
-                        stacks.values().push(Instant.from(formatter.parse(dateTime)).toEpochMilli()/1000);
+                        String format = (String) materialize(stacks.values().pop());
+                        String dateTime = (String) materialize(stacks.values().pop());
+                        stacks.values().push(TimeCodec.parse(dateTime, format, timeUnit(instruction, 0), timeZone(instruction, 1)));
                     }
                     break;
                 case COALESCE:
@@ -242,20 +297,28 @@ public class JsonTransformationMachine {
                         }
                     }
                     break;
-                case CONCAT:
-                    if (stacks.values().size() >= 2) {
-                        String val2 = (String) stacks.values().pop();
-                        String val1 = (String) stacks.values().pop();
-                        stacks.values().push(val1 + val2);
+                case CONCAT: {
+                    // The number of parts is the parameter, two by default
+                    int count = instruction.getParamCount() > 0 ? (Integer) instruction.getParam(0) : 2;
+                    if (stacks.values().size() < count) {
+                        throw new IllegalStateException(String.format(
+                                "CONCAT needs %d values, value stack has %d", count, stacks.values().size()));
+                    }
+                    Object[] parts = new Object[count];
+                    for (int i = count - 1; i >= 0; i--) {
+                        parts[i] = stacks.values().pop();
                     }
+                    stacks.values().push(ConcatValue.of(Arrays.asList(parts)));
                     break;
+                }
                 case IS_NULL:
                     if (!stacks.values().isEmpty()) {
                         stacks.values().push(stacks.values().pop() != null);
                     }
                     // Size operations
                 case STORE_SIZE:
-                    storeSize();
+                    storeSize(instruction.getCommand() == Command.STORE_SIZE && instruction.getParamCount() > 0
+                            ? (IndexSelection) instruction.getParam(0) : null);
                     break;
                 case DUPLICATE_VALUE:
                     if (!stacks.values().isEmpty()) {
@@ -288,14 +351,14 @@ public class JsonTransformationMachine {
                     break;
                 case VALUE_TO_ELEMENT:
                     if (!stacks.values().isEmpty()) {
-                        Object top = stacks.values().pop();
+                        Object top = materialize(stacks.values().pop());
                         stacks.elements().push(mapper.valueToTree(top));
                     }
                     break;
                 // Control flow
                 case PUSH_COMMAND:
                     @SuppressWarnings("unchecked")
-                    List<Instruction> commands = (List<Instruction>) instruction.getParams()[0];
+                    List<Instruction> commands = (List<Instruction>) instruction.getParam(0);
                     stacks.commands().push(commands);
                     break;
                 case POP_COMMAND:
@@ -304,7 +367,7 @@ public class JsonTransformationMachine {
                 case LOOP_UNTIL:
                     @SuppressWarnings("unchecked")
                     Predicate<JsonTransformationMachine> condition =
-                            (Predicate<JsonTransformationMachine>) instruction.getParams()[0];
+                            (Predicate<JsonTransformationMachine>) instruction.getParam(0);
                     loopUntil(condition);
                     break;
                 case JUMP_IF_TRUE:
@@ -313,7 +376,7 @@ public class JsonTransformationMachine {
                         boolean con = (val instanceof Boolean && (Boolean) val)
                                 || (val instanceof Number && ((Number) val).doubleValue() != 0);
                         if (con) {
-                            executeInstruction((Instruction) instruction.getParams()[0]);
+                            executeInstruction((Instruction) instruction.getParam(0));
                         }
                     }
                     break;
@@ -323,7 +386,7 @@ public class JsonTransformationMachine {
                             || (val instanceof Boolean && !(Boolean) val)
                             || (val instanceof Number && ((Number) val).doubleValue() == 0);
                     if (con) {
-                        executeInstruction((Instruction) instruction.getParams()[0]);
+                        executeInstruction((Instruction) instruction.getParam(0));
                     }
                     break;
                 case RESET:
@@ -341,15 +404,69 @@ public class JsonTransformationMachine {
                 case FILTER_ARRAY:
                     @SuppressWarnings("unchecked")
                     Predicate<JsonNode> filterPredicate =
-                            (Predicate<JsonNode>) instruction.getParams()[0];
+                            (Predicate<JsonNode>) instruction.getParam(0);
                     filterArray(filterPredicate);
                     break;
                 case MAP_ARRAY:
                     @SuppressWarnings("unchecked")
                     List<Instruction> mapInstructions =
-                            (List<Instruction>) instruction.getParams()[0];
+                            (List<Instruction>) instruction.getParam(0);
                     mapArray(mapInstructions);
                     break;
+                case PUSH_COLUMN:
+                    @SuppressWarnings("unchecked")
+                    Map<String, JsonNode> columnMapping = instruction.getParamCount() > 1
+                            ? (Map<String, JsonNode>) instruction.getParam(1) : null;
+                    Object columnSelection = instruction.getParamCount() > 2 ? instruction.getParam(2) : null;
+                    pushColumn(stringList(instruction.getParam(0)), columnMapping,
+                            columnSelection instanceof IndexSelection ? (IndexSelection) columnSelection : null,
+                            columnSelection instanceof FilterExpression ? (FilterExpression) columnSelection : null);
+                    break;
+                case POP_COLUMN:
+                    popColumn(stringList(instruction.getParam(0)));
+                    break;
+                case RESERVE_ARRAY:
+                    growArray(requireArray("RESERVE_ARRAY"),
+                            ((Number) resolveValue(instruction.getParam(0))).intValue(),
+                            instruction.getParamCount() > 1 ? (GapFill) instruction.getParam(1) : gapFill);
+                    break;
+                case BROADCAST_ELEMENT:
+                    broadcastElement(stringList(instruction.getParam(0)));
+                    break;
+                case FORMAT_TIME_ARRAY:
+                case TO_TIMESTAMP_ARRAY:
+                    convertTimeColumn(stringList(instruction.getParam(0)), (String) instruction.getParam(1),
+                            timeUnit(instruction, 2), timeZone(instruction, 3),
+                            instruction.getCommand() == Command.FORMAT_TIME_ARRAY);
+                    break;
+                case SORT_ARRAY:
+                    sortArray(instruction);
+                    break;
+                case SUM:
+                case AVG:
+                case MIN:
+                case MAX:
+                case COUNT:
+                    stacks.values().push(aggregate(instruction));
+                    break;
+                case JOIN:
+                    if (stacks.elements().isEmpty() || !stacks.elements().peek().isArray()) {
+                        throw new IllegalStateException("JOIN needs an array on the element stack");
+                    }
+                    stacks.elements().push(ArrayJoin.join(requireArray("JOIN"), (ArrayNode) stacks.elements().pop(),
+                            stringList(instruction.getParam(0)), stringList(instruction.getParam(1)),
+                            instruction.getParamCount() > 2 ? (JoinType) instruction.getParam(2) : JoinType.INNER,
+                            mapper.getNodeFactory()));
+                    break;
+                case GROUP_BY:
+                    stacks.elements().push(groupBy(instruction));
+                    break;
+                case DISTINCT:
+                    if (ArraySorter.distinct(requireArray("DISTINCT"),
+                            instruction.getParamCount() > 0 ? stringList(instruction.getParam(0)) : null) > 0) {
+                        invalidateFieldIndex();
+                    }
+                    break;
 
                 // Structure modifications
                 case CREATE_OBJECT:
@@ -364,6 +481,13 @@ public class JsonTransformationMachine {
                 case MERGE_OBJECTS:
                     mergeObjects();
                     break;
+                case MERGE_PATCH:
+                    if (instruction.getParamCount() > 0) {
+                        mergePatch((JsonNode) instruction.getParam(0), true);
+                    } else {
+                        mergePatch(stacks.elements().pop(), false);
+                    }
+                    break;
             }
 
             if (debug) {
@@ -402,7 +526,9 @@ public class JsonTransformationMachine {
         if (currentState instanceof ObjectNode) {
             ObjectNode objNode = (ObjectNode) currentState;
             if (!objNode.has(field)) {
-                objNode.set(field, mapper.createObjectNode());
+                ObjectNode created = mapper.createObjectNode();
+                objNode.set(field, created);
+                indexReplaced(objNode, field, null, created);
             }
             currentState = objNode.get(field);
             currentPath = currentPath + "." + field;
@@ -416,12 +542,15 @@ public class JsonTransformationMachine {
         if (currentState instanceof ObjectNode) {
             ObjectNode objNode = (ObjectNode) currentState;
             if (!objNode.has(field)) {
-                objNode.set(field, mapper.createArrayNode());
+                ArrayNode created = mapper.createArrayNode();
+                objNode.set(field, created);
+                indexReplaced(objNode, field, null, created);
             }
             JsonNode arrayNode = objNode.get(field);
             if (!arrayNode.isArray()) {
                 ArrayNode newArray = mapper.createArrayNode();
                 objNode.set(field, newArray);
+                indexReplaced(objNode, field, arrayNode, newArray);
                 arrayNode = newArray;
             }
             currentState = arrayNode;
@@ -438,9 +567,8 @@ public class JsonTransformationMachine {
                 index = currentState.size() + index;
             }
             ArrayNode arrayNode = (ArrayNode) currentState;
-            while (arrayNode.size() <= index) {
-                arrayNode.addObject();
-            }
+            growArray(arrayNode, index, gapFill);
+            growArray(arrayNode, index + 1, GapFill.OBJECT);
             currentState = arrayNode.get(index);
             currentPath = currentPath + "[" + index + "]";
         } else {
@@ -456,6 +584,7 @@ public class JsonTransformationMachine {
             // Create field with null if it doesn't exist
             if (!objNode.has(field)) {
                 objNode.putNull(field);
+                indexReplaced(objNode, field, null, objNode.get(field));
             }
 
             stacks.paths().push(currentPath);
@@ -478,11 +607,7 @@ public class JsonTransformationMachine {
             throw new IllegalStateException("Both elements must be arrays");
         }
 
-        ArrayNode result = mapper.createArrayNode();
-        array1.forEach(result::add);
-        array2.forEach(result::add);
-
-        stacks.elements().push(result);
+        stacks.elements().push(RopeArrayNode.concat(mapper.getNodeFactory(), array1, array2));
     }
 
     private void concatArrays() {
@@ -497,10 +622,8 @@ public class JsonTransformationMachine {
             throw new IllegalStateException("Both elements must be arrays");
         }
 
-        ArrayNode result = array1.deepCopy();
-        array2.forEach(((ArrayNode) result)::add);
-
-        stacks.elements().push(result);
+        // Both arrays were popped, so the result may share their elements without copying
+        stacks.elements().push(RopeArrayNode.concat(mapper.getNodeFactory(), array1, array2));
     }
 
     private void filterArray(Predicate<JsonNode> predicate) {
@@ -536,6 +659,282 @@ public class JsonTransformationMachine {
         setCurrentElement(mapped);
     }
 
+    /**
+     * Pushes an array holding, for every element of the current array (or every element the
+     * selection picks, in selection order), a copy of the value at {@code fields}. Each step
+     * follows {@code MOVE_INTO_FIELD}: a missing field is created as null and a step into a
+     * non-object stays where it is. Elements that fail {@code filter}, when given, are neither read
+     * further nor copied.
+     */
+    private void pushColumn(List<String> fields, Map<String, JsonNode> mapping, IndexSelection selection,
+                            Predicate<JsonNode> filter) {
+        ArrayNode array = requireArray("PUSH_COLUMN");
+        ArrayNode column = mapper.createArrayNode();
+        int[] listed = selection != null ? selection.resolve(array.size()) : null;
+        int count = listed != null ? listed.length : selection != null ? selection.count(array.size()) : array.size();
+        for (int position = 0; position < count; position++) {
+            JsonNode node = array.get(listed != null ? listed[position]
+                    : selection != null ? selection.indexAt(position, array.size()) : position);
+            if (filter != null && !filter.test(node)) {
+                continue;
+            }
+            for (String field : fields) {
+                if (node instanceof ObjectNode) {
+                    ObjectNode object = (ObjectNode) node;
+                    if (!object.has(field)) {
+                        object.putNull(field);
+                        indexReplaced(object, field, null, object.get(field));
+                    }
+                    node = object.get(field);
+                }
+            }
+            column.add(mapping != null ? mapValue(mapping, node) : node.deepCopy());
+        }
+        stacks.elements().push(column);
+    }
+
+    /**
+     * Pops an array and writes its items to {@code fields} of the current array's elements,
+     * starting at the index popped from the value stack. The array is padded with empty objects
+     * once, then each item is stored as {@code MOVE_INTO_INDEX}, {@code MOVE_INTO_FIELD}... and
+     * {@code POP_ELEMENT} would.
+     */
+    private void popColumn(List<String> fields) {
+        ArrayNode array = requireArray("POP_COLUMN");
+        JsonNode column = stacks.elements().pop();
+        int offset = ((Number) stacks.values().pop()).intValue();
+        if (!column.isArray()) {
+            throw new IllegalStateException("POP_COLUMN requires an array on the element stack");
+        }
+        growArray(array, offset, gapFill);
+        growArray(array, offset + column.size(), GapFill.OBJECT);
+        for (int i = 0; i < column.size(); i++) {
+            int index = offset + i;
+            JsonNode parent = array;
+            String parentField = null;
+            JsonNode node = array.get(index);
+            for (String field : fields) {
+                if (node instanceof ObjectNode) {
+                    ObjectNode object = (ObjectNode) node;
+                    if (!object.has(field)) {
+                        object.putNull(field);
+                        indexReplaced(object, field, null, object.get(field));
+                    }
+                    parent = object;
+                    parentField = field;
+                    node = object.get(field);
+                }
+            }
+            storeChild(parent, parentField, index, column.get(i));
+        }
+    }
+
+    /**
+     * Pops an element and stores a copy at {@code fields} of every element of the current array,
+     * creating missing intermediate objects as {@code MOVE_INTO_OBJECT} does. Elements whose path
+     * runs into a non-object are left unchanged.
+     */
+    private void broadcastElement(List<String> fields) {
+        ArrayNode array = requireArray("BROADCAST_ELEMENT");
+        JsonNode value = stacks.elements().pop();
+        for (int index = 0; index < array.size(); index++) {
+            if (fields.isEmpty()) {
+                storeChild(array, null, index, value.deepCopy());
+                continue;
+            }
+            JsonNode node = array.get(index);
+            for (int i = 0; i < fields.size() - 1 && node instanceof ObjectNode; i++) {
+                ObjectNode object = (ObjectNode) node;
+                if (!object.has(fields.get(i))) {
+                    ObjectNode created = mapper.createObjectNode();
+                    object.set(fields.get(i), created);
+                    indexReplaced(object, fields.get(i), null, created);
+                }
+                node = object.get(fields.get(i));
+            }
+            if (node instanceof ObjectNode) {
+                storeChild(node, fields.get(fields.size() - 1), index, value.deepCopy());
+            }
+        }
+    }
+
+    /**
+     * Converts the value at {@code fields} of every element of the current array in place, either
+     * from timestamps to text or from text to timestamps. Elements where the path is missing or
+     * null are skipped.
+     */
+    private void convertTimeColumn(List<String> fields, String format, TimeCodec.Unit unit, ZoneId zone,
+                                   boolean toText) {
+        ArrayNode array = requireArray(toText ? "FORMAT_TIME_ARRAY" : "TO_TIMESTAMP_ARRAY");
+        for (int index = 0; index < array.size(); index++) {
+            JsonNode parent = array;
+            String field = null;
+            JsonNode node = array.get(index);
+            for (int i = 0; i < fields.size() && node != null; i++) {
+                parent = node;
+                field = fields.get(i);
+                node = node instanceof ObjectNode ? node.get(field) : null;
+            }
+            if (node == null || node.isNull()) {
+                continue;
+            }
+            JsonNode converted = toText
+                    ? mapper.getNodeFactory().textNode(TimeCodec.format(toTimestamp(unwrap(node)), unit, format, zone))
+                    : mapper.getNodeFactory().numberNode(TimeCodec.parse(node.asText(), format, unit, zone));
+            storeChild(parent, field, index, converted);
+        }
+    }
+
+    private static long toTimestamp(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            return Long.parseLong(((String) value).trim());
+        }
+        throw new IllegalStateException("Not a timestamp: " + value);
+    }
+
+    static TimeCodec.Unit timeUnit(Instruction instruction, int param) {
+        return instruction.getParamCount() > param
+                ? TimeCodec.Unit.of((String) instruction.getParam(param)) : TimeCodec.Unit.SECONDS;
+    }
+
+    static ZoneId timeZone(Instruction instruction, int param) {
+        return instruction.getParamCount() > param
+                ? TimeCodec.zone((String) instruction.getParam(param)) : ZoneOffset.UTC;
+    }
+
+    /**
+     * Sorts the current array by the key paths given as parameters, or by the elements themselves
+     * when there are none. Reordering changes document order, so the field index is rebuilt.
+     */
+    private void sortArray(Instruction instruction) throws IOException {
+        ArrayNode array = requireArray("SORT_ARRAY");
+        List<List<String>> keys = new ArrayList<>();
+        for (Object key : instruction.getParams()) {
+            keys.add(stringList(key));
+        }
+        if (keys.isEmpty()) {
+            keys.add(List.of());
+        }
+        new ArraySorter(sortRunSize).sort(array, keys);
+        invalidateFieldIndex();
+    }
+
+    /**
+     * Groups copies of the current array's elements. Parameters: a {@link GroupShape}, one or
+     * more key paths, then any {@link GroupAggregate}s.
+     */
+    private JsonNode groupBy(Instruction instruction) {
+        ArrayNode array = requireArray("GROUP_BY");
+        List<List<String>> keys = new ArrayList<>();
+        List<GroupAggregate> aggregates = new ArrayList<>();
+        for (int i = 1; i < instruction.getParamCount(); i++) {
+            Object param = instruction.getParam(i);
+            if (param instanceof GroupAggregate) {
+                aggregates.add((GroupAggregate) param);
+            } else {
+                keys.add(stringList(param));
+            }
+        }
+        return ArrayGrouper.group(array, keys, aggregates, (GroupShape) instruction.getParam(0), mapper.getNodeFactory());
+    }
+
+    /**
+     * Reduces the numbers at the field path given as parameter (the elements themselves without
+     * one) across the current array. {@code COUNT} counts every non-null value.
+     */
+    private Object aggregate(Instruction instruction) {
+        ArrayNode array = requireArray(instruction.getCommand().name());
+        List<String> path = instruction.getParamCount() > 0 ? stringList(instruction.getParam(0)) : List.of();
+        if (instruction.getCommand() == Command.COUNT) {
+            return ColumnAggregates.countPresent(array, path);
+        }
+        ColumnAggregates column = ColumnAggregates.of(array, path);
+        switch (instruction.getCommand()) {
+            case SUM:
+                return column.sum();
+            case AVG:
+                return column.average();
+            case MIN:
+                return column.min();
+            default:
+                return column.max();
+        }
+    }
+
+    private void invalidateFieldIndex() {
+        if (fieldIndex != null) {
+            fieldIndex.invalidate();
+        }
+    }
+
+    /**
+     * Grows {@code array} to {@code size} elements in one bulk append.
+     */
+    private void growArray(ArrayNode array, int size, GapFill fill) {
+        int missing = size - array.size();
+        if (missing <= 0) {
+            return;
+        }
+        List<JsonNode> slots;
+        if (fill == GapFill.NULL) {
+            slots = Collections.nCopies(missing, mapper.getNodeFactory().nullNode());
+        } else {
+            slots = new ArrayList<>(missing);
+            for (int i = 0; i < missing; i++) {
+                slots.add(mapper.createObjectNode());
+            }
+        }
+        array.addAll(slots);
+        if (fill != GapFill.NULL) {
+            for (JsonNode slot : slots) {
+                indexReplaced(array, null, null, slot);
+            }
+        }
+    }
+
+    private void storeChild(JsonNode parent, String field, int index, JsonNode value) {
+        if (parent instanceof ObjectNode) {
+            JsonNode previous = ((ObjectNode) parent).replace(field, value);
+            indexReplaced(parent, field, previous, value);
+        } else {
+            JsonNode previous = ((ArrayNode) parent).set(index, value);
+            indexReplaced(parent, null, previous, value);
+        }
+    }
+
+    private ArrayNode requireArray(String command) {
+        if (!(currentState instanceof ArrayNode)) {
+            throw new IllegalStateException(command + " requires an array at path: " + currentPath);
+        }
+        return (ArrayNode) currentState;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> stringList(Object param) {
+        return (List<String>) param;
+    }
+
+    private JsonNode mapValue(Map<String, JsonNode> mapping, JsonNode value) {
+        return mapping.getOrDefault(unwrap(value), value).deepCopy();
+    }
+
+    private void collectDescendants(String field, Map<String, JsonNode> mapping) {
+        List<JsonNode> matches = (fieldIndex != null && currentState == rootState)
+                ? fieldIndex.lookup(field)
+                : FieldIndex.scan(currentState, field);
+
+        ArrayNode result = mapper.createArrayNode();
+        for (JsonNode match : matches) {
+            Object key = unwrap(match);
+            JsonNode value = mapping != null && key != null ? mapping.getOrDefault(key, match) : match;
+            result.add(value.deepCopy());
+        }
+        stacks.elements().push(result);
+    }
+
     private void executeCommandSequence() {
         if (!stacks.commands().isEmpty()) {
             List<Instruction> commands = stacks.commands().peek();
@@ -578,8 +977,8 @@ public class JsonTransformationMachine {
             throw new IllegalStateException("Need two values to compare");
         }
 
-        Object val2 = stacks.values().pop();
-        Object val1 = stacks.values().pop();
+        Object val2 = materialize(stacks.values().pop());
+        Object val1 = materialize(stacks.values().pop());
 
         switch (operator) {
             case "==":
@@ -656,14 +1055,65 @@ public class JsonTransformationMachine {
         stacks.elements().push(merged);
     }
 
+    /**
+     * Applies {@code patch} to the current node as an RFC 7386 merge patch. Objects in the target
+     * are updated in place and only fields named in the patch are visited, so untouched subtrees
+     * are neither copied nor read. Patch values are copied into the tree only when {@code copy}
+     * is set, i.e. when the patch belongs to the instruction rather than the element stack.
+     */
+    private void mergePatch(JsonNode patch, boolean copy) {
+        JsonNode result = applyPatch(currentState, patch, copy, true);
+        if (result != currentState) {
+            setCurrentElement(result);
+        }
+    }
+
+    private JsonNode applyPatch(JsonNode target, JsonNode patch, boolean copy, boolean attached) {
+        if (!patch.isObject()) {
+            return copy ? patch.deepCopy() : patch;
+        }
+        ObjectNode object = target instanceof ObjectNode ? (ObjectNode) target : mapper.createObjectNode();
+        // A new object is indexed as a whole once it is stored, not field by field
+        boolean indexed = attached && object == target;
+        for (Iterator<Map.Entry<String, JsonNode>> it = patch.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            String field = entry.getKey();
+            JsonNode previous = object.get(field);
+            if (entry.getValue().isNull()) {
+                if (previous != null) {
+                    object.remove(field);
+                    if (fieldIndex != null && indexed) {
+                        fieldIndex.onRemove(object, field, previous);
+                    }
+                }
+                continue;
+            }
+            JsonNode value = applyPatch(previous != null ? previous : NullNode.getInstance(), entry.getValue(), copy,
+                    indexed);
+            if (value != previous) {
+                object.set(field, value);
+                if (indexed) {
+                    indexReplaced(object, field, previous, value);
+                }
+            }
+        }
+        return object;
+    }
+
     private void deleteCurrentElement() {
         JsonNode parent = stacks.states().peek();
         if (parent instanceof ObjectNode) {
             String field = getCurrentField();
-            ((ObjectNode) parent).remove(field);
+            JsonNode removed = ((ObjectNode) parent).remove(field);
+            if (fieldIndex != null) {
+                fieldIndex.onRemove(parent, field, removed);
+            }
         } else if (parent instanceof ArrayNode) {
             int index = getCurrentArrayIndex();
-            ((ArrayNode) parent).remove(index);
+            JsonNode removed = ((ArrayNode) parent).remove(index);
+            if (fieldIndex != null) {
+                fieldIndex.onRemove(parent, null, removed);
+            }
         }
     }
 
@@ -676,7 +1126,8 @@ public class JsonTransformationMachine {
             int index = getCurrentArrayIndex(); // Use current path's index
 
             if (index >= 0) {
-                array.set(index, element);
+                JsonNode previous = array.set(index, element);
+                indexReplaced(array, null, previous, element);
             } else {
                 throw new IllegalStateException(
                         "Cannot determine array index from path: " + currentPath
@@ -685,12 +1136,19 @@ public class JsonTransformationMachine {
         } else if (immediateParent instanceof ObjectNode) {
             // Regular object field setting
             String field = getCurrentField();
-            ((ObjectNode) immediateParent).set(field, element);
+            JsonNode previous = ((ObjectNode) immediateParent).replace(field, element);
+            indexReplaced(immediateParent, field, previous, element);
         }
 
         currentState = element;
     }
 
+    private void indexReplaced(JsonNode parent, String field, JsonNode oldValue, JsonNode newValue) {
+        if (fieldIndex != null) {
+            fieldIndex.onReplace(parent, field, oldValue, newValue);
+        }
+    }
+
     private int getCurrentArrayIndex() {
         int bracketStart = currentPath.lastIndexOf('[');
         int bracketEnd = currentPath.lastIndexOf(']');
@@ -708,9 +1166,9 @@ public class JsonTransformationMachine {
     }
 
 
-    private void storeSize() {
+    private void storeSize(IndexSelection selection) {
         if (currentState.isArray()) {
-            stacks.values().push(currentState.size());
+            stacks.values().push(selection != null ? selection.count(currentState.size()) : currentState.size());
         } else if (currentState.isObject()) {
             stacks.values().push(currentState.size());
         } else {
@@ -722,11 +1180,18 @@ public class JsonTransformationMachine {
 
     private Object resolveValue(Object value) {
         if (value instanceof ValueStackReference) {
-            return ((ValueStackReference) value).resolve(this);
+            return materialize(((ValueStackReference) value).resolve(this));
         }
         return value;
     }
 
+    /**
+     * Joins a pending {@code CONCAT} result into a string with the machine's reusable builder.
+     */
+    private Object materialize(Object value) {
+        return ConcatValue.materialize(value, textBuilder);
+    }
+
     private String getCurrentField() {
         String[] parts = currentPath.split("\\.|\\[\\d+\\]");
         if (parts.length > 0) {
@@ -747,6 +1212,75 @@ public class JsonTransformationMachine {
         }
     }
 
+    public GapFill getGapFill() {
+        return gapFill;
+    }
+
+    public void setGapFill(GapFill gapFill) {
+        this.gapFill = Objects.requireNonNull(gapFill);
+    }
+
+    /**
+     * The element stack's spill threshold in bytes, or {@code Long.MAX_VALUE} when it never spills.
+     */
+    public long getElementSpillThreshold() {
+        return stacks.elements() instanceof SpillingElementStack
+                ? ((SpillingElementStack) stacks.elements()).getThreshold() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Bounds the heap the element stack uses: once its entries take more than about {@code bytes},
+     * the oldest ones are spilled to a temporary file and read back when popped or peeked. Entries
+     * are weighed as they are pushed, which costs a walk of each pushed tree.
+     */
+    public void setElementSpillThreshold(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Spill threshold must not be negative: " + bytes);
+        }
+        if (bytes == Long.MAX_VALUE && !(stacks.elements() instanceof SpillingElementStack)) {
+            return;
+        }
+        stacks.setElementSpillThreshold(bytes);
+    }
+
+    public int getSortRunSize() {
+        return sortRunSize;
+    }
+
+    /**
+     * Sets how many elements {@code SORT_ARRAY} sorts in memory; larger arrays are sorted in runs
+     * of this size whose keys are spilled to temporary files and merged.
+     */
+    public void setSortRunSize(int sortRunSize) {
+        if (sortRunSize < 2) {
+            throw new IllegalArgumentException("Sort run size must be at least 2: " + sortRunSize);
+        }
+        this.sortRunSize = sortRunSize;
+    }
+
+    /**
+     * Creates a field-name index for the current document and uses it for {@code ..field} lookups.
+     */
+    public FieldIndex enableFieldIndex() {
+        useFieldIndex(new FieldIndex(rootState));
+        return fieldIndex;
+    }
+
+    /**
+     * Shares an existing index between machines working on the same document, so the index is
+     * built once per document rather than once per move.
+     */
+    public void useFieldIndex(FieldIndex index) {
+        if (index != null && index.getRoot() != rootState) {
+            throw new IllegalArgumentException("Field index belongs to a different document");
+        }
+        this.fieldIndex = index;
+    }
+
+    public FieldIndex getFieldIndex() {
+        return fieldIndex;
+    }
+
     // Public access methods
     public JsonNode getCurrentState() {
         return currentState;
@@ -761,7 +1295,7 @@ public class JsonTransformationMachine {
     }
 
     public Object peekValueStack(int offset) {
-        return stacks.values().peek(offset);
+        return materialize(stacks.values().peek(offset));
     }
 
     public JsonNode peekElementStack(int offset) {
@@ -0,0 +1,132 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An array whose elements are decoded from a {@link LazySource} on first access and which is
+ * written as its source bytes while clean. See {@link LazyObjectNode}.
+ */
+// javac reports the covariant deepCopy() against the class, not the method
+@SuppressWarnings("unchecked")
+final class LazyArrayNode extends ArrayNode {
+    private final LazyElements elements;
+
+    LazyArrayNode(LazySource input, int open) {
+        this(new LazyElements(input, open));
+    }
+
+    private LazyArrayNode(LazyElements elements) {
+        super(JsonNodeFactory.instance, elements);
+        this.elements = elements;
+    }
+
+    boolean isMaterialized() {
+        return elements.decoded != null;
+    }
+
+    boolean isClean() {
+        if (!isMaterialized()) {
+            return true;
+        }
+        if (elements.modified) {
+            return false;
+        }
+        for (JsonNode element : elements.decoded) {
+            if (!LazyObjectNode.isClean(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void serialize(JsonGenerator g, SerializerProvider provider) throws IOException {
+        if (isClean()) {
+            g.writeRawValue(elements.input.raw(elements.open));
+        } else {
+            super.serialize(g, provider);
+        }
+    }
+
+    @Override
+    public ArrayNode deepCopy() {
+        return isClean() ? new LazyArrayNode(elements.input, elements.open) : super.deepCopy();
+    }
+
+    private static final class LazyElements extends AbstractList<JsonNode> {
+        private final LazySource input;
+        private final int open;
+        private List<JsonNode> decoded;
+        private boolean modified;
+
+        LazyElements(LazySource input, int open) {
+            this.input = input;
+            this.open = open;
+        }
+
+        private List<JsonNode> elements() {
+            if (decoded == null) {
+                decoded = input.decodeElements(open);
+            }
+            return decoded;
+        }
+
+        @Override
+        public JsonNode get(int index) {
+            return elements().get(index);
+        }
+
+        // Iterators and sublists come from AbstractList and write through the methods below,
+        // so every change is recorded.
+        @Override
+        public JsonNode set(int index, JsonNode element) {
+            JsonNode previous = elements().set(index, element);
+            modified |= previous != element;
+            return previous;
+        }
+
+        @Override
+        public void add(int index, JsonNode element) {
+            elements().add(index, element);
+            modified = true;
+        }
+
+        @Override
+        public boolean add(JsonNode element) {
+            modified = true;
+            return elements().add(element);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends JsonNode> collection) {
+            modified |= !collection.isEmpty();
+            return elements().addAll(collection);
+        }
+
+        @Override
+        public JsonNode remove(int index) {
+            modified = true;
+            return elements().remove(index);
+        }
+
+        @Override
+        public void clear() {
+            modified |= !elements().isEmpty();
+            elements().clear();
+        }
+
+        @Override
+        public int size() {
+            return elements().size();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An object whose members are decoded from a {@link LazySource} on first access.
+ * Every {@code ObjectNode} operation goes through the member map, which decodes itself
+ * before answering, so the node is indistinguishable from a parsed one.
+ * <p>
+ * The member map also records whether it was ever changed. A node that is unchanged and whose
+ * members are all {@linkplain #isClean(JsonNode) clean} still equals its source bytes, so it is
+ * serialized and copied as those bytes even after being decoded; only dirty containers are
+ * re-encoded.
+ */
+// javac reports the covariant deepCopy() against the class, not the method
+@SuppressWarnings("unchecked")
+final class LazyObjectNode extends ObjectNode {
+    private final LazyMembers members;
+
+    LazyObjectNode(LazySource input, int open) {
+        this(new LazyMembers(input, open));
+    }
+
+    private LazyObjectNode(LazyMembers members) {
+        super(JsonNodeFactory.instance, members);
+        this.members = members;
+    }
+
+    boolean isMaterialized() {
+        return members.decoded != null;
+    }
+
+    /**
+     * Whether this object still matches its source bytes: never changed, and every decoded
+     * member clean in turn.
+     */
+    boolean isClean() {
+        if (!isMaterialized()) {
+            return true;
+        }
+        if (members.modified) {
+            return false;
+        }
+        for (JsonNode member : members.decoded.values()) {
+            if (!isClean(member)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether {@code node} can be written as its source bytes. Scalars are immutable and always
+     * clean; containers are clean only if they are lazy and {@link #isClean()}.
+     */
+    static boolean isClean(JsonNode node) {
+        if (node instanceof LazyObjectNode) {
+            return ((LazyObjectNode) node).isClean();
+        }
+        if (node instanceof LazyArrayNode) {
+            return ((LazyArrayNode) node).isClean();
+        }
+        return !node.isContainerNode();
+    }
+
+    @Override
+    public void serialize(JsonGenerator g, SerializerProvider provider) throws IOException {
+        if (isClean()) {
+            g.writeRawValue(members.input.raw(members.open));
+        } else {
+            super.serialize(g, provider);
+        }
+    }
+
+    @Override
+    public ObjectNode deepCopy() {
+        return isClean() ? new LazyObjectNode(members.input, members.open) : super.deepCopy();
+    }
+
+    private static final class LazyMembers extends AbstractMap<String, JsonNode> {
+        private final LazySource input;
+        private final int open;
+        private Map<String, JsonNode> decoded;
+        private boolean modified;
+
+        LazyMembers(LazySource input, int open) {
+            this.input = input;
+            this.open = open;
+        }
+
+        private Map<String, JsonNode> members() {
+            if (decoded == null) {
+                decoded = input.decodeMembers(open);
+            }
+            return decoded;
+        }
+
+        @Override
+        public JsonNode get(Object key) {
+            return members().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return members().containsKey(key);
+        }
+
+        @Override
+        public JsonNode put(String key, JsonNode value) {
+            JsonNode previous = members().put(key, value);
+            modified |= previous != value;
+            return previous;
+        }
+
+        @Override
+        public JsonNode remove(Object key) {
+            JsonNode previous = members().remove(key);
+            modified |= previous != null;
+            return previous;
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends JsonNode> map) {
+            members().putAll(map);
+            modified |= !map.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            modified |= !members().isEmpty();
+            members().clear();
+        }
+
+        @Override
+        public int size() {
+            return members().size();
+        }
+
+        /**
+         * A view that records removals through its iterator and {@code setValue} on its entries;
+         * {@code keySet()} and {@code values()} are derived from it.
+         */
+        @Override
+        public Set<Entry<String, JsonNode>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, JsonNode>> iterator() {
+                    Iterator<Entry<String, JsonNode>> entries = members().entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, JsonNode> next() {
+                            Entry<String, JsonNode> entry = entries.next();
+                            return new SimpleEntry<>(entry) {
+                                @Override
+                                public JsonNode setValue(JsonNode value) {
+                                    super.setValue(value);
+                                    JsonNode previous = entry.setValue(value);
+                                    modified |= previous != value;
+                                    return previous;
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            entries.remove();
+                            modified = true;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return members().size();
+                }
+            };
+        }
+    }
+}
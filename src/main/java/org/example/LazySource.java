@@ -0,0 +1,22 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where {@link LazyObjectNode} and {@link LazyArrayNode} decode their children from. A container
+ * is identified by a source-specific position: a byte offset or a tape index.
+ */
+interface LazySource {
+
+    Map<String, JsonNode> decodeMembers(int container);
+
+    List<JsonNode> decodeElements(int container);
+
+    /**
+     * The undecoded bytes of the container, written verbatim when it is serialized untouched.
+     */
+    RawBytes raw(int container);
+}
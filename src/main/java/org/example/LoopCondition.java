@@ -0,0 +1,32 @@
+package org.example;
+
+import java.util.function.Predicate;
+
+/**
+ * The {@code LOOP_UNTIL} conditions the path transformer generates. Being named constants rather
+ * than lambdas, they can be written to and read from a {@link ProgramBundle}.
+ */
+public enum LoopCondition implements Predicate<JsonTransformationMachine> {
+    /**
+     * Pattern moves: value stack is {@code [offset, sourceSize, counter]}.
+     */
+    COUNTER_AT_SOURCE_SIZE(3),
+    /**
+     * Replications: value stack is {@code [targetSize, counter]}.
+     */
+    COUNTER_AT_TARGET_SIZE(2);
+
+    private final int stackDepth;
+
+    LoopCondition(int stackDepth) {
+        this.stackDepth = stackDepth;
+    }
+
+    @Override
+    public boolean test(JsonTransformationMachine m) {
+        if (m.getValueStackSize() < stackDepth) return true;
+        Object size = m.peekValueStack(1);
+        Object counter = m.peekValueStack(0);
+        return ((Number) counter).intValue() >= ((Number) size).intValue();
+    }
+}
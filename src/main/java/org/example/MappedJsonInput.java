@@ -0,0 +1,158 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON document read from a memory-mapped file and decoded on demand.
+ * <p>
+ * Opening the input maps the file and builds a {@link StructuralIndex}; nothing is decoded yet.
+ * {@link #root()} returns ordinary {@code ObjectNode}s and {@code ArrayNode}s whose children are
+ * decoded the first time the node is accessed, one level at a time: nested containers stay
+ * undecoded until they are accessed in turn. Untouched containers are written back as their
+ * original bytes when serialized through an {@code ObjectMapper} or {@code JsonGenerator}, and
+ * copying them does not decode them either. {@code toString()} walks the tree and decodes it.
+ * <p>
+ * The document behaves like any other Jackson tree, so it can be given to a
+ * {@link JsonTransformationMachine} directly. Like other trees it is not thread-safe.
+ */
+public final class MappedJsonInput {
+    private final ByteBuffer buffer;
+    private final StructuralIndex index;
+    private final LazySource source;
+
+    private MappedJsonInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.index = StructuralIndex.build(buffer);
+        this.source = new Decoder();
+    }
+
+    /**
+     * Maps {@code file} read-only. The mapping stays valid after this method returns.
+     *
+     * @throws IllegalArgumentException if the file is 2 GB or larger
+     */
+    public static MappedJsonInput open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File too large to map: " + file + " (" + size + " bytes)");
+            }
+            return new MappedJsonInput(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public static MappedJsonInput wrap(byte[] json) {
+        return new MappedJsonInput(ByteBuffer.wrap(json));
+    }
+
+    /**
+     * Returns the document root. Each call returns a fresh, undecoded view.
+     */
+    public JsonNode root() {
+        int start = JsonText.skipWhitespace(buffer, 0);
+        int end = valueEnd(start);
+        int trailing = JsonText.skipWhitespace(buffer, end);
+        if (trailing != buffer.limit()) {
+            throw new JsonText.MalformedJsonException("Unexpected content after the root value at offset " + trailing);
+        }
+        return decodeValue(start, end);
+    }
+
+    public int size() {
+        return buffer.limit();
+    }
+
+    StructuralIndex getIndex() {
+        return index;
+    }
+
+    private JsonNode decodeValue(int start, int end) {
+        switch (JsonText.byteAt(buffer, start)) {
+            case '{':
+                return new LazyObjectNode(source, start);
+            case '[':
+                return new LazyArrayNode(source, start);
+            case '"':
+                return JsonNodeFactory.instance.textNode(JsonText.decodeString(buffer, start, end - 1));
+            default:
+                return JsonText.decodeScalar(buffer, start, end);
+        }
+    }
+
+    private int valueEnd(int start) {
+        byte b = JsonText.byteAt(buffer, start);
+        if (b == '{' || b == '[') {
+            return index.closeOf(start) + 1;
+        }
+        if (b == '"') {
+            return JsonText.stringEnd(buffer, start) + 1;
+        }
+        return JsonText.scalarEnd(buffer, start);
+    }
+
+    /**
+     * Decodes containers by byte offset, skipping nested ones with the structural index.
+     */
+    private class Decoder implements LazySource {
+
+        @Override
+        public Map<String, JsonNode> decodeMembers(int open) {
+            Map<String, JsonNode> members = new LinkedHashMap<>();
+            int pos = JsonText.skipWhitespace(buffer, open + 1);
+            if (JsonText.byteAt(buffer, pos) == '}') {
+                return members;
+            }
+            while (true) {
+                JsonText.expect(buffer, pos, '"');
+                int keyEnd = JsonText.stringEnd(buffer, pos);
+                String key = JsonText.decodeString(buffer, pos, keyEnd);
+                pos = JsonText.skipWhitespace(buffer, keyEnd + 1);
+                JsonText.expect(buffer, pos, ':');
+                pos = JsonText.skipWhitespace(buffer, pos + 1);
+                int end = valueEnd(pos);
+                members.put(key, decodeValue(pos, end));
+                pos = JsonText.skipWhitespace(buffer, end);
+                if (JsonText.byteAt(buffer, pos) == '}') {
+                    return members;
+                }
+                JsonText.expect(buffer, pos, ',');
+                pos = JsonText.skipWhitespace(buffer, pos + 1);
+            }
+        }
+
+        @Override
+        public List<JsonNode> decodeElements(int open) {
+            List<JsonNode> elements = new ArrayList<>();
+            int pos = JsonText.skipWhitespace(buffer, open + 1);
+            if (JsonText.byteAt(buffer, pos) == ']') {
+                return elements;
+            }
+            while (true) {
+                int end = valueEnd(pos);
+                elements.add(decodeValue(pos, end));
+                pos = JsonText.skipWhitespace(buffer, end);
+                if (JsonText.byteAt(buffer, pos) == ']') {
+                    return elements;
+                }
+                JsonText.expect(buffer, pos, ',');
+                pos = JsonText.skipWhitespace(buffer, pos + 1);
+            }
+        }
+
+        @Override
+        public RawBytes raw(int open) {
+            return new RawBytes(buffer, open, index.closeOf(open) + 1);
+        }
+    }
+}
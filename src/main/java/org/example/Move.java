@@ -0,0 +1,169 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.*;
+
+/**
+ * A single source-to-target move, the unit {@link JsonPathTransformer#generateMoveInstructions}
+ * compiles. Besides generating instructions, a move knows which paths it reads and writes,
+ * which lets callers skip, reorder or parallelise moves without inspecting instructions.
+ */
+public final class Move {
+
+    public enum Kind {
+        SIMPLE,         // $.a.b -> $.c.d
+        PATTERN,        // $.users[*].email -> $.contactInfo[*].email
+        REPLICATION,    // $.company.name -> $.contactInfo[*].companyName
+        DESCENDANT      // $..email -> $.emails
+    }
+
+    private final String sourcePath;
+    private final String targetPath;
+    private final Map<String, JsonNode> mapping;
+    private final List<PathComponent> sourceComponents;
+    private final List<PathComponent> targetComponents;
+    private final Kind kind;
+    private final List<List<String>> readPaths;
+    private final List<List<String>> sizeReadPaths;
+    private final List<List<String>> writePaths;
+
+    public Move(String sourcePath, String targetPath, Map<String, JsonNode> mapping) {
+        this.sourcePath = sourcePath;
+        this.targetPath = targetPath;
+        this.mapping = mapping == null ? null : copyMapping(mapping);
+        this.sourceComponents = List.copyOf(JsonPathParser.parse(sourcePath));
+        this.targetComponents = List.copyOf(JsonPathParser.parse(targetPath));
+        this.kind = classify(sourceComponents, targetComponents);
+        this.sizeReadPaths = computeSizeReadPaths();
+        List<List<String>> reads = new ArrayList<>();
+        reads.add(List.copyOf(AccessPaths.fromComponents(sourceComponents)));
+        reads.addAll(sizeReadPaths);
+        this.readPaths = List.copyOf(reads);
+        this.writePaths = List.of(List.copyOf(AccessPaths.fromComponents(targetComponents)));
+    }
+
+    public static Move of(String sourcePath, String targetPath) {
+        return new Move(sourcePath, targetPath, null);
+    }
+
+    public static Move of(String sourcePath, String targetPath, Map<String, JsonNode> mapping) {
+        return new Move(sourcePath, targetPath, mapping);
+    }
+
+    public List<Instruction> generateInstructions() {
+        return JsonPathTransformer.generateMoveInstructions(sourcePath, targetPath, mapping);
+    }
+
+    public Program compile() {
+        return Program.of(generateInstructions());
+    }
+
+    /**
+     * Compiles several moves into one program that runs them in order.
+     */
+    public static Program compile(List<Move> moves) {
+        List<Instruction> instructions = new ArrayList<>();
+        for (Move move : moves) {
+            instructions.addAll(move.generateInstructions());
+        }
+        return Program.of(instructions);
+    }
+
+    /**
+     * Paths whose content can influence the result: the source path first, followed by
+     * {@link #getSizeReadPaths()}.
+     */
+    public List<List<String>> getReadPaths() {
+        return readPaths;
+    }
+
+    /**
+     * Paths that decide how many elements are written rather than what: the offset array of
+     * {@code [*+$.array]} targets, the target array whose size drives a replication, and the
+     * fields a {@code [?(...)]} source filter reads in every element.
+     */
+    public List<List<String>> getSizeReadPaths() {
+        return sizeReadPaths;
+    }
+
+    /**
+     * Paths the move assigns. Navigation also creates missing containers along the source
+     * path, so callers that need exclusive access should treat source paths as touched too.
+     */
+    public List<List<String>> getWritePaths() {
+        return writePaths;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public String getTargetPath() {
+        return targetPath;
+    }
+
+    public Map<String, JsonNode> getMapping() {
+        return mapping;
+    }
+
+    public List<PathComponent> getSourceComponents() {
+        return sourceComponents;
+    }
+
+    public List<PathComponent> getTargetComponents() {
+        return targetComponents;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    private List<List<String>> computeSizeReadPaths() {
+        List<List<String>> reads = new ArrayList<>();
+        PathComponent targetArray = JsonPathTransformer.findArrayComponent(targetComponents);
+        if (targetArray != null && targetArray.getType() == PathComponent.Type.ARRAY_ALL_OFFSET) {
+            reads.add(List.copyOf(AccessPaths.fromPath(targetArray.getOffsetPath())));
+        }
+        if (kind == Kind.REPLICATION && targetArray != null) {
+            List<PathComponent> arrayPath = targetComponents.subList(0, targetComponents.indexOf(targetArray) + 1);
+            List<String> segments = AccessPaths.fromComponents(arrayPath);
+            reads.add(List.copyOf(segments.subList(0, segments.size() - 1)));
+        }
+        PathComponent sourceArray = JsonPathTransformer.findArrayComponent(sourceComponents);
+        if (sourceArray != null && sourceArray.getType() == PathComponent.Type.ARRAY_FILTER) {
+            List<String> elements = AccessPaths.fromComponents(
+                    sourceComponents.subList(0, sourceComponents.indexOf(sourceArray) + 1));
+            for (List<String> path : sourceArray.getFilter().getPaths()) {
+                List<String> read = new ArrayList<>(elements);
+                read.addAll(path);
+                reads.add(List.copyOf(read));
+            }
+        }
+        return List.copyOf(reads);
+    }
+
+    private static Kind classify(List<PathComponent> source, List<PathComponent> target) {
+        if (!source.isEmpty() && source.get(0).getType() == PathComponent.Type.RECURSIVE_DESCENT) {
+            return Kind.DESCENDANT;
+        }
+        if (!JsonPathTransformer.containsPattern(source) && JsonPathTransformer.containsPattern(target)) {
+            return Kind.REPLICATION;
+        }
+        if (JsonPathTransformer.containsPattern(source)) {
+            return Kind.PATTERN;
+        }
+        return Kind.SIMPLE;
+    }
+
+    private static Map<String, JsonNode> copyMapping(Map<String, JsonNode> mapping) {
+        Map<String, JsonNode> copy = new LinkedHashMap<>();
+        mapping.forEach((key, value) -> copy.put(key, value.deepCopy()));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Move{%s -> %s, kind=%s}", sourcePath, targetPath, kind);
+    }
+}
@@ -0,0 +1,283 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs a list of moves against one document, executing moves that touch disjoint top-level
+ * fields concurrently.
+ * <p>
+ * The read and write paths of each move (see {@link Move}) are reduced to the top-level fields
+ * they start with; moves sharing a field depend on each other and form one group that runs in
+ * program order. A move whose paths start at a wildcard, an array root or a recursive descent may
+ * touch any field, so it acts as a barrier: the groups before it finish, it runs alone, and the
+ * moves after it are grouped again.
+ * <p>
+ * Each group runs on its own machine against a private root object holding only its fields, so
+ * groups never share a container. Afterwards the private roots are merged back: existing fields
+ * keep their position and new fields are appended in the order the sequential run creates them.
+ * The result therefore equals running the moves one after another, including field order.
+ * <p>
+ * Instances are immutable and may be shared; every {@link #execute} call uses fresh machines.
+ * When a move fails, the exception is rethrown and the document may be partially transformed.
+ */
+public class ParallelMoveExecutor {
+    private final List<Move> moves;
+    private final List<Program> programs;
+    private final List<List<Group>> phases;
+    private final Executor executor;
+
+    public ParallelMoveExecutor(List<Move> moves, Executor executor) {
+        this.moves = List.copyOf(moves);
+        this.programs = new ArrayList<>();
+        for (Move move : this.moves) {
+            programs.add(move.compile());
+        }
+        this.phases = plan(this.moves);
+        this.executor = executor;
+    }
+
+    public ParallelMoveExecutor(List<Move> moves) {
+        this(moves, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Transforms {@code document} in place and returns it.
+     */
+    public JsonNode execute(JsonNode document) {
+        for (List<Group> phase : phases) {
+            if (phase.size() == 1 || !(document instanceof ObjectNode)) {
+                for (Group group : phase) {
+                    runSequentially(group.moves, document);
+                }
+            } else {
+                runConcurrently(phase, (ObjectNode) document);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * The execution plan: a list of phases run one after another, each a list of groups of
+     * move indices that may run concurrently.
+     */
+    public List<List<List<Integer>>> getSchedule() {
+        List<List<List<Integer>>> schedule = new ArrayList<>();
+        for (List<Group> phase : phases) {
+            List<List<Integer>> groups = new ArrayList<>();
+            for (Group group : phase) {
+                groups.add(group.moves);
+            }
+            schedule.add(Collections.unmodifiableList(groups));
+        }
+        return Collections.unmodifiableList(schedule);
+    }
+
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    private void runSequentially(List<Integer> group, JsonNode document) {
+        JsonTransformationMachine machine = new JsonTransformationMachine(document);
+        for (int index : group) {
+            machine.reset(document);
+            machine.execute(programs.get(index));
+        }
+    }
+
+    private void runConcurrently(List<Group> phase, ObjectNode root) {
+        List<CompletableFuture<GroupResult>> futures = new ArrayList<>();
+        for (Group group : phase) {
+            ObjectNode privateRoot = JsonNodeFactory.instance.objectNode();
+            for (String field : group.fields) {
+                if (root.has(field)) {
+                    privateRoot.set(field, root.get(field));
+                }
+            }
+            futures.add(CompletableFuture.supplyAsync(() -> runGroup(group, privateRoot), executor));
+        }
+
+        List<GroupResult> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<GroupResult> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        List<CreatedField> created = new ArrayList<>();
+        for (GroupResult result : results) {
+            for (String field : result.group.fields) {
+                JsonNode value = result.root.get(field);
+                if (value == null) {
+                    root.remove(field);
+                } else if (root.has(field)) {
+                    root.set(field, value);
+                }
+            }
+            created.addAll(result.created);
+        }
+        created.sort(Comparator.comparingInt((CreatedField c) -> c.move).thenComparingInt(c -> c.order));
+        for (CreatedField field : created) {
+            root.set(field.name, field.value);
+        }
+    }
+
+    private GroupResult runGroup(Group group, ObjectNode privateRoot) {
+        Set<String> known = new HashSet<>();
+        privateRoot.fieldNames().forEachRemaining(known::add);
+        List<String> createdNames = new ArrayList<>();
+        List<Integer> createdBy = new ArrayList<>();
+
+        JsonTransformationMachine machine = new JsonTransformationMachine(privateRoot);
+        for (int index : group.moves) {
+            machine.reset(privateRoot);
+            machine.execute(programs.get(index));
+            for (Iterator<String> names = privateRoot.fieldNames(); names.hasNext(); ) {
+                String name = names.next();
+                if (known.add(name)) {
+                    createdNames.add(name);
+                    createdBy.add(index);
+                }
+            }
+        }
+
+        List<CreatedField> created = new ArrayList<>();
+        for (int i = 0; i < createdNames.size(); i++) {
+            JsonNode value = privateRoot.get(createdNames.get(i));
+            if (value != null) {
+                created.add(new CreatedField(createdNames.get(i), value, createdBy.get(i), i));
+            }
+        }
+        return new GroupResult(group, privateRoot, created);
+    }
+
+    private static List<List<Group>> plan(List<Move> moves) {
+        List<List<Group>> phases = new ArrayList<>();
+        List<Integer> pending = new ArrayList<>();
+        List<Set<String>> pendingFields = new ArrayList<>();
+
+        for (int i = 0; i < moves.size(); i++) {
+            Set<String> fields = topLevelFields(moves.get(i));
+            if (fields == null) {
+                if (!pending.isEmpty()) {
+                    phases.add(group(pending, pendingFields));
+                    pending = new ArrayList<>();
+                    pendingFields = new ArrayList<>();
+                }
+                phases.add(List.of(new Group(List.of(i), Set.of())));
+            } else {
+                pending.add(i);
+                pendingFields.add(fields);
+            }
+        }
+        if (!pending.isEmpty()) {
+            phases.add(group(pending, pendingFields));
+        }
+        return phases;
+    }
+
+    /**
+     * Splits a run of moves into connected groups of moves that share a top-level field.
+     */
+    private static List<Group> group(List<Integer> indices, List<Set<String>> fields) {
+        int[] parent = new int[indices.size()];
+        Map<String, Integer> owner = new HashMap<>();
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            for (String field : fields.get(i)) {
+                Integer other = owner.putIfAbsent(field, i);
+                if (other != null) {
+                    parent[find(parent, i)] = find(parent, other);
+                }
+            }
+        }
+
+        Map<Integer, List<Integer>> members = new LinkedHashMap<>();
+        Map<Integer, Set<String>> groupFields = new HashMap<>();
+        for (int i = 0; i < parent.length; i++) {
+            int rootIndex = find(parent, i);
+            members.computeIfAbsent(rootIndex, k -> new ArrayList<>()).add(indices.get(i));
+            groupFields.computeIfAbsent(rootIndex, k -> new LinkedHashSet<>()).addAll(fields.get(i));
+        }
+
+        List<Group> groups = new ArrayList<>();
+        members.forEach((rootIndex, moveIndices) ->
+                groups.add(new Group(List.copyOf(moveIndices), Set.copyOf(groupFields.get(rootIndex)))));
+        return List.copyOf(groups);
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * The top-level fields a move may read, create or assign, or null when it may touch any.
+     */
+    static Set<String> topLevelFields(Move move) {
+        if (move.getKind() == Move.Kind.DESCENDANT) {
+            return null;
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        List<List<String>> paths = new ArrayList<>(move.getReadPaths());
+        paths.addAll(move.getWritePaths());
+        for (List<String> path : paths) {
+            if (path.isEmpty() || AccessPaths.ANY.equals(path.get(0)) || AccessPaths.DEEP.equals(path.get(0))) {
+                return null;
+            }
+            fields.add(path.get(0));
+        }
+        return fields;
+    }
+
+    private static class Group {
+        final List<Integer> moves;
+        final Set<String> fields;
+
+        Group(List<Integer> moves, Set<String> fields) {
+            this.moves = moves;
+            this.fields = fields;
+        }
+    }
+
+    private static class GroupResult {
+        final Group group;
+        final ObjectNode root;
+        final List<CreatedField> created;
+
+        GroupResult(Group group, ObjectNode root, List<CreatedField> created) {
+            this.group = group;
+            this.root = root;
+            this.created = created;
+        }
+    }
+
+    private static class CreatedField {
+        final String name;
+        final JsonNode value;
+        final int move;
+        final int order;
+
+        CreatedField(String name, JsonNode value, int move, int order) {
+            this.name = name;
+            this.value = value;
+            this.move = move;
+            this.order = order;
+        }
+    }
+}
@@ -9,8 +9,9 @@ public class PathComponent {
         ARRAY_INDEX,        // Specific index: [0]
         ARRAY_ALL,          // All elements: [*]
         ARRAY_ALL_OFFSET,   // [*+$.users] - append with offset from users array
-        ARRAY_RANGE,        // Range of elements: [1:3]
+        ARRAY_RANGE,        // Range of elements: [1:3], [-2:], [::2]
         ARRAY_VALUES,       // Specific values: [1,3,5]
+        ARRAY_FILTER,       // Matching elements: [?(@.role == 'developer')]
         WILDCARD,          // Any field: .*
         RECURSIVE_DESCENT   // All nested levels: ..
     }
@@ -22,10 +23,24 @@ public class PathComponent {
     private final Integer endIndex;
     private final List<Integer> indices;
     private final String offsetPath;
+    private final int step;
+    private final FilterExpression filter;
 
     private PathComponent(Type type, String field, Integer index,
                           Integer startIndex, Integer endIndex,
                           List<Integer> indices, String offsetPath) {
+        this(type, field, index, startIndex, endIndex, indices, offsetPath, 1);
+    }
+
+    private PathComponent(Type type, String field, Integer index,
+                          Integer startIndex, Integer endIndex,
+                          List<Integer> indices, String offsetPath, int step) {
+        this(type, field, index, startIndex, endIndex, indices, offsetPath, step, null);
+    }
+
+    private PathComponent(Type type, String field, Integer index,
+                          Integer startIndex, Integer endIndex,
+                          List<Integer> indices, String offsetPath, int step, FilterExpression filter) {
         this.type = type;
         this.field = field;
         this.index = index;
@@ -33,6 +48,8 @@ public class PathComponent {
         this.endIndex = endIndex;
         this.indices = indices;
         this.offsetPath = offsetPath;
+        this.step = step;
+        this.filter = filter;
     }
 
     // Static factory methods
@@ -52,10 +69,19 @@ public class PathComponent {
         return new PathComponent(Type.ARRAY_RANGE, field, null, start, end, null, null);
     }
 
+    // Bounds may be null (open); negative bounds count from the end
+    public static PathComponent arrayRange(String field, Integer start, Integer end, int step) {
+        return new PathComponent(Type.ARRAY_RANGE, field, null, start, end, null, null, step);
+    }
+
     public static PathComponent arrayValues(String field, List<Integer> indices) {
         return new PathComponent(Type.ARRAY_VALUES, field, null, null, null, indices, null);
     }
 
+    public static PathComponent arrayFilter(String field, FilterExpression filter) {
+        return new PathComponent(Type.ARRAY_FILTER, field, null, null, null, null, null, 1, filter);
+    }
+
     public static PathComponent wildcard() {
         return new PathComponent(Type.WILDCARD, null, null, null, null, null, null);
     }
@@ -85,10 +111,12 @@ public class PathComponent {
             case ARRAY_ALL_OFFSET:
                 return field + "[*+"+getOffsetPath()+"]";
             case ARRAY_RANGE:
-                return field + "[" + startIndex + ":" + endIndex + "]";
+                return field + IndexSelection.of(this);
             case ARRAY_VALUES:
                 return field + "[" + String.join(",", indices.stream()
                         .map(String::valueOf).toList()) + "]";
+            case ARRAY_FILTER:
+                return field + "[?(" + filter + ")]";
             case WILDCARD:
                 return ".*";
             case RECURSIVE_DESCENT:
@@ -121,4 +149,12 @@ public class PathComponent {
     public Integer getStartIndex() {
         return startIndex;
     }
+
+    public int getStep() {
+        return step;
+    }
+
+    public FilterExpression getFilter() {
+        return filter;
+    }
 }
@@ -0,0 +1,298 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.DateTimeException;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, validated instruction list.
+ * <p>
+ * Creating a program deep-copies every nested instruction list, mapping table and JSON parameter,
+ * so a program can be shared freely between threads and machines. Predicates used by
+ * {@code LOOP_UNTIL} and {@code FILTER_ARRAY} are kept as given and must be stateless.
+ */
+public final class Program {
+    private static final Set<String> COMPARE_OPERATORS = Set.of("==", "!=", "<", ">", "<=", ">=");
+
+    private final List<Instruction> instructions;
+
+    private Program(List<Instruction> instructions) {
+        this.instructions = instructions;
+    }
+
+    /**
+     * Validates and freezes the given instructions.
+     *
+     * @throws IllegalArgumentException if an instruction has missing or mistyped parameters
+     */
+    public static Program of(List<Instruction> instructions) {
+        return new Program(freeze(instructions, "program"));
+    }
+
+    /**
+     * Compiles a single move, see {@link JsonPathTransformer#generateMoveInstructions}.
+     */
+    public static Program compile(String sourcePath, String targetPath, Map<String, JsonNode> mapping) {
+        return of(JsonPathTransformer.generateMoveInstructions(sourcePath, targetPath, mapping));
+    }
+
+    public List<Instruction> getInstructions() {
+        return instructions;
+    }
+
+    public int size() {
+        return instructions.size();
+    }
+
+    private static List<Instruction> freeze(List<Instruction> instructions, String location) {
+        if (instructions == null) {
+            throw new IllegalArgumentException("Invalid " + location + ": instruction list is null");
+        }
+        List<Instruction> frozen = new ArrayList<>(instructions.size());
+        int pushedCommands = 0;
+        for (int i = 0; i < instructions.size(); i++) {
+            String where = location + "[" + i + "]";
+            Instruction instruction = instructions.get(i);
+            if (instruction == null || instruction.getCommand() == null) {
+                throw new IllegalArgumentException("Invalid " + where + ": missing command");
+            }
+            if (instruction.getCommand() == Command.PUSH_COMMAND) {
+                pushedCommands++;
+            } else if (instruction.getCommand() == Command.LOOP_UNTIL) {
+                if (pushedCommands == 0) {
+                    throw new IllegalArgumentException(
+                            "Invalid " + where + ": LOOP_UNTIL without preceding PUSH_COMMAND");
+                }
+                pushedCommands--;
+            }
+            frozen.add(freeze(instruction, where));
+        }
+        return Collections.unmodifiableList(frozen);
+    }
+
+    private static Instruction freeze(Instruction instruction, String where) {
+        Object[] params = instruction.getParams();
+        switch (instruction.getCommand()) {
+            case MOVE_INTO_OBJECT:
+            case MOVE_INTO_ARRAY:
+            case MOVE_INTO_FIELD:
+                requireParam(params, 0, where, String.class, ValueStackReference.class);
+                break;
+            case COLLECT_DESCENDANTS:
+                requireParam(params, 0, where, String.class, ValueStackReference.class);
+                if (params.length > 1) {
+                    params[1] = freezeMapping(params[1], where);
+                }
+                break;
+            case PUSH_COLUMN:
+                params[0] = freezeFields(requireParam(params, 0, where, List.class), where);
+                if (params.length > 1 && params[1] != null) {
+                    params[1] = freezeMapping(params[1], where);
+                }
+                if (params.length > 2) {
+                    requireParam(params, 2, where, IndexSelection.class, FilterExpression.class);
+                }
+                break;
+            case RESERVE_ARRAY:
+                requireParam(params, 0, where, Number.class, ValueStackReference.class);
+                if (params.length > 1) {
+                    requireParam(params, 1, where, JsonTransformationMachine.GapFill.class);
+                }
+                break;
+            case STORE_SIZE:
+                if (params.length > 0) {
+                    requireParam(params, 0, where, IndexSelection.class);
+                }
+                break;
+            case POP_COLUMN:
+            case BROADCAST_ELEMENT:
+                params[0] = freezeFields(requireParam(params, 0, where, List.class), where);
+                break;
+            case SORT_ARRAY:
+                for (int i = 0; i < params.length; i++) {
+                    params[i] = freezeFields(requireParam(params, i, where, List.class), where);
+                }
+                break;
+            case JOIN:
+                params[0] = freezeFields(requireParam(params, 0, where, List.class), where);
+                params[1] = freezeFields(requireParam(params, 1, where, List.class), where);
+                if (params.length > 2) {
+                    requireParam(params, 2, where, JsonTransformationMachine.JoinType.class);
+                }
+                break;
+            case GROUP_BY: {
+                requireParam(params, 0, where, JsonTransformationMachine.GroupShape.class);
+                int keys = 0;
+                for (int i = 1; i < params.length; i++) {
+                    if (params[i] instanceof GroupAggregate) {
+                        continue;
+                    }
+                    if (keys < i - 1) {
+                        throw new IllegalArgumentException("Invalid " + where + ": key paths must precede aggregates");
+                    }
+                    List<String> key = freezeFields(requireParam(params, i, where, List.class), where);
+                    if (key.isEmpty()) {
+                        throw new IllegalArgumentException("Invalid " + where + ": key path must not be empty");
+                    }
+                    params[i] = key;
+                    keys++;
+                }
+                if (keys == 0) {
+                    throw new IllegalArgumentException("Invalid " + where + ": at least one key path required");
+                }
+                break;
+            }
+            case DISTINCT:
+            case SUM:
+            case AVG:
+            case MIN:
+            case MAX:
+            case COUNT:
+                if (params.length > 0) {
+                    params[0] = freezeFields(requireParam(params, 0, where, List.class), where);
+                }
+                break;
+            case FORMAT_TIME:
+            case TO_TIMESTAMP:
+                requireTime(params, 0, where);
+                break;
+            case CONCAT:
+                if (params.length > 0 && (Integer) requireParam(params, 0, where, Integer.class) < 2) {
+                    throw new IllegalArgumentException("Invalid " + where + ": at least two parts required");
+                }
+                break;
+            case FORMAT_TIME_ARRAY:
+            case TO_TIMESTAMP_ARRAY:
+                params[0] = freezeFields(requireParam(params, 0, where, List.class), where);
+                requireParam(params, 1, where, String.class);
+                requireTime(params, 2, where);
+                break;
+            case MOVE_INTO_INDEX:
+                requireParam(params, 0, where, Number.class, ValueStackReference.class);
+                if (params.length > 1) {
+                    requireParam(params, 1, where, IndexSelection.class);
+                }
+                break;
+            case STORE_ELEMENT:
+                requireParam(params, 0, where, JsonNode.class);
+                params[0] = ((JsonNode) params[0]).deepCopy();
+                break;
+            case MERGE_PATCH:
+                if (params.length > 0) {
+                    params[0] = ((JsonNode) requireParam(params, 0, where, JsonNode.class)).deepCopy();
+                }
+                break;
+            case MAP_ELEMENT:
+                params[0] = freezeMapping(requireParam(params, 0, where, Map.class), where);
+                break;
+            case STORE_VALUE:
+                if (params.length < 1) {
+                    throw new IllegalArgumentException("Invalid " + where + ": STORE_VALUE needs a value");
+                }
+                if (params[0] instanceof JsonNode) {
+                    params[0] = ((JsonNode) params[0]).deepCopy();
+                }
+                break;
+            case COMPARE:
+                Object operator = requireParam(params, 0, where, String.class);
+                if (!COMPARE_OPERATORS.contains(operator)) {
+                    throw new IllegalArgumentException("Invalid " + where + ": unknown operator " + operator);
+                }
+                break;
+            case PUSH_COMMAND:
+            case MAP_ARRAY:
+                params[0] = freezeList(requireParam(params, 0, where, List.class), where);
+                break;
+            case LOOP_UNTIL:
+            case FILTER_ARRAY:
+                requireParam(params, 0, where, Predicate.class);
+                break;
+            case JUMP_IF_TRUE:
+            case JUMP_IF_FALSE:
+                Instruction target = (Instruction) requireParam(params, 0, where, Instruction.class);
+                params[0] = freeze(target, where + ".jump");
+                break;
+            default:
+                break;
+        }
+        return instruction.withParams(params);
+    }
+
+    private static List<Instruction> freezeList(Object list, String where) {
+        List<Instruction> instructions = new ArrayList<>();
+        for (Object item : (List<?>) list) {
+            if (!(item instanceof Instruction)) {
+                throw new IllegalArgumentException("Invalid " + where + ": nested item is not an instruction");
+            }
+            instructions.add((Instruction) item);
+        }
+        return freeze(instructions, where);
+    }
+
+    private static List<String> freezeFields(Object fields, String where) {
+        List<String> frozen = new ArrayList<>();
+        for (Object field : (List<?>) fields) {
+            if (!(field instanceof String)) {
+                throw new IllegalArgumentException("Invalid " + where + ": field path must be a list of strings");
+            }
+            frozen.add((String) field);
+        }
+        return Collections.unmodifiableList(frozen);
+    }
+
+    private static Map<String, JsonNode> freezeMapping(Object mapping, String where) {
+        if (!(mapping instanceof Map)) {
+            throw new IllegalArgumentException("Invalid " + where + ": mapping must be a Map");
+        }
+        Map<String, JsonNode> frozen = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) mapping).entrySet()) {
+            if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof JsonNode)) {
+                throw new IllegalArgumentException("Invalid " + where + ": mapping must be Map<String, JsonNode>");
+            }
+            frozen.put((String) entry.getKey(), ((JsonNode) entry.getValue()).deepCopy());
+        }
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    /**
+     * Checks the optional unit and zone parameters of the time commands, starting at {@code index}.
+     */
+    private static void requireTime(Object[] params, int index, String where) {
+        if (params.length > index) {
+            Object unit = requireParam(params, index, where, String.class);
+            try {
+                TimeCodec.Unit.of((String) unit);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid " + where + ": " + e.getMessage(), e);
+            }
+        }
+        if (params.length > index + 1) {
+            Object zone = requireParam(params, index + 1, where, String.class);
+            try {
+                TimeCodec.zone((String) zone);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Invalid " + where + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static Object requireParam(Object[] params, int index, String where, Class<?>... types) {
+        if (params.length <= index || params[index] == null) {
+            throw new IllegalArgumentException("Invalid " + where + ": missing parameter " + index);
+        }
+        for (Class<?> type : types) {
+            if (type.isInstance(params[index])) {
+                return params[index];
+            }
+        }
+        throw new IllegalArgumentException(String.format("Invalid %s: parameter %d has type %s",
+                where, index, params[index].getClass().getSimpleName()));
+    }
+
+    @Override
+    public String toString() {
+        return "Program{instructions=" + instructions.size() + "}";
+    }
+}
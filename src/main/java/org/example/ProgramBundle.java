@@ -0,0 +1,457 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A versioned binary file of compiled, named programs, so a process can load ready-made
+ * instructions at startup instead of parsing paths and generating them.
+ * <p>
+ * The file starts with a magic number and {@link #FORMAT_VERSION}, followed by a table of the
+ * distinct mappings used by any instruction (each stored once) and then the programs. Commands
+ * are stored by name, so a bundle written by a build with different commands fails to load
+ * rather than running the wrong instructions. Every parameter the path transformer generates can
+ * be stored; arbitrary predicates (such as hand-written {@code FILTER_ARRAY} lambdas) cannot, and
+ * are rejected when writing. Loaded programs are validated as {@link Program#of} validates any program.
+ * <p>
+ * {@link #main} is the ahead-of-time compiler: {@code ProgramBundle <spec.json> <bundle.bin>}
+ * compiles a {@link TransformationSpec} into a bundle.
+ */
+public final class ProgramBundle {
+    public static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x4A544D42; // "JTMB"
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Parameter tags
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte JSON = 6;
+    private static final byte MAPPING = 7;
+    private static final byte INSTRUCTIONS = 8;
+    private static final byte STRINGS = 9;
+    private static final byte INSTRUCTION = 10;
+    private static final byte REFERENCE = 11;
+    private static final byte LOOP_CONDITION = 12;
+    private static final byte SELECTION = 13;
+    private static final byte GAP_FILL = 14;
+    private static final byte JOIN_TYPE = 15;
+    private static final byte GROUP_SHAPE = 16;
+    private static final byte GROUP_AGGREGATE = 17;
+    private static final byte FILTER = 18;
+
+    private ProgramBundle() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ProgramBundle <spec.json> <bundle.bin>");
+            System.exit(2);
+        }
+        Map<String, Program> programs = TransformationSpec.read(Path.of(args[0])).compile();
+        save(programs, Path.of(args[1]));
+        System.out.printf("Compiled %d program(s) into %s%n", programs.size(), args[1]);
+    }
+
+    public static void save(Map<String, Program> programs, Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(programs, out);
+        }
+    }
+
+    public static Map<String, Program> load(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Writes {@code programs} in iteration order.
+     *
+     * @throws IllegalArgumentException if an instruction has a parameter that cannot be stored
+     */
+    public static void write(Map<String, Program> programs, OutputStream out) throws IOException {
+        Writer writer = new Writer();
+        for (Program program : programs.values()) {
+            writer.collectMappings(program.getInstructions());
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(writer.mappings.size());
+        for (Map<String, JsonNode> mapping : writer.mappings) {
+            data.writeInt(mapping.size());
+            for (Map.Entry<String, JsonNode> entry : mapping.entrySet()) {
+                writeString(data, entry.getKey());
+                writeJson(data, entry.getValue());
+            }
+        }
+        data.writeInt(programs.size());
+        for (Map.Entry<String, Program> entry : programs.entrySet()) {
+            writeString(data, entry.getKey());
+            writer.writeInstructions(data, entry.getValue().getInstructions());
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads the programs of a bundle, in the order they were written.
+     *
+     * @throws InvalidBundleException if the data is not a bundle of this format version
+     */
+    public static Map<String, Program> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new InvalidBundleException("Not a program bundle");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new InvalidBundleException("Unsupported bundle version " + version + ", expected " + FORMAT_VERSION);
+        }
+        List<Map<String, JsonNode>> mappings = new ArrayList<>();
+        int mappingCount = data.readInt();
+        for (int i = 0; i < mappingCount; i++) {
+            Map<String, JsonNode> mapping = new LinkedHashMap<>();
+            int entries = data.readInt();
+            for (int j = 0; j < entries; j++) {
+                mapping.put(readString(data), readJson(data));
+            }
+            mappings.add(Collections.unmodifiableMap(mapping));
+        }
+
+        Map<String, Program> programs = new LinkedHashMap<>();
+        int programCount = data.readInt();
+        for (int i = 0; i < programCount; i++) {
+            String name = readString(data);
+            try {
+                programs.put(name, Program.of(readInstructions(data, mappings)));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidBundleException("Invalid program '" + name + "': " + e.getMessage());
+            }
+        }
+        return programs;
+    }
+
+    /**
+     * Assigns each distinct mapping an index and writes instructions that refer to it.
+     */
+    private static final class Writer {
+        private final List<Map<String, JsonNode>> mappings = new ArrayList<>();
+        private final Map<Map<String, JsonNode>, Integer> mappingIds = new HashMap<>();
+
+        void collectMappings(List<Instruction> instructions) {
+            for (Instruction instruction : instructions) {
+                for (Object param : instruction.getParams()) {
+                    collectMapping(param);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void collectMapping(Object param) {
+            if (param instanceof Map) {
+                Map<String, JsonNode> mapping = (Map<String, JsonNode>) param;
+                if (!mappingIds.containsKey(mapping)) {
+                    mappingIds.put(mapping, mappings.size());
+                    mappings.add(mapping);
+                }
+            } else if (param instanceof Instruction) {
+                collectMappings(List.of((Instruction) param));
+            } else if (param instanceof List && !((List<?>) param).isEmpty()
+                    && ((List<?>) param).get(0) instanceof Instruction) {
+                collectMappings((List<Instruction>) param);
+            }
+        }
+
+        void writeInstructions(DataOutputStream data, List<Instruction> instructions) throws IOException {
+            data.writeInt(instructions.size());
+            for (Instruction instruction : instructions) {
+                writeInstruction(data, instruction);
+            }
+        }
+
+        private void writeInstruction(DataOutputStream data, Instruction instruction) throws IOException {
+            writeString(data, instruction.getCommand().name());
+            data.writeBoolean(instruction.shouldStoreLocation());
+            data.writeInt(instruction.getParamCount());
+            for (Object param : instruction.getParams()) {
+                writeParam(data, param, instruction);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void writeParam(DataOutputStream data, Object param, Instruction instruction) throws IOException {
+            if (param == null) {
+                data.writeByte(NULL);
+            } else if (param instanceof String) {
+                data.writeByte(STRING);
+                writeString(data, (String) param);
+            } else if (param instanceof Integer) {
+                data.writeByte(INT);
+                data.writeInt((Integer) param);
+            } else if (param instanceof Long) {
+                data.writeByte(LONG);
+                data.writeLong((Long) param);
+            } else if (param instanceof Double) {
+                data.writeByte(DOUBLE);
+                data.writeDouble((Double) param);
+            } else if (param instanceof Boolean) {
+                data.writeByte(BOOLEAN);
+                data.writeBoolean((Boolean) param);
+            } else if (param instanceof JsonNode) {
+                data.writeByte(JSON);
+                writeJson(data, (JsonNode) param);
+            } else if (param instanceof Map) {
+                data.writeByte(MAPPING);
+                data.writeInt(mappingIds.get(param));
+            } else if (param instanceof Instruction) {
+                data.writeByte(INSTRUCTION);
+                writeInstruction(data, (Instruction) param);
+            } else if (param instanceof List && (((List<?>) param).isEmpty()
+                    || ((List<?>) param).get(0) instanceof Instruction)) {
+                data.writeByte(INSTRUCTIONS);
+                writeInstructions(data, (List<Instruction>) param);
+            } else if (param instanceof List) {
+                data.writeByte(STRINGS);
+                List<String> fields = (List<String>) param;
+                data.writeInt(fields.size());
+                for (String field : fields) {
+                    writeString(data, field);
+                }
+            } else if (param instanceof ValueStackReference) {
+                ValueStackReference reference = (ValueStackReference) param;
+                data.writeByte(REFERENCE);
+                if (reference.getField() != null) {
+                    data.writeByte('F');
+                    writeString(data, reference.getField());
+                } else if (reference.getStackOffset() != null) {
+                    data.writeByte('S');
+                    data.writeInt(reference.getStackOffset());
+                } else {
+                    data.writeByte('C');
+                }
+            } else if (param instanceof LoopCondition) {
+                data.writeByte(LOOP_CONDITION);
+                writeString(data, ((LoopCondition) param).name());
+            } else if (param instanceof IndexSelection) {
+                IndexSelection selection = (IndexSelection) param;
+                data.writeByte(SELECTION);
+                int[] indices = selection.getIndices();
+                data.writeBoolean(indices != null);
+                if (indices != null) {
+                    data.writeInt(indices.length);
+                    for (int index : indices) {
+                        data.writeInt(index);
+                    }
+                } else {
+                    writeOptionalInt(data, selection.getStart());
+                    writeOptionalInt(data, selection.getEnd());
+                    data.writeInt(selection.getStep());
+                }
+            } else if (param instanceof JsonTransformationMachine.GapFill) {
+                data.writeByte(GAP_FILL);
+                writeString(data, ((JsonTransformationMachine.GapFill) param).name());
+            } else if (param instanceof JsonTransformationMachine.JoinType) {
+                data.writeByte(JOIN_TYPE);
+                writeString(data, ((JsonTransformationMachine.JoinType) param).name());
+            } else if (param instanceof FilterExpression) {
+                data.writeByte(FILTER);
+                writeString(data, param.toString());
+            } else if (param instanceof JsonTransformationMachine.GroupShape) {
+                data.writeByte(GROUP_SHAPE);
+                writeString(data, ((JsonTransformationMachine.GroupShape) param).name());
+            } else if (param instanceof GroupAggregate) {
+                GroupAggregate aggregate = (GroupAggregate) param;
+                data.writeByte(GROUP_AGGREGATE);
+                writeString(data, aggregate.getFunction().name());
+                writeString(data, aggregate.getField());
+                data.writeInt(aggregate.getPath().size());
+                for (String field : aggregate.getPath()) {
+                    writeString(data, field);
+                }
+            } else {
+                throw new IllegalArgumentException("Cannot store parameter of type " + param.getClass().getName()
+                        + " in " + instruction.getCommand());
+            }
+        }
+    }
+
+    private static List<Instruction> readInstructions(DataInputStream data, List<Map<String, JsonNode>> mappings)
+            throws IOException {
+        int count = data.readInt();
+        List<Instruction> instructions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            instructions.add(readInstruction(data, mappings));
+        }
+        return instructions;
+    }
+
+    private static Instruction readInstruction(DataInputStream data, List<Map<String, JsonNode>> mappings)
+            throws IOException {
+        String name = readString(data);
+        Command command;
+        try {
+            command = Command.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidBundleException("Unknown command " + name);
+        }
+        boolean storeLocation = data.readBoolean();
+        Object[] params = new Object[data.readInt()];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = readParam(data, mappings);
+        }
+        return storeLocation ? Instruction.withStore(command, params) : Instruction.of(command, params);
+    }
+
+    private static Object readParam(DataInputStream data, List<Map<String, JsonNode>> mappings) throws IOException {
+        byte tag = data.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(data);
+            case INT:
+                return data.readInt();
+            case LONG:
+                return data.readLong();
+            case DOUBLE:
+                return data.readDouble();
+            case BOOLEAN:
+                return data.readBoolean();
+            case JSON:
+                return readJson(data);
+            case MAPPING: {
+                int id = data.readInt();
+                if (id < 0 || id >= mappings.size()) {
+                    throw new InvalidBundleException("Unknown mapping " + id);
+                }
+                return mappings.get(id);
+            }
+            case INSTRUCTION:
+                return readInstruction(data, mappings);
+            case INSTRUCTIONS:
+                return readInstructions(data, mappings);
+            case STRINGS: {
+                int count = data.readInt();
+                List<String> fields = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    fields.add(readString(data));
+                }
+                return fields;
+            }
+            case REFERENCE: {
+                byte kind = data.readByte();
+                if (kind == 'F') {
+                    return ValueStackReference.field(readString(data));
+                }
+                return kind == 'S' ? ValueStackReference.stack(data.readInt()) : ValueStackReference.current();
+            }
+            case LOOP_CONDITION:
+                return enumConstant(LoopCondition.class, readString(data));
+            case SELECTION: {
+                if (data.readBoolean()) {
+                    List<Integer> indices = new ArrayList<>();
+                    int count = data.readInt();
+                    for (int i = 0; i < count; i++) {
+                        indices.add(data.readInt());
+                    }
+                    return IndexSelection.values(indices);
+                }
+                Integer start = readOptionalInt(data);
+                Integer end = readOptionalInt(data);
+                return IndexSelection.range(start, end, data.readInt());
+            }
+            case GAP_FILL:
+                return enumConstant(JsonTransformationMachine.GapFill.class, readString(data));
+            case JOIN_TYPE:
+                return enumConstant(JsonTransformationMachine.JoinType.class, readString(data));
+            case FILTER:
+                try {
+                    return FilterExpression.compile(readString(data));
+                } catch (JsonPathParser.JsonPathParseException e) {
+                    throw new InvalidBundleException(e.getMessage());
+                }
+            case GROUP_SHAPE:
+                return enumConstant(JsonTransformationMachine.GroupShape.class, readString(data));
+            case GROUP_AGGREGATE: {
+                Command function = enumConstant(Command.class, readString(data));
+                String field = readString(data);
+                int count = data.readInt();
+                List<String> path = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    path.add(readString(data));
+                }
+                try {
+                    return GroupAggregate.of(function, field, path);
+                } catch (IllegalArgumentException e) {
+                    throw new InvalidBundleException(e.getMessage());
+                }
+            }
+            default:
+                throw new InvalidBundleException("Unknown parameter tag " + tag);
+        }
+    }
+
+    private static <E extends Enum<E>> E enumConstant(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidBundleException("Unknown " + type.getSimpleName() + " " + name);
+        }
+    }
+
+    private static void writeString(DataOutputStream data, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            throw new InvalidBundleException("Negative string length");
+        }
+        return new String(data.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeJson(DataOutputStream data, JsonNode node) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(node);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static JsonNode readJson(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            throw new InvalidBundleException("Negative JSON length");
+        }
+        return MAPPER.readTree(data.readNBytes(length));
+    }
+
+    private static void writeOptionalInt(DataOutputStream data, Integer value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeInt(value);
+        }
+    }
+
+    private static Integer readOptionalInt(DataInputStream data) throws IOException {
+        return data.readBoolean() ? data.readInt() : null;
+    }
+
+    public static class InvalidBundleException extends RuntimeException {
+        public InvalidBundleException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.util.*;
+
+/**
+ * Runs loaded programs against synthetic documents so the JIT compiles the machine's hot paths
+ * before real traffic arrives.
+ * <p>
+ * A program's sample document is derived from its navigation instructions, which the path
+ * transformer emits one per path component: fields become objects, arrays get
+ * {@link #ARRAY_SIZE} elements so loops iterate, and values the program reads become short
+ * strings (or valid timestamps for time conversions, or mapping keys for mapped columns). Every run
+ * transforms a fresh copy of that document, so no caller data is ever read or modified. Programs
+ * that fail on their sample are still counted; their failure is recorded, not thrown.
+ */
+public final class ProgramWarmup {
+    public static final int DEFAULT_ITERATIONS = 2_000;
+    static final int ARRAY_SIZE = 4;
+    private static final int MAX_NESTED_ARRAYS = 3;
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private ProgramWarmup() {
+    }
+
+    /**
+     * Transforms {@code iterations} sample documents per program through {@code executor}.
+     */
+    public static Report run(Map<String, Program> programs, TransformationExecutor executor, int iterations)
+            throws InterruptedException {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("iterations must be positive: " + iterations);
+        }
+        long start = System.nanoTime();
+        long runs = 0;
+        Map<String, String> failures = new TreeMap<>();
+        for (Map.Entry<String, Program> entry : programs.entrySet()) {
+            JsonNode sample = sampleDocument(entry.getValue());
+            for (int i = 0; i < iterations; i++) {
+                runs++;
+                try {
+                    executor.transform(entry.getValue(), sample.deepCopy());
+                } catch (RuntimeException e) {
+                    failures.put(entry.getKey(), String.valueOf(e.getMessage()));
+                    break;
+                }
+            }
+        }
+        return new Report(programs.size(), runs, failures, System.nanoTime() - start);
+    }
+
+    /**
+     * Builds a document shaped like the input {@code program} navigates.
+     */
+    public static JsonNode sampleDocument(Program program) {
+        ObjectNode root = NODES.objectNode();
+        Deque<JsonNode> path = new ArrayDeque<>();
+        path.push(root);
+        Set<JsonNode> values = Collections.newSetFromMap(new IdentityHashMap<>());
+        walk(program.getInstructions(), root, path, values);
+        return expand(root, 0, values);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void walk(List<Instruction> instructions, ObjectNode root, Deque<JsonNode> path,
+                             Set<JsonNode> values) {
+        for (Instruction instruction : instructions) {
+            JsonNode current = path.peek();
+            switch (instruction.getCommand()) {
+                case MOVE_TO_ROOT:
+                    path.clear();
+                    path.push(root);
+                    break;
+                case MOVE_OUT:
+                    if (path.size() > 1) {
+                        path.pop();
+                    }
+                    break;
+                case MOVE_INTO_OBJECT:
+                case MOVE_INTO_FIELD:
+                    path.push(child(current, instruction.getParam(0), false));
+                    break;
+                case MOVE_INTO_ARRAY:
+                    path.push(child(current, instruction.getParam(0), true));
+                    break;
+                case MOVE_INTO_INDEX:
+                    path.push(current instanceof ArrayNode ? element((ArrayNode) current) : current);
+                    break;
+                case COLLECT_DESCENDANTS:
+                    if (current instanceof ObjectNode && instruction.getParam(0) instanceof String) {
+                        ((ObjectNode) current).putObject("nested").putObject((String) instruction.getParam(0));
+                    }
+                    break;
+                case PUSH_ELEMENT:
+                    if (current instanceof ObjectNode && current.isEmpty()) {
+                        values.add(current);
+                    }
+                    break;
+                case PUSH_COLUMN:
+                    Map<String, JsonNode> mapping = instruction.getParamCount() > 1
+                            ? (Map<String, JsonNode>) instruction.getParam(1) : null;
+                    column(current, instruction, TextNode.valueOf(mapping != null && !mapping.isEmpty()
+                            ? mapping.keySet().iterator().next() : "sample"));
+                    break;
+                case FORMAT_TIME_ARRAY:
+                    column(current, instruction, LongNode.valueOf(0));
+                    break;
+                case TO_TIMESTAMP_ARRAY:
+                    column(current, instruction, TextNode.valueOf(TimeCodec.format(0,
+                            JsonTransformationMachine.timeUnit(instruction, 2), (String) instruction.getParam(1),
+                            JsonTransformationMachine.timeZone(instruction, 3))));
+                    break;
+                case PUSH_COMMAND:
+                case MAP_ARRAY:
+                    walk((List<Instruction>) instruction.getParam(0), root, new ArrayDeque<>(path), values);
+                    break;
+                case JUMP_IF_TRUE:
+                case JUMP_IF_FALSE:
+                    walk(List.of((Instruction) instruction.getParam(0)), root, new ArrayDeque<>(path), values);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Returns the named child of {@code parent}, creating it; fields named by a stack reference
+     * are not known until run time, so navigation stays where it is.
+     */
+    private static JsonNode child(JsonNode parent, Object field, boolean array) {
+        if (!(parent instanceof ObjectNode) || !(field instanceof String)) {
+            return parent;
+        }
+        ObjectNode object = (ObjectNode) parent;
+        JsonNode existing = object.get((String) field);
+        if (array && !(existing instanceof ArrayNode)) {
+            return object.putArray((String) field);
+        }
+        if (existing == null) {
+            return object.putObject((String) field);
+        }
+        return existing;
+    }
+
+    /**
+     * The template element of a sample array; it is copied when the document is expanded.
+     */
+    private static JsonNode element(ArrayNode array) {
+        if (array.isEmpty()) {
+            array.addObject();
+        }
+        return array.get(0);
+    }
+
+    private static void column(JsonNode current, Instruction instruction, JsonNode leaf) {
+        if (!(current instanceof ArrayNode)) {
+            return;
+        }
+        List<?> fields = (List<?>) instruction.getParam(0);
+        if (fields.isEmpty()) {
+            ((ArrayNode) current).removeAll().add(leaf);
+            return;
+        }
+        JsonNode node = element((ArrayNode) current);
+        for (int i = 0; i < fields.size() && node instanceof ObjectNode; i++) {
+            String field = (String) fields.get(i);
+            if (i == fields.size() - 1) {
+                ((ObjectNode) node).set(field, leaf);
+            } else {
+                node = child(node, field, false);
+            }
+        }
+    }
+
+    private static JsonNode expand(JsonNode shape, int arrayDepth, Set<JsonNode> values) {
+        if (values.contains(shape)) {
+            return TextNode.valueOf("sample");
+        }
+        if (shape instanceof ObjectNode) {
+            ObjectNode object = NODES.objectNode();
+            shape.fields().forEachRemaining(entry ->
+                    object.set(entry.getKey(), expand(entry.getValue(), arrayDepth, values)));
+            return object;
+        }
+        if (shape instanceof ArrayNode) {
+            JsonNode template = shape.isEmpty() ? NODES.objectNode() : shape.get(0);
+            int size = arrayDepth < MAX_NESTED_ARRAYS ? ARRAY_SIZE : 1;
+            ArrayNode array = NODES.arrayNode(size);
+            for (int i = 0; i < size; i++) {
+                array.add(expand(template, arrayDepth + 1, values));
+            }
+            return array;
+        }
+        return shape.deepCopy();
+    }
+
+    /**
+     * Outcome of a warm-up: how many runs were made and which programs failed on their sample.
+     */
+    public static final class Report {
+        private final int programs;
+        private final long runs;
+        private final Map<String, String> failures;
+        private final long elapsedNanos;
+
+        Report(int programs, long runs, Map<String, String> failures, long elapsedNanos) {
+            this.programs = programs;
+            this.runs = runs;
+            this.failures = Collections.unmodifiableMap(failures);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getPrograms() {
+            return programs;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        /**
+         * Error message of the first failed run, keyed by program name.
+         */
+        public Map<String, String> getFailures() {
+            return failures;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Warmed %d program(s) in %d runs, %.1f ms, %d failed",
+                    programs, runs, elapsedNanos / 1e6, failures.size());
+        }
+    }
+}
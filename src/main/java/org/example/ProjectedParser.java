@@ -0,0 +1,194 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Parses documents for a fixed list of moves, decoding only the parts the moves can reach.
+ * <p>
+ * The projection is the union of the moves' {@linkplain Move#getReadPaths() read} and
+ * {@linkplain Move#getWritePaths() write} paths; read paths include size reads, so offset arrays of
+ * {@code [*+$.array]} targets and the fields a {@code [?(...)]} filter reads are parsed eagerly too.
+ * Parsing streams through the input: containers on
+ * the way to a projected path are built member by member, containers at or below one are parsed in
+ * full, and every other container is skipped with {@link JsonParser#skipChildren()} and kept as an
+ * undecoded node over its byte range (see {@link LazyObjectNode}). Serializing the result writes
+ * those ranges verbatim, and should a program touch one anyway it is decoded a level at a time
+ * then, so the projection affects only cost, never results. Scalars outside the projection are
+ * decoded as usual.
+ */
+public final class ProjectedParser {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Program program;
+    private final List<List<String>> projection;
+
+    public ProjectedParser(List<Move> moves) {
+        this.program = Move.compile(moves);
+        List<List<String>> paths = new ArrayList<>();
+        for (Move move : moves) {
+            paths.addAll(move.getReadPaths());
+            paths.addAll(move.getWritePaths());
+        }
+        this.projection = List.copyOf(paths);
+    }
+
+    /**
+     * The paths parsed eagerly, as {@link AccessPaths} segments.
+     */
+    public List<List<String>> getProjection() {
+        return projection;
+    }
+
+    public Program getProgram() {
+        return program;
+    }
+
+    /**
+     * Parses {@code json}, which must stay unmodified while the result is in use.
+     */
+    public JsonNode parse(byte[] json) throws IOException {
+        RawRegions regions = new RawRegions(json);
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            if (parser.nextToken() == null) {
+                throw new IOException("No content to parse");
+            }
+            JsonNode root = read(parser, projection, regions, 0);
+            if (parser.nextToken() != null) {
+                throw new IOException("Unexpected content after the root value: " + parser.currentToken());
+            }
+            return root;
+        }
+    }
+
+    /**
+     * Parses {@code json} and runs the moves on it.
+     */
+    public JsonNode transform(byte[] json) throws IOException {
+        return new JsonTransformationMachine(parse(json)).execute(program);
+    }
+
+    /**
+     * Reads the value at the parser's current token; {@code paths} are the remaining segments of
+     * the projected paths that reach it, and {@code base} is the input offset the parser started at.
+     */
+    private static JsonNode read(JsonParser parser, List<List<String>> paths, RawRegions regions, int base)
+            throws IOException {
+        JsonToken token = parser.currentToken();
+        if (!token.isStructStart() || reachesWhole(paths)) {
+            return MAPPER.readTree(parser);
+        }
+        if (paths.isEmpty()) {
+            int open = base + (int) parser.currentTokenLocation().getByteOffset();
+            parser.skipChildren();
+            regions.add(open, base + (int) parser.currentLocation().getByteOffset());
+            return token == JsonToken.START_OBJECT
+                    ? new LazyObjectNode(regions, open) : new LazyArrayNode(regions, open);
+        }
+        if (token == JsonToken.START_OBJECT) {
+            ObjectNode object = JsonNodeFactory.instance.objectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                object.set(field, read(parser, descend(paths, field), regions, base));
+            }
+            return object;
+        }
+        ArrayNode array = JsonNodeFactory.instance.arrayNode();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            array.add(read(parser, descend(paths, String.valueOf(array.size())), regions, base));
+        }
+        return array;
+    }
+
+    private static boolean reachesWhole(List<List<String>> paths) {
+        for (List<String> path : paths) {
+            if (path.isEmpty() || AccessPaths.DEEP.equals(path.get(0))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<List<String>> descend(List<List<String>> paths, String segment) {
+        List<List<String>> remaining = new ArrayList<>(paths.size());
+        for (List<String> path : paths) {
+            String head = path.get(0);
+            if (head.equals(segment) || AccessPaths.ANY.equals(head)) {
+                remaining.add(path.subList(1, path.size()));
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Skipped containers of one input, by start offset. Decoding a region decodes one level:
+     * nested containers are skipped and registered in turn.
+     */
+    private static final class RawRegions implements LazySource {
+        private final byte[] json;
+        private final ByteBuffer buffer;
+        private final Map<Integer, Integer> ends = new HashMap<>();
+
+        RawRegions(byte[] json) {
+            this.json = json;
+            this.buffer = ByteBuffer.wrap(json);
+        }
+
+        void add(int open, int end) {
+            ends.put(open, end);
+        }
+
+        @Override
+        public Map<String, JsonNode> decodeMembers(int open) {
+            Map<String, JsonNode> members = new LinkedHashMap<>();
+            try (JsonParser parser = open(open)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    members.put(field, read(parser, List.of(), this, open));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return members;
+        }
+
+        @Override
+        public List<JsonNode> decodeElements(int open) {
+            List<JsonNode> elements = new ArrayList<>();
+            try (JsonParser parser = open(open)) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    elements.add(read(parser, List.of(), this, open));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return elements;
+        }
+
+        @Override
+        public RawBytes raw(int open) {
+            return new RawBytes(buffer, open, ends.get(open));
+        }
+
+        /**
+         * A parser over the region starting at {@code open}, positioned on its start token.
+         */
+        private JsonParser open(int open) throws IOException {
+            JsonParser parser = MAPPER.getFactory().createParser(json, open, ends.get(open) - open);
+            parser.nextToken();
+            return parser;
+        }
+    }
+}
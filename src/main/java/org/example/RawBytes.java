@@ -0,0 +1,116 @@
+package org.example;
+
+import com.fasterxml.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A slice of UTF-8 encoded JSON written verbatim by {@code JsonGenerator.writeRawValue}.
+ * Byte-based generators copy the slice without decoding it; character-based ones decode it once.
+ * The quoted variants are never used for raw values and escape nothing.
+ */
+final class RawBytes implements SerializableString {
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int end;
+
+    RawBytes(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+    }
+
+    int length() {
+        return end - start;
+    }
+
+    @Override
+    public String getValue() {
+        return new String(asUnquotedUTF8(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int charLength() {
+        return getValue().length();
+    }
+
+    @Override
+    public char[] asQuotedChars() {
+        return getValue().toCharArray();
+    }
+
+    @Override
+    public byte[] asUnquotedUTF8() {
+        byte[] bytes = new byte[length()];
+        buffer.get(start, bytes);
+        return bytes;
+    }
+
+    @Override
+    public byte[] asQuotedUTF8() {
+        return asUnquotedUTF8();
+    }
+
+    @Override
+    public int appendQuotedUTF8(byte[] target, int offset) {
+        return appendUnquotedUTF8(target, offset);
+    }
+
+    @Override
+    public int appendQuoted(char[] target, int offset) {
+        return appendUnquoted(target, offset);
+    }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] target, int offset) {
+        if (offset + length() > target.length) {
+            return -1;
+        }
+        buffer.get(start, target, offset, length());
+        return length();
+    }
+
+    @Override
+    public int appendUnquoted(char[] target, int offset) {
+        String value = getValue();
+        if (offset + value.length() > target.length) {
+            return -1;
+        }
+        value.getChars(0, value.length(), target, offset);
+        return value.length();
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out) throws IOException {
+        return writeUnquotedUTF8(out);
+    }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+        out.write(asUnquotedUTF8());
+        return length();
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer target) {
+        return putUnquotedUTF8(target);
+    }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer target) {
+        if (target.remaining() < length()) {
+            return -1;
+        }
+        target.put(target.position(), buffer, start, length());
+        target.position(target.position() + length());
+        return length();
+    }
+
+    @Override
+    public String toString() {
+        return getValue();
+    }
+}
@@ -0,0 +1,317 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.util.*;
+
+/**
+ * An array whose elements are kept in a persistent, height-balanced tree of small chunks, so two
+ * arrays are concatenated in logarithmic time and share their chunks instead of copying them.
+ * <p>
+ * Tree nodes are never modified once built: {@code set} copies the path to the changed chunk and
+ * appends go to a private tail that is sealed into the tree before it is shared. Inserting or
+ * removing anywhere but the tail rebuilds the tree. Elements themselves are shared, not copied,
+ * as {@link ArrayNode#addAll(ArrayNode)} would.
+ */
+// ArrayNode narrows JsonNode's generic deepCopy(), which javac reports on every subclass
+@SuppressWarnings("unchecked")
+final class RopeArrayNode extends ArrayNode {
+    private final Rope rope;
+
+    RopeArrayNode(JsonNodeFactory factory) {
+        this(factory, new Rope(Rope.EMPTY));
+    }
+
+    private RopeArrayNode(JsonNodeFactory factory, Rope rope) {
+        super(factory, rope);
+        this.rope = rope;
+    }
+
+    /**
+     * Returns a new array holding the elements of {@code first} followed by those of {@code second}.
+     * Neither input is modified; rope inputs are shared, other arrays are chunked once.
+     */
+    static RopeArrayNode concat(JsonNodeFactory factory, JsonNode first, JsonNode second) {
+        return new RopeArrayNode(factory, new Rope(Rope.join(chunks(first), chunks(second))));
+    }
+
+    /**
+     * Height of the chunk tree, for tests.
+     */
+    int depth() {
+        return rope.sealed().depth;
+    }
+
+    private static Chunk chunks(JsonNode array) {
+        if (array instanceof RopeArrayNode) {
+            return ((RopeArrayNode) array).rope.sealed();
+        }
+        List<JsonNode> elements = new ArrayList<>(array.size());
+        array.forEach(elements::add);
+        return Rope.build(elements);
+    }
+
+    /**
+     * A node of the chunk tree: a leaf holding at most {@link Rope#LEAF_SIZE} elements, or a
+     * concatenation of two nodes whose depths differ by at most one.
+     */
+    private static final class Chunk {
+        final JsonNode[] items;
+        final Chunk left;
+        final Chunk right;
+        final int size;
+        final int depth;
+
+        Chunk(JsonNode[] items) {
+            this.items = items;
+            this.left = null;
+            this.right = null;
+            this.size = items.length;
+            this.depth = 0;
+        }
+
+        Chunk(Chunk left, Chunk right) {
+            this.items = null;
+            this.left = left;
+            this.right = right;
+            this.size = left.size + right.size;
+            this.depth = Math.max(left.depth, right.depth) + 1;
+        }
+
+        boolean isLeaf() {
+            return items != null;
+        }
+    }
+
+    private static final class Rope extends AbstractList<JsonNode> implements RandomAccess {
+        static final int LEAF_SIZE = 32;
+        static final Chunk EMPTY = new Chunk(new JsonNode[0]);
+
+        private Chunk root;
+        private JsonNode[] tail = new JsonNode[LEAF_SIZE];
+        private int tailSize;
+
+        Rope(Chunk root) {
+            this.root = root;
+        }
+
+        /**
+         * Moves pending appends into the tree and returns it; the result is safe to share.
+         */
+        Chunk sealed() {
+            if (tailSize > 0) {
+                root = join(root, new Chunk(Arrays.copyOf(tail, tailSize)));
+                tailSize = 0;
+            }
+            return root;
+        }
+
+        @Override
+        public int size() {
+            return root.size + tailSize;
+        }
+
+        @Override
+        public JsonNode get(int index) {
+            Objects.checkIndex(index, size());
+            if (index >= root.size) {
+                return tail[index - root.size];
+            }
+            Chunk chunk = root;
+            while (!chunk.isLeaf()) {
+                if (index < chunk.left.size) {
+                    chunk = chunk.left;
+                } else {
+                    index -= chunk.left.size;
+                    chunk = chunk.right;
+                }
+            }
+            return chunk.items[index];
+        }
+
+        @Override
+        public JsonNode set(int index, JsonNode element) {
+            Objects.checkIndex(index, size());
+            if (index >= root.size) {
+                JsonNode previous = tail[index - root.size];
+                tail[index - root.size] = element;
+                return previous;
+            }
+            JsonNode previous = get(index);
+            root = replace(root, index, element);
+            return previous;
+        }
+
+        @Override
+        public boolean add(JsonNode element) {
+            if (tailSize == LEAF_SIZE) {
+                sealed();
+            }
+            tail[tailSize++] = element;
+            modCount++;
+            return true;
+        }
+
+        @Override
+        public void add(int index, JsonNode element) {
+            if (index == size()) {
+                add(element);
+                return;
+            }
+            Objects.checkIndex(index, size());
+            List<JsonNode> elements = new ArrayList<>(this);
+            elements.add(index, element);
+            rebuild(elements);
+        }
+
+        @Override
+        public JsonNode remove(int index) {
+            Objects.checkIndex(index, size());
+            if (index >= root.size && index == size() - 1) {
+                JsonNode previous = tail[--tailSize];
+                tail[tailSize] = null;
+                modCount++;
+                return previous;
+            }
+            List<JsonNode> elements = new ArrayList<>(this);
+            JsonNode previous = elements.remove(index);
+            rebuild(elements);
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            root = EMPTY;
+            tail = new JsonNode[LEAF_SIZE];
+            tailSize = 0;
+            modCount++;
+        }
+
+        @Override
+        public Iterator<JsonNode> iterator() {
+            return new Iterator<>() {
+                private final Deque<Chunk> pending = new ArrayDeque<>();
+                private final int expectedModCount = modCount;
+                private JsonNode[] leaf;
+                private int leafIndex;
+                private int tailIndex;
+
+                {
+                    pending.push(root);
+                }
+
+                @Override
+                public boolean hasNext() {
+                    if (expectedModCount != modCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    while (leaf == null || leafIndex == leaf.length) {
+                        if (pending.isEmpty()) {
+                            return tailIndex < tailSize;
+                        }
+                        Chunk chunk = pending.pop();
+                        if (chunk.isLeaf()) {
+                            leaf = chunk.items;
+                            leafIndex = 0;
+                        } else {
+                            pending.push(chunk.right);
+                            pending.push(chunk.left);
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                public JsonNode next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return leaf != null && leafIndex < leaf.length ? leaf[leafIndex++] : tail[tailIndex++];
+                }
+            };
+        }
+
+        private void rebuild(List<JsonNode> elements) {
+            root = build(elements);
+            tailSize = 0;
+            Arrays.fill(tail, null);
+            modCount++;
+        }
+
+        /**
+         * Builds a balanced tree of full leaves over {@code elements}.
+         */
+        static Chunk build(List<JsonNode> elements) {
+            if (elements.isEmpty()) {
+                return EMPTY;
+            }
+            List<Chunk> level = new ArrayList<>();
+            for (int start = 0; start < elements.size(); start += LEAF_SIZE) {
+                int end = Math.min(start + LEAF_SIZE, elements.size());
+                level.add(new Chunk(elements.subList(start, end).toArray(new JsonNode[0])));
+            }
+            while (level.size() > 1) {
+                List<Chunk> next = new ArrayList<>((level.size() + 1) / 2);
+                for (int i = 0; i < level.size(); i += 2) {
+                    next.add(i + 1 < level.size() ? new Chunk(level.get(i), level.get(i + 1)) : level.get(i));
+                }
+                level = next;
+            }
+            return level.get(0);
+        }
+
+        /**
+         * Concatenates two balanced trees into a balanced tree, descending the spine of the deeper
+         * one and rotating on the way back up as an AVL join does. Small leaves are merged.
+         */
+        static Chunk join(Chunk left, Chunk right) {
+            if (left.size == 0) {
+                return right;
+            }
+            if (right.size == 0) {
+                return left;
+            }
+            if (left.isLeaf() && right.isLeaf() && left.size + right.size <= LEAF_SIZE) {
+                JsonNode[] items = Arrays.copyOf(left.items, left.size + right.size);
+                System.arraycopy(right.items, 0, items, left.size, right.size);
+                return new Chunk(items);
+            }
+            if (left.depth > right.depth + 1) {
+                Chunk joined = join(left.right, right);
+                if (joined.depth <= left.left.depth + 1) {
+                    return new Chunk(left.left, joined);
+                }
+                if (joined.right.depth >= joined.left.depth) {
+                    return new Chunk(new Chunk(left.left, joined.left), joined.right);
+                }
+                Chunk inner = joined.left;
+                return new Chunk(new Chunk(left.left, inner.left), new Chunk(inner.right, joined.right));
+            }
+            if (right.depth > left.depth + 1) {
+                Chunk joined = join(left, right.left);
+                if (joined.depth <= right.right.depth + 1) {
+                    return new Chunk(joined, right.right);
+                }
+                if (joined.left.depth >= joined.right.depth) {
+                    return new Chunk(joined.left, new Chunk(joined.right, right.right));
+                }
+                Chunk inner = joined.right;
+                return new Chunk(new Chunk(joined.left, inner.left), new Chunk(inner.right, right.right));
+            }
+            return new Chunk(left, right);
+        }
+
+        private static Chunk replace(Chunk chunk, int index, JsonNode element) {
+            if (chunk.isLeaf()) {
+                JsonNode[] items = chunk.items.clone();
+                items[index] = element;
+                return new Chunk(items);
+            }
+            return index < chunk.left.size
+                    ? new Chunk(replace(chunk.left, index, element), chunk.right)
+                    : new Chunk(chunk.left, replace(chunk.right, index - chunk.left.size, element));
+        }
+    }
+}
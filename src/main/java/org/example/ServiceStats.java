@@ -0,0 +1,83 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free request counters and latency totals for {@link TransformationServer}.
+ */
+public class ServiceStats {
+    private final long startedAt;
+    private final LongAdder completed;
+    private final LongAdder failed;
+    private final LongAdder rejected;
+    private final LongAdder totalLatencyNanos;
+    private final AtomicLong maxLatencyNanos;
+    private final AtomicLong inFlight;
+
+    public ServiceStats() {
+        this.startedAt = System.nanoTime();
+        this.completed = new LongAdder();
+        this.failed = new LongAdder();
+        this.rejected = new LongAdder();
+        this.totalLatencyNanos = new LongAdder();
+        this.maxLatencyNanos = new AtomicLong();
+        this.inFlight = new AtomicLong();
+    }
+
+    public void started() {
+        inFlight.incrementAndGet();
+    }
+
+    public void finished(long latencyNanos, boolean success) {
+        inFlight.decrementAndGet();
+        if (success) {
+            completed.increment();
+        } else {
+            failed.increment();
+        }
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    public void rejected() {
+        rejected.increment();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getInFlight() {
+        return inFlight.get();
+    }
+
+    public ObjectNode toJson(ObjectMapper mapper) {
+        long done = completed.sum();
+        long errors = failed.sum();
+        long handled = done + errors;
+        double uptimeSeconds = (System.nanoTime() - startedAt) / 1e9;
+
+        ObjectNode json = mapper.createObjectNode();
+        json.put("completed", done);
+        json.put("failed", errors);
+        json.put("rejected", rejected.sum());
+        json.put("inFlight", inFlight.get());
+        json.put("uptimeSeconds", uptimeSeconds);
+        json.put("throughputPerSecond", uptimeSeconds > 0 ? done / uptimeSeconds : 0);
+        json.put("averageLatencyMicros", handled > 0 ? totalLatencyNanos.sum() / handled / 1000.0 : 0);
+        json.put("maxLatencyMicros", maxLatencyNanos.get() / 1000.0);
+        return json;
+    }
+}
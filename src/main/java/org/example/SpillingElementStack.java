@@ -0,0 +1,452 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An element stack that keeps roughly at most {@code threshold} bytes of entries on the heap.
+ * <p>
+ * Every pushed entry is weighed once by walking it. When the entries held in memory exceed the
+ * threshold, the oldest ones (never the top entry) are encoded to a temporary file and dropped;
+ * popping or peeking a spilled entry decodes it back. The encoding tags every value with its node
+ * type, so an entry comes back equal to what was spilled: ints stay ints, doubles stay doubles and
+ * decimals keep their scale. Because the stack unwinds in
+ * order, the file is mostly appended to and truncated from its end. It is created on the first
+ * spill and deleted once no entry is spilled any more. An entry that was faulted back in may
+ * have been modified by the caller, so it is written again if it has to be spilled again.
+ */
+public final class SpillingElementStack extends TransformationStack<JsonNode> {
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte BIG_INTEGER = 5;
+    private static final byte SHORT = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte DECIMAL = 9;
+    private static final byte TEXT = 10;
+    private static final byte BINARY = 11;
+    private static final byte ARRAY = 12;
+    private static final byte OBJECT = 13;
+    private static final byte MISSING = 14;
+
+    private final List<Entry> entries = new ArrayList<>();
+    private long threshold;
+    private long residentBytes;
+    private int spilled;
+    private FileChannel file;
+    private long fileEnd;
+
+    public SpillingElementStack(long threshold) {
+        super("Element");
+        setThreshold(threshold);
+    }
+
+    private static final class Entry {
+        JsonNode node;          // null while spilled, or for a pushed null
+        long bytes;             // estimated heap size while resident
+        long offset = -1;       // file region while spilled
+        int length;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(long threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Spill threshold must not be negative: " + threshold);
+        }
+        this.threshold = threshold;
+        enforce(-1);
+    }
+
+    /**
+     * Estimated heap bytes of the entries currently held in memory.
+     */
+    public long getResidentBytes() {
+        return residentBytes;
+    }
+
+    /**
+     * Number of entries currently stored in the spill file.
+     */
+    public int getSpilledCount() {
+        return spilled;
+    }
+
+    @Override
+    public void push(JsonNode value) {
+        Entry entry = new Entry();
+        entry.node = value;
+        entry.bytes = estimateBytes(value);
+        entries.add(entry);
+        residentBytes += entry.bytes;
+        enforce(-1);
+    }
+
+    @Override
+    public JsonNode pop() {
+        if (entries.isEmpty()) {
+            throw new IllegalStateException("Element stack is empty");
+        }
+        Entry entry = entries.remove(entries.size() - 1);
+        if (entry.offset >= 0) {
+            JsonNode node = read(entry);
+            release(entry);
+            return node;
+        }
+        residentBytes -= entry.bytes;
+        return entry.node;
+    }
+
+    @Override
+    public JsonNode peek() {
+        if (entries.isEmpty()) {
+            throw new IllegalStateException("Element stack is empty");
+        }
+        return peek(0);
+    }
+
+    @Override
+    public JsonNode peek(int offset) {
+        if (offset >= entries.size()) {
+            throw new IllegalStateException(
+                    String.format("Cannot peek at offset %d, stack size is %d", offset, entries.size()));
+        }
+        int index = entries.size() - 1 - offset;
+        Entry entry = entries.get(index);
+        if (entry.offset >= 0) {
+            entry.node = read(entry);
+            release(entry);
+            entry.bytes = estimateBytes(entry.node);
+            residentBytes += entry.bytes;
+            enforce(index);
+        }
+        return entry.node;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+        residentBytes = 0;
+        spilled = 0;
+        closeFile();
+    }
+
+    @Override
+    public List<JsonNode> getTopN(int n) {
+        List<JsonNode> top = new ArrayList<>();
+        for (int offset = Math.min(n, entries.size()) - 1; offset >= 0; offset--) {
+            top.add(peek(offset));
+        }
+        return top;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            text.append(i > 0 ? ", " : "")
+                    .append(entry.offset >= 0 ? "<spilled " + entry.length + " bytes>" : String.valueOf(entry.node));
+        }
+        return text.append("] ").toString();
+    }
+
+    /**
+     * Spills the oldest resident entries below the top one, except {@code keep}, until the
+     * resident entries fit the threshold.
+     */
+    private void enforce(int keep) {
+        for (int i = 0; residentBytes > threshold && i < entries.size() - 1; i++) {
+            Entry entry = entries.get(i);
+            if (i != keep && entry.offset < 0 && entry.node != null) {
+                write(entry);
+            }
+        }
+    }
+
+    private void write(Entry entry) {
+        try {
+            if (file == null) {
+                Path path = Files.createTempFile("jtm-stack-", ".spill");
+                file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+                fileEnd = 0;
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(buffer)) {
+                encode(entry.node, out);
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            entry.offset = fileEnd;
+            entry.length = bytes.remaining();
+            while (bytes.hasRemaining()) {
+                fileEnd += file.write(bytes, fileEnd);
+            }
+        } catch (IOException e) {
+            entry.offset = -1;
+            throw new UncheckedIOException("Cannot spill element stack entry", e);
+        }
+        entry.node = null;
+        residentBytes -= entry.bytes;
+        entry.bytes = 0;
+        spilled++;
+    }
+
+    private JsonNode read(Entry entry) {
+        ByteBuffer bytes = ByteBuffer.allocate(entry.length);
+        try {
+            while (bytes.hasRemaining()) {
+                if (file.read(bytes, entry.offset + bytes.position()) < 0) {
+                    throw new IOException("Spill file ends early");
+                }
+            }
+            return decode(new DataInputStream(new ByteArrayInputStream(bytes.array())));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read spilled element stack entry", e);
+        }
+    }
+
+    private static void encode(JsonNode node, DataOutputStream out) throws IOException {
+        switch (node.getNodeType()) {
+            case NULL:
+                out.writeByte(NULL);
+                break;
+            case MISSING:
+                out.writeByte(MISSING);
+                break;
+            case BOOLEAN:
+                out.writeByte(node.booleanValue() ? TRUE : FALSE);
+                break;
+            case NUMBER:
+                encodeNumber(node, out);
+                break;
+            case STRING:
+                out.writeByte(TEXT);
+                writeBytes(node.textValue().getBytes(StandardCharsets.UTF_8), out);
+                break;
+            case BINARY:
+                out.writeByte(BINARY);
+                writeBytes(node.binaryValue(), out);
+                break;
+            case ARRAY:
+                out.writeByte(ARRAY);
+                out.writeInt(node.size());
+                for (JsonNode element : node) {
+                    encode(element, out);
+                }
+                break;
+            case OBJECT:
+                out.writeByte(OBJECT);
+                out.writeInt(node.size());
+                for (Map.Entry<String, JsonNode> field : node.properties()) {
+                    writeBytes(field.getKey().getBytes(StandardCharsets.UTF_8), out);
+                    encode(field.getValue(), out);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Cannot spill a " + node.getNodeType() + " node");
+        }
+    }
+
+    private static void encodeNumber(JsonNode node, DataOutputStream out) throws IOException {
+        switch (node.numberType()) {
+            case INT:
+                if (node.isShort()) {
+                    out.writeByte(SHORT);
+                    out.writeShort(node.shortValue());
+                } else {
+                    out.writeByte(INT);
+                    out.writeInt(node.intValue());
+                }
+                break;
+            case LONG:
+                out.writeByte(LONG);
+                out.writeLong(node.longValue());
+                break;
+            case BIG_INTEGER:
+                out.writeByte(BIG_INTEGER);
+                writeBytes(node.bigIntegerValue().toByteArray(), out);
+                break;
+            case FLOAT:
+                out.writeByte(FLOAT);
+                out.writeFloat(node.floatValue());
+                break;
+            case DOUBLE:
+                out.writeByte(DOUBLE);
+                out.writeDouble(node.doubleValue());
+                break;
+            default:
+                out.writeByte(DECIMAL);
+                out.writeInt(node.decimalValue().scale());
+                writeBytes(node.decimalValue().unscaledValue().toByteArray(), out);
+                break;
+        }
+    }
+
+    private static JsonNode decode(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return NullNode.getInstance();
+            case MISSING:
+                return MissingNode.getInstance();
+            case FALSE:
+                return BooleanNode.FALSE;
+            case TRUE:
+                return BooleanNode.TRUE;
+            case SHORT:
+                return ShortNode.valueOf(in.readShort());
+            case INT:
+                return IntNode.valueOf(in.readInt());
+            case LONG:
+                return LongNode.valueOf(in.readLong());
+            case BIG_INTEGER:
+                return BigIntegerNode.valueOf(new BigInteger(readBytes(in)));
+            case FLOAT:
+                return FloatNode.valueOf(in.readFloat());
+            case DOUBLE:
+                return DoubleNode.valueOf(in.readDouble());
+            case DECIMAL: {
+                int scale = in.readInt();
+                return DecimalNode.valueOf(new BigDecimal(new BigInteger(readBytes(in)), scale));
+            }
+            case TEXT:
+                return TextNode.valueOf(new String(readBytes(in), StandardCharsets.UTF_8));
+            case BINARY:
+                return BinaryNode.valueOf(readBytes(in));
+            case ARRAY: {
+                int size = in.readInt();
+                ArrayNode array = JsonNodeFactory.instance.arrayNode(size);
+                for (int i = 0; i < size; i++) {
+                    array.add(decode(in));
+                }
+                return array;
+            }
+            case OBJECT: {
+                int size = in.readInt();
+                ObjectNode object = JsonNodeFactory.instance.objectNode();
+                for (int i = 0; i < size; i++) {
+                    String field = new String(readBytes(in), StandardCharsets.UTF_8);
+                    object.set(field, decode(in));
+                }
+                return object;
+            }
+            default:
+                throw new IOException("Unknown spill tag " + tag);
+        }
+    }
+
+    private static void writeBytes(byte[] bytes, DataOutputStream out) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        return in.readNBytes(in.readInt());
+    }
+
+    /**
+     * Forgets the file region of a faulted-in entry, reclaiming it when it is the last one.
+     */
+    private void release(Entry entry) {
+        if (entry.offset + entry.length == fileEnd) {
+            fileEnd = entry.offset;
+        }
+        entry.offset = -1;
+        if (--spilled == 0) {
+            closeFile();
+        } else {
+            try {
+                if (file.size() > fileEnd) {
+                    file.truncate(fileEnd);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot truncate element stack spill file", e);
+            }
+        }
+    }
+
+    private void closeFile() {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete element stack spill file", e);
+        } finally {
+            file = null;
+            fileEnd = 0;
+        }
+    }
+
+    /**
+     * Approximate heap footprint of a tree: object headers, references and string contents.
+     */
+    static long estimateBytes(JsonNode node) {
+        if (node == null) {
+            return 0;
+        }
+        long bytes = 0;
+        Deque<JsonNode> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            JsonNode current = pending.pop();
+            if (current.isObject()) {
+                bytes += 64;
+                Iterator<Map.Entry<String, JsonNode>> fields = current.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    bytes += 48 + 2L * field.getKey().length();
+                    pending.push(field.getValue());
+                }
+            } else if (current.isArray()) {
+                bytes += 48 + 8L * current.size();
+                for (JsonNode element : current) {
+                    pending.push(element);
+                }
+            } else if (current.isTextual()) {
+                bytes += 56 + 2L * current.textValue().length();
+            } else {
+                bytes += 24;
+            }
+        }
+        return bytes;
+    }
+}
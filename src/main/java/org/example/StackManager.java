@@ -5,7 +5,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import java.util.List;
 
 public class StackManager {
-    private final TransformationStack<JsonNode> elementStack;
+    private TransformationStack<JsonNode> elementStack;
     private final TransformationStack<Object> valueStack;
     private final TransformationStack<List<Instruction>> commandStack;
     private final TransformationStack<String> pathStack;
@@ -24,6 +24,22 @@ public class StackManager {
         return elementStack;
     }
 
+    /**
+     * Switches the element stack to a {@link SpillingElementStack} with the given threshold,
+     * keeping its entries, or updates the threshold of one already in use.
+     */
+    public void setElementSpillThreshold(long bytes) {
+        if (elementStack instanceof SpillingElementStack) {
+            ((SpillingElementStack) elementStack).setThreshold(bytes);
+            return;
+        }
+        SpillingElementStack spilling = new SpillingElementStack(bytes);
+        for (JsonNode element : elementStack.getTopN(elementStack.size())) {
+            spilling.push(element);
+        }
+        elementStack = spilling;
+    }
+
     public TransformationStack<Object> values() {
         return valueStack;
     }
@@ -0,0 +1,110 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Runs moves and writes the result to a {@link JsonGenerator} while they execute, instead of
+ * returning a finished tree.
+ * <p>
+ * A top-level field is final once every move touching it (see {@link ParallelMoveExecutor#topLevelFields})
+ * has run. Before the first move and after each one, the longest prefix of final fields is written
+ * and detached from the document, so memory holds only the sections still in progress. The bytes
+ * written equal serializing the result of running the moves sequentially.
+ * <p>
+ * Qualifying programs: every move must name the top-level fields it reads and writes, so recursive
+ * descent and wildcard or array roots are rejected (check with {@link #supports}), and the document
+ * must be an object. The document is consumed: after {@link #transform} returns it is empty.
+ */
+public class StreamingTransformer {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<Program> programs;
+    private final Map<String, Integer> lastTouch;
+
+    public StreamingTransformer(List<Move> moves) {
+        this.programs = new ArrayList<>();
+        this.lastTouch = new HashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            Set<String> fields = ParallelMoveExecutor.topLevelFields(moves.get(i));
+            if (fields == null) {
+                throw new IllegalArgumentException("Move may touch any top-level field and cannot be streamed: " + moves.get(i));
+            }
+            for (String field : fields) {
+                lastTouch.put(field, i);
+            }
+            programs.add(moves.get(i).compile());
+        }
+    }
+
+    /**
+     * Returns whether every move names the top-level fields it touches.
+     */
+    public static boolean supports(List<Move> moves) {
+        for (Move move : moves) {
+            if (ParallelMoveExecutor.topLevelFields(move) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Transforms {@code document} and writes the result as UTF-8 to {@code out}, which is left open.
+     */
+    public void transform(JsonNode document, OutputStream out) throws IOException {
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            transform(document, generator);
+        }
+    }
+
+    /**
+     * Transforms {@code document}, writing the result as one object value to {@code generator}.
+     */
+    public void transform(JsonNode document, JsonGenerator generator) throws IOException {
+        if (!(document instanceof ObjectNode)) {
+            throw new IllegalArgumentException("Streaming requires an object document");
+        }
+        ObjectNode root = (ObjectNode) document;
+        JsonTransformationMachine machine = new JsonTransformationMachine(root);
+
+        generator.writeStartObject();
+        writeFinalFields(root, 0, generator);
+        for (int i = 0; i < programs.size(); i++) {
+            machine.reset(root);
+            machine.execute(programs.get(i));
+            writeFinalFields(root, i + 1, generator);
+        }
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    /**
+     * Writes and detaches leading fields that no move from {@code nextMove} on touches.
+     */
+    private void writeFinalFields(ObjectNode root, int nextMove, JsonGenerator generator) throws IOException {
+        boolean written = false;
+        Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (lastTouch.getOrDefault(field.getKey(), -1) >= nextMove) {
+                break;
+            }
+            generator.writeFieldName(field.getKey());
+            MAPPER.writeTree(generator, field.getValue());
+            fields.remove();
+            written = true;
+        }
+        if (written) {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Positions of matching brackets in a JSON text, built in one pass without decoding anything.
+ * <p>
+ * Containers are recorded in the order their opening bracket appears, so the opening positions
+ * are sorted and the closing bracket of any container is found by binary search. This is what
+ * lets {@link MappedJsonInput} step over a nested object or array without reading its contents.
+ * The pass only checks that brackets match and strings terminate; everything else is validated
+ * when a container is decoded.
+ */
+final class StructuralIndex {
+    private final int[] opens;
+    private final int[] closes;
+
+    private StructuralIndex(int[] opens, int[] closes) {
+        this.opens = opens;
+        this.closes = closes;
+    }
+
+    static StructuralIndex build(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int[] opens = new int[64];
+        int[] closes = new int[64];
+        int count = 0;
+        int[] stack = new int[32]; // indices into opens of the containers still open
+        int depth = 0;
+
+        for (int i = 0; i < limit; i++) {
+            byte b = buffer.get(i);
+            switch (b) {
+                case '"':
+                    i = JsonText.stringEnd(buffer, i);
+                    break;
+                case '{':
+                case '[':
+                    if (count == opens.length) {
+                        opens = Arrays.copyOf(opens, count * 2);
+                        closes = Arrays.copyOf(closes, count * 2);
+                    }
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    opens[count] = i;
+                    stack[depth++] = count++;
+                    break;
+                case '}':
+                case ']':
+                    if (depth == 0) {
+                        throw new JsonText.MalformedJsonException("Unmatched '" + (char) b + "' at offset " + i);
+                    }
+                    int container = stack[--depth];
+                    byte open = buffer.get(opens[container]);
+                    if ((open == '{') != (b == '}')) {
+                        throw new JsonText.MalformedJsonException("Mismatched '" + (char) b + "' at offset " + i);
+                    }
+                    closes[container] = i;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (depth > 0) {
+            throw new JsonText.MalformedJsonException("Unclosed container at offset " + opens[stack[depth - 1]]);
+        }
+        return new StructuralIndex(Arrays.copyOf(opens, count), Arrays.copyOf(closes, count));
+    }
+
+    /**
+     * Returns the position of the bracket closing the container opened at {@code open}.
+     */
+    int closeOf(int open) {
+        int container = Arrays.binarySearch(opens, open);
+        if (container < 0) {
+            throw new IllegalArgumentException("No container starts at offset " + open);
+        }
+        return closes[container];
+    }
+
+    int getContainerCount() {
+        return opens.length;
+    }
+}
@@ -0,0 +1,206 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A read-only position in a {@link TapeDocument}, navigated like the machine's element path.
+ * <p>
+ * Field names are matched against the UTF-8 bytes of keys and values are read straight from the
+ * tape; nothing is decoded unless a string is requested with {@link #asText()}. Navigation methods
+ * return false and leave the cursor in place when the field or index does not exist.
+ */
+public final class TapeCursor {
+    private final TapeDocument document;
+    private int position;
+    private int[] path = new int[16];
+    private int depth;
+
+    TapeCursor(TapeDocument document) {
+        this.document = document;
+    }
+
+    public void moveToRoot() {
+        position = 0;
+        depth = 0;
+    }
+
+    public boolean moveIntoObject(String field) {
+        long entry = document.entry(position);
+        if (TapeDocument.type(entry) != TapeDocument.OBJECT) {
+            return false;
+        }
+        byte[] utf8 = field.getBytes(StandardCharsets.UTF_8);
+        int end = (int) entry;
+        for (int key = position + 2; key < end; key = document.next(key + 1)) {
+            if (document.stringEquals(key, utf8, field)) {
+                push(key + 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean moveIntoIndex(int index) {
+        long entry = document.entry(position);
+        if (TapeDocument.type(entry) != TapeDocument.ARRAY || index < 0) {
+            return false;
+        }
+        int end = (int) entry;
+        int element = position + 2;
+        for (int i = 0; i < index && element < end; i++) {
+            element = document.next(element);
+        }
+        if (element >= end) {
+            return false;
+        }
+        push(element);
+        return true;
+    }
+
+    public boolean moveOut() {
+        if (depth == 0) {
+            return false;
+        }
+        position = path[--depth];
+        return true;
+    }
+
+    /**
+     * Moves from the root along a path of fields and indices, such as {@code $.users[3].email}.
+     * The cursor is left at the root when the path does not exist.
+     *
+     * @throws IllegalArgumentException if the path contains patterns
+     */
+    public boolean moveTo(String jsonPath) {
+        moveToRoot();
+        List<PathComponent> components = JsonPathParser.parse(jsonPath);
+        for (PathComponent component : components) {
+            boolean found;
+            switch (component.getType()) {
+                case FIELD:
+                    found = moveIntoObject(component.getField());
+                    break;
+                case ARRAY_INDEX:
+                    found = (component.getField() == null || component.getField().isEmpty()
+                            || moveIntoObject(component.getField())) && moveIntoIndex(component.getIndex());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Cursor paths support only fields and indices: " + jsonPath);
+            }
+            if (!found) {
+                moveToRoot();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public JsonNodeType getNodeType() {
+        switch (TapeDocument.type(document.entry(position))) {
+            case TapeDocument.OBJECT:
+                return JsonNodeType.OBJECT;
+            case TapeDocument.ARRAY:
+                return JsonNodeType.ARRAY;
+            case TapeDocument.STRING:
+                return JsonNodeType.STRING;
+            case TapeDocument.NUMBER:
+                return JsonNodeType.NUMBER;
+            case TapeDocument.TRUE:
+            case TapeDocument.FALSE:
+                return JsonNodeType.BOOLEAN;
+            default:
+                return JsonNodeType.NULL;
+        }
+    }
+
+    /**
+     * Number of members or elements of a container, 0 for scalars.
+     */
+    public int size() {
+        int type = TapeDocument.type(document.entry(position));
+        return type == TapeDocument.OBJECT || type == TapeDocument.ARRAY ? document.childCount(position) : 0;
+    }
+
+    /**
+     * Compares the current string with {@code text} without decoding it.
+     */
+    public boolean textEquals(String text) {
+        return TapeDocument.type(document.entry(position)) == TapeDocument.STRING
+                && document.stringEquals(position, text.getBytes(StandardCharsets.UTF_8), text);
+    }
+
+    /**
+     * The value as text, following {@link JsonNode#asText()}.
+     */
+    public String asText() {
+        switch (TapeDocument.type(document.entry(position))) {
+            case TapeDocument.STRING:
+                return document.decodeString(position);
+            case TapeDocument.OBJECT:
+            case TapeDocument.ARRAY:
+                return "";
+            default:
+                return toJsonNode().asText();
+        }
+    }
+
+    /**
+     * The value as a long, following {@link JsonNode#asLong()}. Plain integers are parsed from
+     * the bytes directly.
+     */
+    public long asLong() {
+        if (TapeDocument.type(document.entry(position)) == TapeDocument.NUMBER) {
+            int offset = document.byteOffset(position);
+            int length = document.byteLength(position);
+            boolean negative = document.byteAt(offset) == '-';
+            if (length - (negative ? 1 : 0) <= 18) {
+                long value = 0;
+                int i = negative ? 1 : 0;
+                for (; i < length; i++) {
+                    byte b = document.byteAt(offset + i);
+                    if (b < '0' || b > '9') {
+                        break;
+                    }
+                    value = value * 10 + (b - '0');
+                }
+                if (i == length) {
+                    return negative ? -value : value;
+                }
+            }
+        }
+        return toJsonNode().asLong();
+    }
+
+    public double asDouble() {
+        return toJsonNode().asDouble();
+    }
+
+    public boolean asBoolean() {
+        return TapeDocument.type(document.entry(position)) == TapeDocument.TRUE;
+    }
+
+    public boolean isNull() {
+        return TapeDocument.type(document.entry(position)) == TapeDocument.NULL;
+    }
+
+    /**
+     * The current value as a node. Containers are decoded lazily and are independent of
+     * {@link TapeDocument#root()}.
+     */
+    public JsonNode toJsonNode() {
+        return document.nodeAt(position);
+    }
+
+    private void push(int child) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+        }
+        path[depth++] = position;
+        position = child;
+    }
+}
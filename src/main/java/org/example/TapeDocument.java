@@ -0,0 +1,363 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A parsed JSON document stored as a flat tape of 64-bit entries pointing into the original
+ * UTF-8 bytes, instead of a tree of Jackson nodes.
+ * <p>
+ * Every value takes one entry (containers take two, plus one closing entry), so a document costs
+ * a few bytes per value on top of its text. The top byte of an entry is its type:
+ * <ul>
+ *   <li>{@code OBJECT}/{@code ARRAY}: tape index of the closing entry and the child count,
+ *       followed by an {@code OFFSET} entry holding the byte offset of the opening bracket</li>
+ *   <li>{@code END}: byte offset of the closing bracket</li>
+ *   <li>{@code STRING}/{@code NUMBER}: byte offset, byte length and whether the string has escapes</li>
+ *   <li>{@code TRUE}/{@code FALSE}/{@code NULL}: byte offset</li>
+ * </ul>
+ * Object members are a {@code STRING} key entry followed by the value. Siblings are skipped by
+ * jumping to the entry after a container's {@code END}, so navigation never rescans text.
+ * <p>
+ * {@link #cursor()} navigates and reads the tape without building nodes or decoding strings.
+ * {@link #root()} is the writable overlay: a Jackson view decoded from the tape one level at a
+ * time as it is accessed, which a {@link JsonTransformationMachine} can transform. Containers never
+ * accessed through it are written back as their original bytes by {@link #writeTo}. Cursors always
+ * read the parsed document, not the overlay.
+ */
+public final class TapeDocument {
+    static final int OBJECT = 1;
+    static final int ARRAY = 2;
+    static final int STRING = 3;
+    static final int NUMBER = 4;
+    static final int TRUE = 5;
+    static final int FALSE = 6;
+    static final int NULL = 7;
+    static final int END = 8;
+    static final int OFFSET = 9;
+
+    static final long MAX_COUNT = 0xFFFFFFL;
+    static final long MAX_LENGTH = 0x7FFFFFL;
+    private static final long ESCAPED = 1L << 55;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ByteBuffer buffer;
+    private final long[] tape;
+    private final LazySource source;
+    private JsonNode overlay;
+
+    private TapeDocument(ByteBuffer buffer, long[] tape) {
+        this.buffer = buffer;
+        this.tape = tape;
+        this.source = new Decoder();
+    }
+
+    public static TapeDocument parse(byte[] json) {
+        return parse(ByteBuffer.wrap(json));
+    }
+
+    public static TapeDocument parse(ByteBuffer json) {
+        return new TapeDocument(json, new Builder(json).build());
+    }
+
+    public TapeCursor cursor() {
+        return new TapeCursor(this);
+    }
+
+    /**
+     * Returns the writable overlay. Every call returns the same root, so writes accumulate.
+     */
+    public JsonNode root() {
+        if (overlay == null) {
+            overlay = nodeAt(0);
+        }
+        return overlay;
+    }
+
+    /**
+     * Writes the overlay, copying untouched containers from the original bytes.
+     */
+    public void writeTo(JsonGenerator generator) throws IOException {
+        MAPPER.writeTree(generator, root());
+    }
+
+    public int getTapeLength() {
+        return tape.length;
+    }
+
+    static int type(long entry) {
+        return (int) (entry >>> 56);
+    }
+
+    long entry(int index) {
+        return tape[index];
+    }
+
+    /**
+     * Tape index of the entry after the value at {@code index}.
+     */
+    int next(int index) {
+        long entry = tape[index];
+        int type = type(entry);
+        return type == OBJECT || type == ARRAY ? (int) entry + 1 : index + 1;
+    }
+
+    int childCount(int index) {
+        long entry = tape[index];
+        long count = (entry >>> 32) & MAX_COUNT;
+        if (count < MAX_COUNT) {
+            return (int) count;
+        }
+        int children = 0;
+        int end = (int) entry;
+        for (int i = index + 2; i < end; i = next(type(entry) == OBJECT ? i + 1 : i)) {
+            children++;
+        }
+        return children;
+    }
+
+    int byteOffset(int index) {
+        return (int) tape[index];
+    }
+
+    /**
+     * Byte length between the quotes of a string, or of a number.
+     */
+    int byteLength(int index) {
+        long entry = tape[index];
+        long length = (entry >>> 32) & MAX_LENGTH;
+        if (length < MAX_LENGTH) {
+            return (int) length;
+        }
+        int offset = (int) entry;
+        return type(entry) == STRING
+                ? JsonText.stringEnd(buffer, offset) - offset - 1
+                : JsonText.scalarEnd(buffer, offset) - offset;
+    }
+
+    boolean hasEscapes(int index) {
+        return (tape[index] & ESCAPED) != 0;
+    }
+
+    /**
+     * Compares the string at {@code index} with {@code utf8} byte by byte.
+     */
+    boolean stringEquals(int index, byte[] utf8, String text) {
+        if (hasEscapes(index)) {
+            return decodeString(index).equals(text);
+        }
+        if (byteLength(index) != utf8.length) {
+            return false;
+        }
+        int offset = byteOffset(index) + 1;
+        for (int i = 0; i < utf8.length; i++) {
+            if (buffer.get(offset + i) != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String decodeString(int index) {
+        int offset = byteOffset(index);
+        return JsonText.decodeString(buffer, offset, offset + byteLength(index) + 1);
+    }
+
+    byte byteAt(int position) {
+        return buffer.get(position);
+    }
+
+    JsonNode nodeAt(int index) {
+        long entry = tape[index];
+        switch (type(entry)) {
+            case OBJECT:
+                return new LazyObjectNode(source, index);
+            case ARRAY:
+                return new LazyArrayNode(source, index);
+            case STRING:
+                return JsonNodeFactory.instance.textNode(decodeString(index));
+            case NUMBER: {
+                int offset = byteOffset(index);
+                return JsonText.decodeScalar(buffer, offset, offset + byteLength(index));
+            }
+            case TRUE:
+                return JsonNodeFactory.instance.booleanNode(true);
+            case FALSE:
+                return JsonNodeFactory.instance.booleanNode(false);
+            default:
+                return JsonNodeFactory.instance.nullNode();
+        }
+    }
+
+    /**
+     * Decodes containers by tape index.
+     */
+    private class Decoder implements LazySource {
+
+        @Override
+        public Map<String, JsonNode> decodeMembers(int container) {
+            Map<String, JsonNode> members = new LinkedHashMap<>();
+            int end = (int) tape[container];
+            for (int i = container + 2; i < end; i = next(i + 1)) {
+                members.put(decodeString(i), nodeAt(i + 1));
+            }
+            return members;
+        }
+
+        @Override
+        public List<JsonNode> decodeElements(int container) {
+            List<JsonNode> elements = new ArrayList<>(childCount(container));
+            int end = (int) tape[container];
+            for (int i = container + 2; i < end; i = next(i)) {
+                elements.add(nodeAt(i));
+            }
+            return elements;
+        }
+
+        @Override
+        public RawBytes raw(int container) {
+            int end = (int) tape[container];
+            return new RawBytes(buffer, (int) tape[container + 1], (int) tape[end] + 1);
+        }
+    }
+
+    /**
+     * Single-pass tokenizer that appends tape entries. Containers are tracked on an explicit
+     * stack, so nesting depth is not limited by the call stack.
+     */
+    private static final class Builder {
+        private final ByteBuffer buffer;
+        private long[] tape = new long[256];
+        private int size;
+        private int[] open = new int[32];   // tape index of each open container
+        private long[] count = new long[32];
+        private int depth;
+
+        Builder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long[] build() {
+            int pos = value(JsonText.skipWhitespace(buffer, 0));
+            boolean opened = depth > 0;
+            while (depth > 0) {
+                pos = JsonText.skipWhitespace(buffer, pos);
+                int container = open[depth - 1];
+                boolean object = type(tape[container]) == OBJECT;
+                byte b = JsonText.byteAt(buffer, pos);
+                if (b == (object ? '}' : ']')) {
+                    close(pos);
+                    pos++;
+                    opened = false;
+                    continue;
+                }
+                if (!opened) {
+                    JsonText.expect(buffer, pos, ',');
+                    pos = JsonText.skipWhitespace(buffer, pos + 1);
+                }
+                if (object) {
+                    JsonText.expect(buffer, pos, '"');
+                    pos = string(pos);
+                    pos = JsonText.skipWhitespace(buffer, pos);
+                    JsonText.expect(buffer, pos, ':');
+                    pos = JsonText.skipWhitespace(buffer, pos + 1);
+                }
+                count[depth - 1]++;
+                int before = depth;
+                pos = value(pos);
+                opened = depth > before;
+            }
+            pos = JsonText.skipWhitespace(buffer, pos);
+            if (pos != buffer.limit()) {
+                throw new JsonText.MalformedJsonException("Unexpected content after the root value at offset " + pos);
+            }
+            return Arrays.copyOf(tape, size);
+        }
+
+        /**
+         * Appends the value at {@code pos}; a container is opened and left for the caller to fill.
+         */
+        private int value(int pos) {
+            byte b = JsonText.byteAt(buffer, pos);
+            switch (b) {
+                case '{':
+                case '[':
+                    if (depth == open.length) {
+                        open = Arrays.copyOf(open, depth * 2);
+                        count = Arrays.copyOf(count, depth * 2);
+                    }
+                    open[depth] = size;
+                    count[depth++] = 0;
+                    append((long) (b == '{' ? OBJECT : ARRAY) << 56);
+                    append((long) OFFSET << 56 | pos);
+                    return pos + 1;
+                case '"':
+                    return string(pos);
+                case 't':
+                    return literal(pos, "true", TRUE);
+                case 'f':
+                    return literal(pos, "false", FALSE);
+                case 'n':
+                    return literal(pos, "null", NULL);
+                default: {
+                    int end = JsonText.scalarEnd(buffer, pos);
+                    for (int i = pos; i < end; i++) {
+                        byte c = buffer.get(i);
+                        if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+                            throw new JsonText.MalformedJsonException("Invalid value at offset " + pos);
+                        }
+                    }
+                    append((long) NUMBER << 56 | Math.min(end - pos, MAX_LENGTH) << 32 | pos);
+                    return end;
+                }
+            }
+        }
+
+        private int string(int pos) {
+            int limit = buffer.limit();
+            boolean escaped = false;
+            for (int i = pos + 1; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (b == '\\') {
+                    escaped = true;
+                    i++;
+                } else if (b == '"') {
+                    append((long) STRING << 56 | (escaped ? ESCAPED : 0)
+                            | Math.min(i - pos - 1, MAX_LENGTH) << 32 | pos);
+                    return i + 1;
+                }
+            }
+            throw new JsonText.MalformedJsonException("Unterminated string at offset " + pos);
+        }
+
+        private int literal(int pos, String text, int type) {
+            int end = JsonText.scalarEnd(buffer, pos);
+            if (end - pos != text.length()
+                    || !text.equals(new String(JsonText.bytes(buffer, pos, end), StandardCharsets.US_ASCII))) {
+                throw new JsonText.MalformedJsonException("Invalid value at offset " + pos);
+            }
+            append((long) type << 56 | pos);
+            return end;
+        }
+
+        private void close(int pos) {
+            int container = open[--depth];
+            tape[container] |= Math.min(count[depth], MAX_COUNT) << 32 | size;
+            append((long) END << 56 | pos);
+        }
+
+        private void append(long entry) {
+            if (size == tape.length) {
+                tape = Arrays.copyOf(tape, size * 2);
+            }
+            tape[size++] = entry;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package org.example;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conversions between epoch timestamps and date-time text used by {@code FORMAT_TIME},
+ * {@code TO_TIMESTAMP} and their array variants.
+ * <p>
+ * Besides {@code DateTimeFormatter} patterns, which are compiled once per pattern and zone and
+ * cached, three named formats are handled by hand-written codecs that avoid the formatter
+ * machinery entirely:
+ * <ul>
+ *   <li>{@link #ISO}: ISO-8601 such as {@code 2024-12-12T17:32:12Z}. Formatting writes as many
+ *       fraction digits as the unit has and the zone offset ({@code Z} for UTC); parsing accepts
+ *       a date, an optional {@code T} or space separated time with optional fraction, and an
+ *       optional {@code Z}/{@code ±HH[:MM]} offset, falling back to the zone otherwise</li>
+ *   <li>{@link #EPOCH_SECONDS}, {@link #EPOCH_MILLIS}, {@link #EPOCH_MICROS}: the timestamp as a
+ *       decimal number in that unit, for normalizing between precisions</li>
+ * </ul>
+ * Timestamps are longs in a {@link Unit}; the default is seconds in UTC. All methods are thread-safe.
+ */
+public final class TimeCodec {
+    public static final String ISO = "iso";
+    public static final String EPOCH_SECONDS = "epoch_s";
+    public static final String EPOCH_MILLIS = "epoch_ms";
+    public static final String EPOCH_MICROS = "epoch_us";
+
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+    private static final Map<String, ZoneId> ZONES = new ConcurrentHashMap<>();
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    public enum Unit {
+        SECONDS("s", 1L),
+        MILLIS("ms", 1_000L),
+        MICROS("us", 1_000_000L);
+
+        private final String symbol;
+        private final long perSecond;
+
+        Unit(String symbol, long perSecond) {
+            this.symbol = symbol;
+            this.perSecond = perSecond;
+        }
+
+        public static Unit of(String symbol) {
+            for (Unit unit : values()) {
+                if (unit.symbol.equals(symbol)) {
+                    return unit;
+                }
+            }
+            throw new IllegalArgumentException("Unknown time unit: " + symbol + " (expected s, ms or us)");
+        }
+
+        int fractionDigits() {
+            return this == SECONDS ? 0 : this == MILLIS ? 3 : 6;
+        }
+    }
+
+    private TimeCodec() {
+    }
+
+    public static ZoneId zone(String id) {
+        return ZONES.computeIfAbsent(id, ZoneId::of);
+    }
+
+    /**
+     * Formats {@code timestamp}, counted in {@code unit} since the epoch, in {@code zone}.
+     */
+    public static String format(long timestamp, Unit unit, String format, ZoneId zone) {
+        switch (format) {
+            case ISO:
+                return formatIso(timestamp, unit, zone);
+            case EPOCH_SECONDS:
+                return Long.toString(convert(timestamp, unit, Unit.SECONDS));
+            case EPOCH_MILLIS:
+                return Long.toString(convert(timestamp, unit, Unit.MILLIS));
+            case EPOCH_MICROS:
+                return Long.toString(convert(timestamp, unit, Unit.MICROS));
+            default:
+                return formatter(format, zone).format(toInstant(timestamp, unit));
+        }
+    }
+
+    /**
+     * Parses {@code text} into a timestamp counted in {@code unit}. Text without an offset is
+     * read in {@code zone}; a pattern without a time of day means the start of the day.
+     */
+    public static long parse(String text, String format, Unit unit, ZoneId zone) {
+        switch (format) {
+            case ISO:
+                return parseIso(text, unit, zone);
+            case EPOCH_SECONDS:
+                return convert(Long.parseLong(text.trim()), Unit.SECONDS, unit);
+            case EPOCH_MILLIS:
+                return convert(Long.parseLong(text.trim()), Unit.MILLIS, unit);
+            case EPOCH_MICROS:
+                return convert(Long.parseLong(text.trim()), Unit.MICROS, unit);
+            default:
+                return fromTemporal(formatter(format, zone).parse(text), unit, zone);
+        }
+    }
+
+    /**
+     * Converts between units, rounding towards negative infinity when precision is lost.
+     */
+    public static long convert(long value, Unit from, Unit to) {
+        if (from.perSecond == to.perSecond) {
+            return value;
+        }
+        if (from.perSecond < to.perSecond) {
+            return Math.multiplyExact(value, to.perSecond / from.perSecond);
+        }
+        return Math.floorDiv(value, from.perSecond / to.perSecond);
+    }
+
+    private static DateTimeFormatter formatter(String pattern, ZoneId zone) {
+        return FORMATTERS.computeIfAbsent(pattern + '\u0000' + zone.getId(),
+                key -> DateTimeFormatter.ofPattern(pattern).withZone(zone));
+    }
+
+    private static Instant toInstant(long timestamp, Unit unit) {
+        long seconds = Math.floorDiv(timestamp, unit.perSecond);
+        long fraction = Math.floorMod(timestamp, unit.perSecond);
+        return Instant.ofEpochSecond(seconds, fraction * (1_000_000_000L / unit.perSecond));
+    }
+
+    private static long fromTemporal(TemporalAccessor parsed, Unit unit, ZoneId zone) {
+        long seconds;
+        if (parsed.isSupported(ChronoField.INSTANT_SECONDS)) {
+            seconds = parsed.getLong(ChronoField.INSTANT_SECONDS);
+        } else {
+            LocalDate date = parsed.query(TemporalQueries.localDate());
+            if (date == null) {
+                throw new DateTimeParseException("Text has no date", parsed.toString(), 0);
+            }
+            LocalTime time = parsed.query(TemporalQueries.localTime());
+            seconds = date.atTime(time != null ? time : LocalTime.MIDNIGHT).atZone(zone).toEpochSecond();
+        }
+        long nanos = parsed.isSupported(ChronoField.NANO_OF_SECOND) ? parsed.getLong(ChronoField.NANO_OF_SECOND) : 0;
+        return Math.addExact(Math.multiplyExact(seconds, unit.perSecond), nanos / (1_000_000_000L / unit.perSecond));
+    }
+
+    private static String formatIso(long timestamp, Unit unit, ZoneId zone) {
+        long seconds = Math.floorDiv(timestamp, unit.perSecond);
+        long fraction = Math.floorMod(timestamp, unit.perSecond);
+        int offset = zone instanceof ZoneOffset
+                ? ((ZoneOffset) zone).getTotalSeconds()
+                : zone.getRules().getOffset(Instant.ofEpochSecond(seconds)).getTotalSeconds();
+        long local = seconds + offset;
+        long days = Math.floorDiv(local, 86_400);
+        int secondOfDay = Math.floorMod(local, 86_400);
+
+        // Civil date from days since 1970-01-01 (proleptic Gregorian)
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999 || offset % 60 != 0) {
+            return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(toInstant(timestamp, unit).atZone(zone));
+        }
+
+        char[] out = new char[32];
+        int pos = digits(out, 0, year, 4);
+        out[pos++] = '-';
+        pos = digits(out, pos, month, 2);
+        out[pos++] = '-';
+        pos = digits(out, pos, day, 2);
+        out[pos++] = 'T';
+        pos = digits(out, pos, secondOfDay / 3600, 2);
+        out[pos++] = ':';
+        pos = digits(out, pos, secondOfDay / 60 % 60, 2);
+        out[pos++] = ':';
+        pos = digits(out, pos, secondOfDay % 60, 2);
+        if (unit.fractionDigits() > 0) {
+            out[pos++] = '.';
+            pos = digits(out, pos, fraction, unit.fractionDigits());
+        }
+        if (offset == 0) {
+            out[pos++] = 'Z';
+        } else {
+            int absolute = Math.abs(offset);
+            out[pos++] = offset < 0 ? '-' : '+';
+            pos = digits(out, pos, absolute / 3600, 2);
+            out[pos++] = ':';
+            pos = digits(out, pos, absolute / 60 % 60, 2);
+        }
+        return new String(out, 0, pos);
+    }
+
+    private static int digits(char[] out, int pos, long value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            out[pos + i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    private static long parseIso(String text, Unit unit, ZoneId zone) {
+        int length = text.length();
+        if (length < 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return parseIsoFallback(text, unit, zone);
+        }
+        int year = number(text, 0, 4);
+        int month = number(text, 5, 2);
+        int day = number(text, 8, 2);
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        long nanos = 0;
+        int pos = 10;
+
+        if (pos < length && (text.charAt(pos) == 'T' || text.charAt(pos) == ' ')) {
+            if (length < pos + 6 || text.charAt(pos + 3) != ':') {
+                return parseIsoFallback(text, unit, zone);
+            }
+            hour = number(text, pos + 1, 2);
+            minute = number(text, pos + 4, 2);
+            pos += 6;
+            if (pos < length && text.charAt(pos) == ':') {
+                second = number(text, pos + 1, 2);
+                pos += 3;
+                if (pos < length && text.charAt(pos) == '.') {
+                    int start = ++pos;
+                    while (pos < length && pos - start < 9 && Character.isDigit(text.charAt(pos))) {
+                        nanos = nanos * 10 + (text.charAt(pos++) - '0');
+                    }
+                    if (pos == start) {
+                        return parseIsoFallback(text, unit, zone);
+                    }
+                    for (int i = pos - start; i < 9; i++) {
+                        nanos *= 10;
+                    }
+                }
+            }
+        }
+
+        Integer offset = null;
+        if (pos < length) {
+            char c = text.charAt(pos);
+            if (c == 'Z' && pos + 1 == length) {
+                offset = 0;
+            } else if ((c == '+' || c == '-') && (length == pos + 3 || length == pos + 5 || length == pos + 6)) {
+                int offsetHours = number(text, pos + 1, 2);
+                int minuteStart = length == pos + 6 ? pos + 4 : pos + 3;
+                int offsetMinutes = length == pos + 3 ? 0 : number(text, minuteStart, 2);
+                if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59
+                        || (length == pos + 6 && text.charAt(pos + 3) != ':')) {
+                    return parseIsoFallback(text, unit, zone);
+                }
+                offset = (c == '-' ? -1 : 1) * (offsetHours * 3600 + offsetMinutes * 60);
+            } else {
+                return parseIsoFallback(text, unit, zone);
+            }
+        }
+
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return parseIsoFallback(text, unit, zone);
+        }
+
+        long local = daysFromCivil(year, month, day) * 86_400 + hour * 3600L + minute * 60L + second;
+        long seconds;
+        if (offset != null) {
+            seconds = local - offset;
+        } else if (zone instanceof ZoneOffset) {
+            seconds = local - ((ZoneOffset) zone).getTotalSeconds();
+        } else {
+            seconds = LocalDateTime.of(year, month, day, hour, minute, second).atZone(zone).toEpochSecond();
+        }
+        return Math.addExact(Math.multiplyExact(seconds, unit.perSecond), nanos / (1_000_000_000L / unit.perSecond));
+    }
+
+    private static long parseIsoFallback(String text, Unit unit, ZoneId zone) {
+        TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.withZone(zone).parseBest(text,
+                ZonedDateTime::from, LocalDateTime::from, LocalDate::from);
+        return fromTemporal(parsed, unit, zone);
+    }
+
+    /**
+     * Reads {@code width} digits at {@code start}, or returns -1 if they are not all digits.
+     */
+    private static int number(String text, int start, int width) {
+        if (start + width > text.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + width; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return month == 2 && leap ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    private static long daysFromCivil(long year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        long era = Math.floorDiv(year, 400);
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs programs concurrently, one virtual thread per transformation.
+ * <p>
+ * At most {@code maxConcurrency} transformations execute at once; further submissions wait for a
+ * permit on their own virtual thread. Machines are pooled and reset between runs instead of being
+ * created per call. Virtual threads are not reused, so the pool replaces a per-thread cache.
+ * <p>
+ * Each document is transformed in place and belongs to the executor until its future completes.
+ */
+public class TransformationExecutor implements AutoCloseable {
+    public static final int DEFAULT_MAX_CONCURRENCY = 256;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<JsonTransformationMachine> idleMachines;
+    private final int maxConcurrency;
+
+    public TransformationExecutor(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.permits = new Semaphore(maxConcurrency);
+        this.idleMachines = new ConcurrentLinkedQueue<>();
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public TransformationExecutor() {
+        this(DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Schedules {@code program} against {@code document} on a new virtual thread.
+     */
+    public CompletableFuture<JsonNode> submit(Program program, JsonNode document) {
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(transform(program, document));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Runs {@code program} on the calling thread, waiting for a concurrency permit first.
+     */
+    public JsonNode transform(Program program, JsonNode document) throws InterruptedException {
+        permits.acquire();
+        try {
+            JsonTransformationMachine machine = idleMachines.poll();
+            if (machine == null) {
+                machine = new JsonTransformationMachine(document);
+            } else {
+                machine.reset(document);
+            }
+            try {
+                return machine.execute(program);
+            } finally {
+                machine.reset(MissingNode.getInstance());
+                idleMachines.offer(machine);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
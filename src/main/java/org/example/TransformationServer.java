@@ -0,0 +1,257 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Self-contained HTTP front end for precompiled programs, built on the JDK HTTP server with one
+ * virtual thread per request.
+ * <ul>
+ *   <li>{@code POST /transform/{programId}} transforms the JSON request body and returns the result</li>
+ *   <li>{@code GET /stats} returns throughput and latency counters</li>
+ *   <li>{@code GET /ready} returns 200 once {@link #warmUp} has finished, 503 while it is awaited
+ *   or runs, and 503 with the error when it failed</li>
+ * </ul>
+ * Request bodies are parsed straight from the socket stream and results are written to a chunked
+ * response without buffering. At most {@code maxInFlight} transformations are admitted at once;
+ * further requests are rejected with 503 instead of queueing.
+ */
+public class TransformationServer implements AutoCloseable {
+    private static final String TRANSFORM_PREFIX = "/transform/";
+
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+    private final TransformationExecutor transformer;
+    private final Map<String, Program> programs;
+    private final Semaphore admission;
+    private final ServiceStats stats;
+    private final ObjectMapper mapper;
+    private final ObjectWriter resultWriter;
+    private volatile boolean ready;
+    private volatile Throwable warmUpFailure;
+
+    public TransformationServer(InetSocketAddress address, Map<String, Program> programs, int maxInFlight)
+            throws IOException {
+        this(address, programs, maxInFlight, false);
+    }
+
+    /**
+     * @param awaitWarmUp whether {@code /ready} reports 503 until a {@link #warmUp} succeeds, so
+     *                    the server is not reported ready between {@link #start()} and the warm-up
+     */
+    public TransformationServer(InetSocketAddress address, Map<String, Program> programs, int maxInFlight,
+                                boolean awaitWarmUp) throws IOException {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.programs = Map.copyOf(programs);
+        this.ready = !awaitWarmUp;
+        this.admission = new Semaphore(maxInFlight);
+        this.transformer = new TransformationExecutor(maxInFlight);
+        this.stats = new ServiceStats();
+        this.mapper = new ObjectMapper();
+        // A failed write must not close the body, which would end the chunked response cleanly
+        this.resultWriter = mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(requestExecutor);
+        this.server.createContext(TRANSFORM_PREFIX, this::handleTransform);
+        this.server.createContext("/stats", this::handleStats);
+        this.server.createContext("/ready", this::handleReady);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Runs every program {@code iterations} times on synthetic documents in the background (see
+     * {@link ProgramWarmup}). {@code /ready} reports 503 until the returned future completes, and
+     * keeps reporting 503 with the error if it completes exceptionally. Warm-up runs are not
+     * counted in {@link #getStats()}.
+     */
+    public CompletableFuture<ProgramWarmup.Report> warmUp(int iterations) {
+        ready = false;
+        warmUpFailure = null;
+        CompletableFuture<ProgramWarmup.Report> result = new CompletableFuture<>();
+        Thread warmup = new Thread(() -> {
+            ProgramWarmup.Report report = null;
+            Throwable failure = null;
+            try {
+                report = ProgramWarmup.run(programs, transformer, iterations);
+            } catch (Throwable e) {
+                failure = e;
+            }
+            if (failure != null) {
+                warmUpFailure = failure;
+                result.completeExceptionally(failure);
+            } else {
+                ready = true;
+                result.complete(report);
+            }
+        }, "program-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+        return result;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The error of the last {@link #warmUp}, or null if it has not failed.
+     */
+    public Throwable getWarmUpFailure() {
+        return warmUpFailure;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public ServiceStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        requestExecutor.close();
+        transformer.close();
+    }
+
+    private void handleTransform(HttpExchange exchange) throws IOException {
+        boolean close = true;
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Use POST");
+                return;
+            }
+            String programId = exchange.getRequestURI().getPath().substring(TRANSFORM_PREFIX.length());
+            Program program = programs.get(programId);
+            if (program == null) {
+                sendError(exchange, 404, "Unknown program: " + programId);
+                return;
+            }
+            if (!admission.tryAcquire()) {
+                stats.rejected();
+                sendError(exchange, 503, "Too many requests in flight");
+                return;
+            }
+            try {
+                transform(exchange, program);
+            } finally {
+                admission.release();
+            }
+        } catch (ResponseAbortedException e) {
+            // Leave the exchange open: the server drops the connection, so the client sees a
+            // truncated response rather than a complete one
+            close = false;
+            throw e;
+        } finally {
+            if (close) {
+                exchange.close();
+            }
+        }
+    }
+
+    private void transform(HttpExchange exchange, Program program) throws IOException {
+        long start = System.nanoTime();
+        stats.started();
+        boolean success = false;
+        boolean committed = false;
+        try {
+            JsonNode document;
+            try (InputStream body = exchange.getRequestBody()) {
+                document = mapper.readTree(body);
+            }
+            if (document == null || document.isMissingNode()) {
+                sendError(exchange, 400, "Request body must be a JSON document");
+                return;
+            }
+
+            JsonNode result = transformer.transform(program, document);
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            committed = true;
+            OutputStream out = exchange.getResponseBody();
+            resultWriter.writeValue(out, result);
+            out.close();
+            success = true;
+        } catch (IOException | RuntimeException e) {
+            if (committed) {
+                throw new ResponseAbortedException(e);
+            }
+            if (e instanceof JsonProcessingException) {
+                sendError(exchange, 400, "Invalid JSON: " + ((JsonProcessingException) e).getOriginalMessage());
+            } else if (e instanceof RuntimeException) {
+                sendError(exchange, 500, e.getMessage());
+            } else {
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Interrupted");
+        } finally {
+            stats.finished(System.nanoTime() - start, success);
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = mapper.writeValueAsBytes(stats.toJson(mapper));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private void handleReady(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            boolean isReady = ready;
+            Throwable failure = warmUpFailure;
+            ObjectNode status = mapper.createObjectNode().put("ready", isReady);
+            if (failure != null) {
+                status.put("error", "Warm-up failed: " + failure);
+            }
+            byte[] body = mapper.writeValueAsBytes(status);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(isReady ? 200 : 503, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    /**
+     * A failure after the 200 status line was sent, when no error response can follow.
+     */
+    private static final class ResponseAbortedException extends IOException {
+        ResponseAbortedException(Throwable cause) {
+            super("Response aborted after its headers were sent", cause);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = mapper.writeValueAsBytes(mapper.createObjectNode().put("error", message));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
@@ -0,0 +1,143 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A declarative description of named transformations, each a list of moves:
+ * <pre>
+ * {
+ *   "version": 1,
+ *   "mappings": { "status": { "A": "active", "I": "inactive" } },
+ *   "transformations": {
+ *     "contacts": {
+ *       "moves": [
+ *         { "source": "$.users[*].email", "target": "$.contacts[*].email" },
+ *         { "source": "$.users[*].state", "target": "$.contacts[*].status", "mapping": "status" }
+ *       ]
+ *     }
+ *   }
+ * }
+ * </pre>
+ * A move's {@code mapping} is either an inline object or the name of an entry in {@code mappings}.
+ * {@link #compile()} turns every transformation into a {@link Program}, and
+ * {@link ProgramBundle} stores the result so it need not be compiled again at startup.
+ */
+public final class TransformationSpec {
+    public static final int VERSION = 1;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, List<Move>> transformations;
+
+    private TransformationSpec(Map<String, List<Move>> transformations) {
+        this.transformations = transformations;
+    }
+
+    public static TransformationSpec read(Path file) throws IOException {
+        return parse(MAPPER.readTree(file.toFile()));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the spec is malformed or a path does not parse
+     */
+    public static TransformationSpec parse(JsonNode spec) {
+        if (spec == null || !spec.isObject()) {
+            throw invalid("expected an object");
+        }
+        JsonNode version = spec.get("version");
+        if (version != null && (!version.canConvertToInt() || version.intValue() != VERSION)) {
+            throw invalid("unsupported version " + version);
+        }
+
+        Map<String, Map<String, JsonNode>> mappings = new HashMap<>();
+        JsonNode mappingsNode = spec.path("mappings");
+        if (!mappingsNode.isMissingNode()) {
+            requireObject(mappingsNode, "mappings");
+            mappingsNode.fields().forEachRemaining(entry ->
+                    mappings.put(entry.getKey(), toMapping(entry.getValue(), "mappings." + entry.getKey())));
+        }
+
+        JsonNode transformationsNode = spec.path("transformations");
+        requireObject(transformationsNode, "transformations");
+        Map<String, List<Move>> transformations = new LinkedHashMap<>();
+        transformationsNode.fields().forEachRemaining(entry -> {
+            String name = entry.getKey();
+            JsonNode moves = entry.getValue().path("moves");
+            if (!moves.isArray() || moves.isEmpty()) {
+                throw invalid(name + ": expected a non-empty moves array");
+            }
+            List<Move> compiled = new ArrayList<>();
+            for (int i = 0; i < moves.size(); i++) {
+                compiled.add(toMove(moves.get(i), mappings, name + ".moves[" + i + "]"));
+            }
+            transformations.put(name, List.copyOf(compiled));
+        });
+        return new TransformationSpec(Collections.unmodifiableMap(transformations));
+    }
+
+    public Set<String> getNames() {
+        return transformations.keySet();
+    }
+
+    public List<Move> getMoves(String name) {
+        List<Move> moves = transformations.get(name);
+        if (moves == null) {
+            throw new IllegalArgumentException("Unknown transformation: " + name);
+        }
+        return moves;
+    }
+
+    /**
+     * Compiles every transformation, in spec order.
+     */
+    public Map<String, Program> compile() {
+        Map<String, Program> programs = new LinkedHashMap<>();
+        transformations.forEach((name, moves) -> programs.put(name, Move.compile(moves)));
+        return programs;
+    }
+
+    private static Move toMove(JsonNode move, Map<String, Map<String, JsonNode>> mappings, String where) {
+        requireObject(move, where);
+        JsonNode source = move.get("source");
+        JsonNode target = move.get("target");
+        if (source == null || !source.isTextual() || target == null || !target.isTextual()) {
+            throw invalid(where + ": source and target must be strings");
+        }
+        JsonNode mappingNode = move.get("mapping");
+        Map<String, JsonNode> mapping = null;
+        if (mappingNode != null && mappingNode.isTextual()) {
+            mapping = mappings.get(mappingNode.textValue());
+            if (mapping == null) {
+                throw invalid(where + ": unknown mapping " + mappingNode.textValue());
+            }
+        } else if (mappingNode != null && !mappingNode.isNull()) {
+            mapping = toMapping(mappingNode, where + ".mapping");
+        }
+        try {
+            return Move.of(source.textValue(), target.textValue(), mapping);
+        } catch (JsonPathParser.JsonPathParseException e) {
+            throw invalid(where + ": " + e.getMessage());
+        }
+    }
+
+    private static Map<String, JsonNode> toMapping(JsonNode node, String where) {
+        requireObject(node, where);
+        Map<String, JsonNode> mapping = new LinkedHashMap<>();
+        node.fields().forEachRemaining(entry -> mapping.put(entry.getKey(), entry.getValue()));
+        return mapping;
+    }
+
+    private static void requireObject(JsonNode node, String where) {
+        if (!node.isObject()) {
+            throw invalid(where + ": expected an object");
+        }
+    }
+
+    private static IllegalArgumentException invalid(String message) {
+        return new IllegalArgumentException("Invalid spec: " + message);
+    }
+}
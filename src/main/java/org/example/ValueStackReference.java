@@ -95,6 +95,16 @@ public class ValueStackReference {
         }
     }
 
+    // Null unless this is a field reference
+    String getField() {
+        return field;
+    }
+
+    // Null unless this is a stack reference
+    Integer getStackOffset() {
+        return stackOffset;
+    }
+
     // Static factory methods for cleaner creation
     public static ValueStackReference field(String field) {
         return new ValueStackReference(field);
@@ -0,0 +1,119 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldIndexTest {
+    private ObjectMapper mapper;
+    private ObjectNode testData;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mapper = new ObjectMapper();
+        testData = (ObjectNode) mapper.readTree(
+                "{\"company\":{\"name\":\"Acme\",\"email\":\"info@acme.com\"}," +
+                        "\"users\":[{\"name\":\"John\",\"email\":\"john@acme.com\"}," +
+                        "{\"name\":\"Jane\",\"email\":\"jane@acme.com\"}]}");
+    }
+
+    @Test
+    void testLookupMatchesScan() {
+        FieldIndex index = new FieldIndex(testData);
+        assertFalse(index.isBuilt());
+
+        List<JsonNode> emails = index.lookup("email");
+
+        assertTrue(index.isBuilt());
+        assertEquals(FieldIndex.scan(testData, "email"), emails);
+        assertEquals(3, emails.size());
+        assertEquals("info@acme.com", emails.get(0).asText());
+        assertTrue(index.lookup("missing").isEmpty());
+    }
+
+    @Test
+    void testIndexFollowsMachineMutations() {
+        JsonTransformationMachine machine = new JsonTransformationMachine(testData);
+        FieldIndex index = machine.enableFieldIndex();
+        index.lookup("email");
+
+        machine.execute(Arrays.asList(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "users"),
+                Instruction.of(Command.MOVE_INTO_INDEX, 0),
+                Instruction.of(Command.DELETE),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_OBJECT, "contact"),
+                Instruction.of(Command.MOVE_INTO_FIELD, "email"),
+                Instruction.of(Command.STORE_ELEMENT, mapper.valueToTree("new@acme.com")),
+                Instruction.of(Command.POP_ELEMENT)
+        ));
+
+        assertEquals(FieldIndex.scan(testData, "email"), index.lookup("email"));
+        assertEquals(FieldIndex.scan(testData, "name"), index.lookup("name"));
+    }
+
+    @Test
+    void testInsertedFieldsKeepDocumentOrder() {
+        JsonTransformationMachine machine = new JsonTransformationMachine(testData);
+        FieldIndex index = machine.enableFieldIndex();
+        index.lookup("email");
+
+        machine.execute(Arrays.asList(
+                // A new object between existing holders of "email"
+                Instruction.of(Command.MOVE_INTO_ARRAY, "users"),
+                Instruction.of(Command.MOVE_INTO_INDEX, 0),
+                Instruction.of(Command.MOVE_INTO_OBJECT, "work"),
+                Instruction.of(Command.MOVE_INTO_FIELD, "email"),
+                Instruction.of(Command.STORE_ELEMENT, mapper.valueToTree("john@work.com")),
+                Instruction.of(Command.POP_ELEMENT),
+                // A scalar replaced by an object inside an earlier object
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_OBJECT, "company"),
+                Instruction.of(Command.MOVE_INTO_FIELD, "name"),
+                Instruction.of(Command.STORE_ELEMENT, mapper.createObjectNode().put("email", "legal@acme.com")),
+                Instruction.of(Command.POP_ELEMENT),
+                // New array slots appended after the existing elements
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_ARRAY, "users"),
+                Instruction.of(Command.MOVE_INTO_INDEX, 3),
+                Instruction.of(Command.MOVE_INTO_FIELD, "email"),
+                Instruction.of(Command.STORE_ELEMENT, mapper.valueToTree("last@acme.com")),
+                Instruction.of(Command.POP_ELEMENT)
+        ));
+
+        assertTrue(index.isBuilt());
+        List<JsonNode> emails = index.lookup("email");
+        assertEquals(FieldIndex.scan(testData, "email"), emails);
+        assertEquals(6, emails.size());
+        assertEquals("legal@acme.com", emails.get(0).asText());
+        assertEquals("john@work.com", emails.get(3).asText());
+        assertEquals("last@acme.com", emails.get(5).asText());
+    }
+
+    @Test
+    void testDescendantMove() {
+        List<Instruction> instructions = JsonPathTransformer.generateMoveInstructions(
+                "$..email",
+                "$.allEmails[*]",
+                Map.of("info@acme.com", mapper.valueToTree("sales@acme.com"))
+        );
+
+        JsonTransformationMachine machine = new JsonTransformationMachine(testData);
+        machine.enableFieldIndex();
+        JsonNode result = machine.execute(instructions);
+
+        ArrayNode emails = (ArrayNode) result.get("allEmails");
+        assertEquals(3, emails.size());
+        assertEquals("sales@acme.com", emails.get(0).asText());
+        assertEquals("jane@acme.com", emails.get(2).asText());
+    }
+}
@@ -0,0 +1,115 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalTransformerTest {
+    private ObjectMapper mapper;
+    private List<Move> moves;
+    private IncrementalTransformer transformer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mapper = new ObjectMapper();
+        moves = List.of(
+                Move.of("$.users[*].email", "$.contactInfo[*].email"),
+                Move.of("$.employees[*].email", "$.contactInfo[*+$.users].email"),
+                Move.of("$.company.name", "$.info.companyName")
+        );
+        transformer = new IncrementalTransformer(moves);
+        transformer.transform(createDocument());
+    }
+
+    private JsonNode createDocument() throws Exception {
+        return mapper.readTree("{\"company\":{\"name\":\"Acme\"}," +
+                "\"users\":[{\"email\":\"a@test.com\"},{\"email\":\"b@test.com\"}]," +
+                "\"employees\":[{\"email\":\"c@test.com\"}]}");
+    }
+
+    private JsonNode fullRun(JsonNode patch) throws Exception {
+        JsonNode document = createDocument();
+        JsonPatch.apply(document, patch);
+        return new IncrementalTransformer(moves).transform(document);
+    }
+
+    @Test
+    void testElementChangeRerunsOnlyAffectedMove() throws Exception {
+        JsonNode patch = mapper.readTree("[{\"op\":\"replace\",\"path\":\"/users/1/email\",\"value\":\"new@test.com\"}]");
+
+        JsonNode result = transformer.applyPatch(patch);
+
+        assertEquals(List.of(0), transformer.getLastRerunMoves());
+        assertEquals("new@test.com", result.get("contactInfo").get(1).get("email").asText());
+        assertEquals(fullRun(patch), result);
+    }
+
+    @Test
+    void testStructuralChangeRerunsDependentMoves() throws Exception {
+        JsonNode patch = mapper.readTree("[{\"op\":\"add\",\"path\":\"/users/-\",\"value\":{\"email\":\"d@test.com\"}}]");
+
+        JsonNode result = transformer.applyPatch(patch);
+
+        assertEquals(List.of(0, 1), transformer.getLastRerunMoves());
+        assertEquals("c@test.com", result.get("contactInfo").get(3).get("email").asText());
+        assertEquals(fullRun(patch), result);
+    }
+
+    @Test
+    void testRemovalDropsStaleTargetElements() throws Exception {
+        JsonNode patch = mapper.readTree("[{\"op\":\"remove\",\"path\":\"/users/1\"}]");
+
+        JsonNode result = transformer.applyPatch(patch);
+
+        assertEquals(mapper.readTree("[{\"email\":\"a@test.com\"},{\"email\":\"c@test.com\"}]"),
+                result.get("contactInfo"));
+        assertEquals(fullRun(patch), result);
+    }
+
+    @Test
+    void testShrinkingEveryMoveClearsItsTargets() throws Exception {
+        JsonNode patch = mapper.readTree("[{\"op\":\"remove\",\"path\":\"/employees/0\"}]");
+        JsonNode result = transformer.applyPatch(patch);
+        assertEquals(List.of(1), transformer.getLastRerunMoves());
+        assertEquals(2, result.get("contactInfo").size());
+        assertEquals(fullRun(patch), result);
+
+        JsonNode both = mapper.readTree("[{\"op\":\"remove\",\"path\":\"/employees/0\"},"
+                + "{\"op\":\"replace\",\"path\":\"/users\",\"value\":[]}]");
+        transformer.transform(createDocument());
+        result = transformer.applyPatch(both);
+        assertFalse(result.has("contactInfo"));
+        assertEquals(fullRun(both), result);
+    }
+
+    @Test
+    void testUnrelatedChangeRerunsNothing() throws Exception {
+        JsonNode patch = mapper.readTree("[{\"op\":\"add\",\"path\":\"/meta\",\"value\":1}]");
+
+        transformer.applyPatch(patch);
+
+        assertTrue(transformer.getLastRerunMoves().isEmpty());
+    }
+
+    @Test
+    void testPatchOperations() throws Exception {
+        JsonNode document = mapper.readTree("{\"a\":{\"b\":1},\"list\":[1,2,3]}");
+        JsonNode patch = mapper.readTree("[" +
+                "{\"op\":\"test\",\"path\":\"/a/b\",\"value\":1}," +
+                "{\"op\":\"copy\",\"from\":\"/a\",\"path\":\"/c\"}," +
+                "{\"op\":\"move\",\"from\":\"/list/0\",\"path\":\"/first\"}," +
+                "{\"op\":\"remove\",\"path\":\"/a\"}]");
+
+        List<List<String>> changed = JsonPatch.apply(document, patch);
+
+        assertEquals(mapper.readTree("{\"list\":[2,3],\"c\":{\"b\":1},\"first\":1}"), document);
+        assertEquals(List.of(List.of("c"), List.of("list"), List.of("first"), List.of("a")), changed);
+        assertThrows(JsonPatch.JsonPatchException.class, () ->
+                JsonPatch.apply(document, mapper.readTree("[{\"op\":\"test\",\"path\":\"/first\",\"value\":2}]")));
+    }
+}
@@ -1,5 +1,6 @@
 package org.example;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -48,6 +49,31 @@ class JsonPathParserTest {
         assertEquals("book", components.get(1).getField());
     }
 
+    @Test
+    void testParseSlices() throws JsonPathParser.JsonPathParseException {
+        PathComponent range = JsonPathParser.parse("$.book[-3::2]").get(0);
+        assertEquals(PathComponent.Type.ARRAY_RANGE, range.getType());
+        assertEquals(-3, range.getStartIndex());
+        assertNull(range.getEndIndex());
+        assertEquals(2, range.getStep());
+        assertEquals("book[-3::2]", range.toString());
+
+        IndexSelection selection = IndexSelection.of(range);
+        assertEquals(2, selection.count(5));
+        assertEquals(4, selection.indexAt(1, 5));
+        assertEquals(3, IndexSelection.of(JsonPathParser.parse("$.book[::-1]").get(0)).count(3));
+        assertEquals(List.of(1, -1), JsonPathParser.parse("$.book[1,-1]").get(0).getIndices());
+        IndexSelection listed = IndexSelection.of(JsonPathParser.parse("$.book[1,7,-1,-9,0]").get(0));
+        assertEquals(3, listed.count(5));
+        assertEquals(4, listed.indexAt(1, 5));
+        assertEquals(0, listed.indexAt(2, 5));
+        assertEquals(2, listed.indexAt(1, 3));
+        assertEquals(7, listed.indexAt(1, 8));
+        assertThrows(IndexOutOfBoundsException.class, () -> listed.indexAt(3, 5));
+        assertThrows(JsonPathParser.JsonPathParseException.class, () -> JsonPathParser.parse("$.book[1:2:0]"));
+        assertThrows(JsonPathParser.JsonPathParseException.class, () -> JsonPathParser.parse("$.book[1:2:3:4]"));
+    }
+
     @Test
     void testGenerateMoveInstructions() throws JsonPathParser.JsonPathParseException {
         String sourcePath = "$.store.book[*].title";
@@ -68,4 +94,35 @@ class JsonPathParserTest {
         assertFalse(instructions.isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testParseFilter() throws Exception {
+        List<PathComponent> components = JsonPathParser.parse(
+                "$.team.users[?(@.role == 'dev.ops]' && (@.age > 30 || !@['on leave']) && @.tags[0] != null)].email");
+        assertEquals(3, components.size());
+        PathComponent filter = components.get(1);
+        assertEquals(PathComponent.Type.ARRAY_FILTER, filter.getType());
+        assertEquals("users", filter.getField());
+        assertEquals("email", components.get(2).getField());
+        assertEquals(List.of(List.of("role"), List.of("age"), List.of("on leave"), List.of("tags", "0")),
+                filter.getFilter().getPaths());
+
+        ObjectMapper mapper = new ObjectMapper();
+        FilterExpression expression = filter.getFilter();
+        assertTrue(expression.test(mapper.readTree("{\"role\":\"dev.ops]\",\"age\":31,\"tags\":[\"a\"]}")));
+        assertTrue(expression.test(mapper.readTree("{\"role\":\"dev.ops]\",\"age\":20,\"tags\":[1]}")));
+        assertFalse(expression.test(mapper.readTree("{\"role\":\"dev.ops]\",\"age\":20,\"on leave\":true,\"tags\":[1]}")));
+        assertFalse(expression.test(mapper.readTree("{\"role\":\"dev.ops]\",\"age\":31,\"tags\":[null]}")));
+        assertFalse(expression.test(mapper.readTree("{\"role\":\"qa\",\"age\":31,\"tags\":[\"a\"]}")));
+
+        FilterExpression numbers = FilterExpression.compile("30 <= @ && @ < 30.5 && @ != 30.25");
+        assertTrue(numbers.test(mapper.readTree("30")));
+        assertTrue(numbers.test(mapper.readTree("30.0")));
+        assertFalse(numbers.test(mapper.readTree("30.25")));
+        assertFalse(numbers.test(mapper.readTree("\"30\"")));
+        assertTrue(FilterExpression.compile("@.a < @.b").test(mapper.readTree("{\"a\":1,\"b\":1.5}")));
+
+        assertThrows(JsonPathParser.JsonPathParseException.class, () -> JsonPathParser.parse("$.users[?(@.a ==)]"));
+        assertThrows(JsonPathParser.JsonPathParseException.class, () -> FilterExpression.compile("@.a > true"));
+        assertThrows(JsonPathParser.JsonPathParseException.class, () -> FilterExpression.compile("'x'"));
+    }
+}
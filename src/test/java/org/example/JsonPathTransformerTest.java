@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -181,6 +182,136 @@ class JsonPathTransformerTest {
         });
     }
 
+    @Test
+    void testColumnCopyMatchesElementWiseMoves() {
+        List<Instruction> instructions = JsonPathTransformer.generateMoveInstructions(
+                "$.employees[*].email",
+                "$.contactInfo[*+$.users].email",
+                Map.of("bob@test.com", mapper.valueToTree("robert@test.com"))
+        );
+        assertTrue(instructions.stream().anyMatch(i -> i.getCommand() == Command.PUSH_COLUMN));
+        assertTrue(instructions.stream().noneMatch(i -> i.getCommand() == Command.LOOP_UNTIL));
+
+        JsonNode result = executeInstructions(instructions);
+
+        JsonTransformationMachine machine = new JsonTransformationMachine(testData.deepCopy());
+        JsonNode expected = null;
+        for (int i = 0; i < 2; i++) {
+            expected = machine.execute(JsonPathTransformer.generateElementMoveInstructions(
+                    JsonPathParser.parse("$.employees[*].email"),
+                    JsonPathParser.parse("$.contactInfo[*+$.users].email"),
+                    Map.of("bob@test.com", mapper.valueToTree("robert@test.com")), i));
+        }
+        assertEquals(expected, result);
+        assertEquals("robert@test.com", result.get("contactInfo").get(2).get("email").asText());
+        assertEquals(0, result.get("contactInfo").get(0).size());
+    }
+
+    @Test
+    void testColumnCopyBeyondLoopLimit() {
+        ArrayNode users = testData.putArray("users");
+        for (int i = 0; i < 20000; i++) {
+            users.addObject().put("email", "user" + i + "@test.com");
+        }
+        List<Instruction> instructions = JsonPathTransformer.generateMoveInstructions(
+                "$.users[*].email", "$.contactInfo[*].email", null);
+
+        JsonNode result = executeInstructions(instructions);
+
+        assertEquals(20000, result.get("contactInfo").size());
+        assertEquals("user19999@test.com", result.get("contactInfo").get(19999).get("email").asText());
+    }
+
+    @Test
+    void testSlicedSourcesVisitOnlySelectedElements() {
+        ArrayNode users = testData.putArray("users");
+        for (int i = 0; i < 100_000; i++) {
+            users.addObject().put("email", "user" + i + "@test.com");
+        }
+        String[][] cases = {
+                {"$.users[0:3].email", "user0,user1,user2"},
+                {"$.users[-2:].email", "user99998,user99999"},
+                {"$.users[:-3:-1].email", "user99999,user99998"},
+                {"$.users[10:20:4].email", "user10,user14,user18"},
+                {"$.users[5,-1,200000].email", "user5,user99999"},
+                {"$.users[3:1].email", ""}
+        };
+        for (String[] slice : cases) {
+            JsonNode result = executeInstructions(JsonPathTransformer.generateMoveInstructions(
+                    slice[0], "$.picked[*].email", null));
+            List<String> picked = new ArrayList<>();
+            result.path("picked").forEach(node -> picked.add(node.get("email").asText().replace("@test.com", "")));
+            assertEquals(slice[1], String.join(",", picked), slice[0]);
+            testData.remove("picked");
+        }
+    }
+
+    @Test
+    void testSlicedSourceInElementLoop() {
+        ArrayNode users = testData.putArray("users");
+        for (int i = 0; i < 3; i++) {
+            users.addObject().put("email", "user" + i + "@test.com");
+        }
+
+        // The target appends to the source array, so the per-element loop is used
+        JsonNode result = executeInstructions(JsonPathTransformer.generateMoveInstructions(
+                "$.users[:2].email", "$.users[*+$.users].email", null));
+
+        assertEquals(5, result.get("users").size());
+        assertEquals("user1@test.com", result.get("users").get(4).get("email").asText());
+        assertThrows(IllegalArgumentException.class, () -> JsonPathTransformer.generateMoveInstructions(
+                "$.users[*].email", "$.picked[0:2].email", null));
+    }
+
+    @Test
+    void testColumnCopyOfEmptyArrayCreatesNoTarget() {
+        testData.putArray("users");
+
+        JsonNode result = executeInstructions(JsonPathTransformer.generateMoveInstructions(
+                "$.users[*].email", "$.contactInfo[*].email", null));
+
+        assertFalse(result.has("contactInfo"));
+    }
+
+    @Test
+    void testBroadcastElement() {
+        List<Instruction> instructions = JsonPathTransformer.generateMoveInstructions(
+                "$.company.name", "$.employees[*].companyName", null);
+        assertTrue(instructions.stream().anyMatch(i -> i.getCommand() == Command.BROADCAST_ELEMENT));
+
+        JsonNode result = executeInstructions(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "employees"),
+                Instruction.of(Command.STORE_ELEMENT, mapper.valueToTree("ACME")),
+                Instruction.of(Command.BROADCAST_ELEMENT, List.of("org", "name"))));
+        JsonNode moved = executeInstructions(instructions);
+
+        assertEquals("ACME", result.get("employees").get(1).get("org").get("name").asText());
+        assertEquals("Test Corp", moved.get("employees").get(0).get("companyName").asText());
+        assertEquals("Test Corp", moved.get("employees").get(1).get("companyName").asText());
+    }
+
+    @Test
+    void testFilteredPatternMove() {
+        ((ObjectNode) testData.get("users").get(1)).put("age", 41);
+        List<Instruction> instructions = JsonPathTransformer.generateMoveInstructions(
+                "$.users[?(@.role == 'qa' || @.age > 40)].email", "$.contactInfo[*].email", null);
+        assertTrue(instructions.stream().anyMatch(i -> i.getCommand() == Command.PUSH_COLUMN));
+
+        JsonNode result = executeInstructions(instructions);
+        assertEquals(1, result.get("contactInfo").size());
+        assertEquals("jane@test.com", result.at("/contactInfo/0/email").asText());
+
+        Move move = Move.of("$.users[?(@.role != 'qa')]", "$.others[*+$.contactInfo]");
+        assertTrue(move.getSizeReadPaths().contains(List.of("users", AccessPaths.ANY, "role")));
+        result = new JsonTransformationMachine(result).execute(move.compile());
+        assertEquals("John", result.at("/others/1/name").asText());
+
+        assertThrows(IllegalArgumentException.class, () -> JsonPathTransformer.generateMoveInstructions(
+                "$.users[*].email", "$.contactInfo[?(@.email)].email", null));
+        assertThrows(IllegalArgumentException.class, () -> JsonPathTransformer.generateMoveInstructions(
+                "$.users[?(@.age)].email", "$.users[*].contact", null));
+    }
+
     private JsonNode executeInstructions(List<Instruction> instructions) {
         JsonTransformationMachine machine = new JsonTransformationMachine(testData.deepCopy());
         return machine.execute(instructions);
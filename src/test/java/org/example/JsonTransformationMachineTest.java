@@ -4,14 +4,21 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -308,7 +315,372 @@ class JsonTransformationMachineTest {
         JsonTransformationMachine machine = new JsonTransformationMachine(inputJson);
         JsonNode result = machine.execute(instructions);
         assertEquals("2024-12-12 17:32",result.get("dateTime").asText());
+
+        result = new JsonTransformationMachine(mapper.readTree(jsonString)).execute(Program.of(List.of(
+                Instruction.of(Command.STORE_VALUE, 1734024732045L),
+                Instruction.of(Command.STORE_VALUE, "iso"),
+                Instruction.of(Command.FORMAT_TIME, "ms", "Europe/Paris"),
+                Instruction.of(Command.VALUE_TO_ELEMENT),
+                Instruction.of(Command.MOVE_INTO_FIELD, "dateTime"),
+                Instruction.of(Command.POP_ELEMENT))));
+        assertEquals("2024-12-12T18:32:12.045+01:00", result.get("dateTime").asText());
     }
 
+    @Test
+    void testTimeColumnConversion() throws Exception {
+        JsonNode inputJson = mapper.readTree(
+                "{\"events\": [{\"at\": {\"ms\": 1734024732045}}, {\"at\": {}}, {\"at\": {\"ms\": \"0\"}}]}");
+
+        JsonNode result = new JsonTransformationMachine(inputJson).execute(Program.of(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "events"),
+                Instruction.of(Command.FORMAT_TIME_ARRAY, List.of("at", "ms"), "iso", "ms", "+01:00"))));
+        assertEquals("2024-12-12T18:32:12.045+01:00", result.at("/events/0/at/ms").asText());
+        assertTrue(result.at("/events/1/at").isEmpty());
+        assertEquals("1970-01-01T01:00:00.000+01:00", result.at("/events/2/at/ms").asText());
+
+        result = new JsonTransformationMachine(result).execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "events"),
+                Instruction.of(Command.TO_TIMESTAMP_ARRAY, List.of("at", "ms"), "iso")));
+        assertEquals(1734024732L, result.at("/events/0/at/ms").asLong());
+        assertTrue(result.at("/events/0/at/ms").isIntegralNumber());
+
+        assertThrows(IllegalArgumentException.class, () -> Program.of(List.of(
+                Instruction.of(Command.FORMAT_TIME_ARRAY, List.of("at"), "iso", "ns"))));
+        assertThrows(IllegalArgumentException.class, () -> Program.of(List.of(
+                Instruction.of(Command.TO_TIMESTAMP, "s", "Mars/Olympus"))));
+    }
+
+    @Test
+    void testConcatParts() throws Exception {
+        JsonNode result = new JsonTransformationMachine(mapper.readTree("{\"last\": \"Doe\", \"id\": 42}")).execute(List.of(
+                Instruction.of(Command.MOVE_INTO_FIELD, "last"),
+                Instruction.of(Command.PUSH_ELEMENT),
+                Instruction.of(Command.ELEMENT_TO_VALUE),
+                Instruction.of(Command.STORE_VALUE, ", "),
+                Instruction.of(Command.STORE_VALUE, "Jane"),
+                Instruction.of(Command.CONCAT, 3),
+                Instruction.of(Command.STORE_VALUE, "#"),
+                Instruction.of(Command.STORE_VALUE, (Object) null),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_FIELD, "id"),
+                Instruction.of(Command.PUSH_ELEMENT),
+                Instruction.of(Command.ELEMENT_TO_VALUE),
+                Instruction.of(Command.CONCAT, 4),
+                Instruction.of(Command.STORE_VALUE, "!"),
+                Instruction.of(Command.CONCAT),
+                Instruction.of(Command.VALUE_TO_ELEMENT),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_FIELD, "display"),
+                Instruction.of(Command.POP_ELEMENT)
+        ));
+
+        assertEquals("Doe, Jane#42!", result.get("display").asText());
+        assertTrue(result.get("display").isTextual());
 
-}
\ No newline at end of file
+        result = new JsonTransformationMachine(mapper.createObjectNode()).execute(Program.of(List.of(
+                Instruction.of(Command.STORE_VALUE, "id-"),
+                Instruction.of(Command.STORE_VALUE, 42),
+                Instruction.of(Command.CONCAT),
+                Instruction.of(Command.VALUE_TO_ELEMENT),
+                Instruction.of(Command.MOVE_INTO_FIELD, "key"),
+                Instruction.of(Command.POP_ELEMENT))));
+        assertEquals("id-42", result.get("key").asText());
+
+        assertThrows(RuntimeException.class, () -> new JsonTransformationMachine(mapper.createObjectNode()).execute(
+                List.of(Instruction.of(Command.STORE_VALUE, "a"), Instruction.of(Command.CONCAT, 3))));
+        assertThrows(IllegalArgumentException.class, () -> Program.of(List.of(Instruction.of(Command.CONCAT, 1))));
+        assertThrows(IllegalArgumentException.class, () -> Program.of(List.of(Instruction.of(Command.CONCAT, "3"))));
+    }
+
+    @Test
+    void testMergePatch() throws Exception {
+        JsonNode inputJson = mapper.readTree("{\"config\": {\"title\": \"Goodbye!\", " +
+                "\"author\": {\"givenName\": \"John\", \"familyName\": \"Doe\"}, " +
+                "\"tags\": [\"example\", \"sample\"], \"content\": \"This will be unchanged\"}}");
+        JsonNode author = inputJson.get("config").get("author");
+        JsonNode patch = mapper.readTree("{\"title\": \"Hello!\", \"phoneNumber\": \"+01-123-456-7890\", " +
+                "\"author\": {\"familyName\": null}, \"tags\": [\"example\"], \"extra\": {\"a\": null, \"b\": 1}}");
+
+        JsonNode result = new JsonTransformationMachine(inputJson).execute(Program.of(List.of(
+                Instruction.of(Command.MOVE_INTO_OBJECT, "config"),
+                Instruction.of(Command.MERGE_PATCH, patch))));
+
+        assertEquals(mapper.readTree("{\"title\": \"Hello!\", \"author\": {\"givenName\": \"John\"}, " +
+                "\"tags\": [\"example\"], \"content\": \"This will be unchanged\", " +
+                "\"phoneNumber\": \"+01-123-456-7890\", \"extra\": {\"b\": 1}}"), result.get("config"));
+        assertSame(author, result.get("config").get("author"));
+
+        // A non-object patch replaces the target; the patch can also come from the element stack
+        result = new JsonTransformationMachine(result).execute(List.of(
+                Instruction.of(Command.STORE_ELEMENT, mapper.readTree("[1, 2]")),
+                Instruction.of(Command.MOVE_INTO_OBJECT, "config"),
+                Instruction.of(Command.MOVE_INTO_FIELD, "author"),
+                Instruction.of(Command.MERGE_PATCH)));
+        assertEquals(mapper.readTree("[1, 2]"), result.get("config").get("author"));
+    }
+
+    @Test
+    void testReserveArrayAndGapFill() throws Exception {
+        JsonNode inputJson = mapper.readTree("{\"list\": [1]}");
+        JsonTransformationMachine machine = new JsonTransformationMachine(inputJson);
+
+        machine.execute(Program.of(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "list"),
+                Instruction.of(Command.RESERVE_ARRAY, 3),
+                Instruction.of(Command.RESERVE_ARRAY, 5, JsonTransformationMachine.GapFill.NULL),
+                Instruction.of(Command.RESERVE_ARRAY, 2))));
+        assertEquals(mapper.readTree("[1, {}, {}, null, null]"), inputJson.get("list"));
+
+        machine.reset(inputJson);
+        machine.setGapFill(JsonTransformationMachine.GapFill.NULL);
+        machine.execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "list"),
+                Instruction.of(Command.MOVE_INTO_INDEX, 8),
+                Instruction.of(Command.MOVE_INTO_FIELD, "a"),
+                Instruction.of(Command.STORE_ELEMENT, mapper.readTree("7")),
+                Instruction.of(Command.POP_ELEMENT)));
+        assertEquals(mapper.readTree("[1, {}, {}, null, null, null, null, null, {\"a\": 7}]"), inputJson.get("list"));
+    }
+
+    @Test
+    void testSortAndDistinct() throws Exception {
+        JsonNode inputJson = mapper.readTree("{\"users\": ["
+                + "{\"name\": \"c\", \"age\": 30}, {\"name\": \"a\", \"age\": 25.5}, {\"name\": \"b\"},"
+                + "{\"name\": \"d\", \"age\": 30}, {\"name\": \"e\", \"age\": \"x\"}, {\"name\": \"a\", \"age\": 30.0}],"
+                + "\"tags\": [\"b\", \"a\", \"b\", 1, 1.0, null]}");
+        JsonTransformationMachine machine = new JsonTransformationMachine(inputJson);
+
+        machine.execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "users"),
+                Instruction.of(Command.SORT_ARRAY, List.of("age"))));
+        // Missing first, numbers by value, then strings; ties keep their order
+        assertEquals("b,a,c,d,a,e", names(inputJson.get("users")));
+
+        machine.reset(inputJson);
+        machine.execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "users"),
+                Instruction.of(Command.DISTINCT, List.of("age")),
+                Instruction.of(Command.SORT_ARRAY, List.of("name"), List.of("age"))));
+        assertEquals("a,b,c,e", names(inputJson.get("users")));
+
+        machine.reset(inputJson);
+        machine.execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "tags"),
+                Instruction.of(Command.DISTINCT),
+                Instruction.of(Command.SORT_ARRAY)));
+        assertEquals(mapper.readTree("[null, 1, \"a\", \"b\"]"), inputJson.get("tags"));
+    }
+
+    @Test
+    void testSortSpillsRunsToDisk() {
+        ArrayNode values = mapper.createArrayNode();
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            values.addObject().put("key", random.nextInt(50)).put("seq", i);
+        }
+        JsonNode inputJson = mapper.createObjectNode().set("values", values);
+        JsonTransformationMachine machine = new JsonTransformationMachine(inputJson);
+        machine.setSortRunSize(64);
+
+        machine.execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "values"),
+                Instruction.of(Command.SORT_ARRAY, List.of("key"))));
+
+        JsonNode sorted = inputJson.get("values");
+        assertEquals(1000, sorted.size());
+        for (int i = 1; i < sorted.size(); i++) {
+            JsonNode previous = sorted.get(i - 1);
+            JsonNode current = sorted.get(i);
+            assertTrue(previous.get("key").asInt() < current.get("key").asInt()
+                    || previous.get("key").asInt() == current.get("key").asInt()
+                    && previous.get("seq").asInt() < current.get("seq").asInt());
+        }
+    }
+
+    @Test
+    void testSpilledSortKeepsOriginalNodes() {
+        ArrayNode decimals = mapper.createArrayNode();
+        ArrayNode records = mapper.createArrayNode();
+        for (String text : List.of("3.10", "1.10", "2.00")) {
+            decimals.add(DecimalNode.valueOf(new BigDecimal(text)));
+            records.addObject().set("price", DecimalNode.valueOf(new BigDecimal(text)));
+        }
+        List<JsonNode> originals = new ArrayList<>();
+        records.forEach(originals::add);
+        ObjectNode inputJson = mapper.createObjectNode();
+        inputJson.set("decimals", decimals);
+        inputJson.set("records", records);
+        JsonTransformationMachine machine = new JsonTransformationMachine(inputJson);
+        machine.setSortRunSize(2);
+
+        machine.execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "decimals"),
+                Instruction.of(Command.SORT_ARRAY),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_ARRAY, "records"),
+                Instruction.of(Command.SORT_ARRAY, List.of("price"))));
+
+        assertEquals("[1.10,2.00,3.10]", inputJson.get("decimals").toString());
+        assertTrue(inputJson.get("decimals").get(0).isBigDecimal());
+        assertSame(originals.get(1), inputJson.get("records").get(0));
+        assertSame(originals.get(2), inputJson.get("records").get(1));
+        assertSame(originals.get(0), inputJson.get("records").get(2));
+        assertEquals("1.10", inputJson.get("records").get(0).get("price").toString());
+    }
+
+    private String names(JsonNode users) {
+        List<String> names = new ArrayList<>();
+        users.forEach(user -> names.add(user.get("name").asText()));
+        return String.join(",", names);
+    }
+
+    @Test
+    void testAggregations() throws Exception {
+        JsonNode inputJson = mapper.readTree("{\"orders\": ["
+                + "{\"total\": {\"amount\": 10}}, {\"total\": {\"amount\": 32}}, {\"total\": {}},"
+                + "{\"total\": {\"amount\": \"n/a\"}}, {\"total\": {\"amount\": -4}}, {\"total\": {\"amount\": 7}}],"
+                + "\"prices\": [1.5, 2, 4.25], \"empty\": []}");
+        JsonTransformationMachine machine = new JsonTransformationMachine(inputJson);
+        List<String> amount = List.of("total", "amount");
+
+        machine.execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "orders"),
+                Instruction.of(Command.SUM, amount),
+                Instruction.of(Command.AVG, amount),
+                Instruction.of(Command.MIN, amount),
+                Instruction.of(Command.MAX, amount),
+                Instruction.of(Command.COUNT, amount),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_ARRAY, "prices"),
+                Instruction.of(Command.SUM),
+                Instruction.of(Command.MIN),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_ARRAY, "empty"),
+                Instruction.of(Command.MAX),
+                Instruction.of(Command.SUM)));
+
+        assertEquals(0L, machine.peekValueStack(0));
+        assertNull(machine.peekValueStack(1));
+        assertEquals(1.5, machine.peekValueStack(2));
+        assertEquals(7.75, machine.peekValueStack(3));
+        assertEquals(5, machine.peekValueStack(4));
+        assertEquals(32L, machine.peekValueStack(5));
+        assertEquals(-4L, machine.peekValueStack(6));
+        assertEquals(11.25, machine.peekValueStack(7));
+        assertEquals(45L, machine.peekValueStack(8));
+
+        ArrayNode large = mapper.createArrayNode();
+        large.add(Long.MAX_VALUE).add(Long.MAX_VALUE).add(-Long.MAX_VALUE);
+        machine.reset(mapper.createObjectNode().set("large", large));
+        machine.execute(List.of(Instruction.of(Command.MOVE_INTO_ARRAY, "large"), Instruction.of(Command.SUM)));
+        assertEquals((double) Long.MAX_VALUE, ((Number) machine.peekValueStack(0)).doubleValue());
+    }
+
+    @Test
+    void testHashJoin() throws Exception {
+        // members is users padded with keyless elements, so it outgrows orders
+        JsonNode inputJson = mapper.readTree("{\"users\": ["
+                + "{\"id\": 1, \"name\": \"Ann\"}, {\"id\": 2, \"name\": \"Bob\"}, {\"id\": 2, \"name\": \"Bea\"}],"
+                + "\"members\": [{\"id\": 1, \"name\": \"Ann\"}, {\"id\": 2, \"name\": \"Bob\"},"
+                + "{\"id\": 2, \"name\": \"Bea\"}, {\"name\": \"Nobody\"}, {\"id\": null, \"name\": \"Nil\"}],"
+                + "\"orders\": [{\"userId\": 2, \"total\": 5}, {\"userId\": 1.0, \"total\": 7},"
+                + "{\"userId\": 2, \"total\": 9, \"name\": \"ignored\"}, {\"userId\": 4, \"total\": 1}]}");
+        JsonTransformationMachine machine = new JsonTransformationMachine(inputJson);
+
+        // users is smaller than orders, so its duplicate keys are indexed and orders probes them
+        JsonNode result = machine.execute(JsonPathTransformer.generateJoinInstructions(
+                "$.users[*].id", "$.orders[*].userId", "$.report.rows", JsonTransformationMachine.JoinType.INNER));
+        JsonNode expected = mapper.readTree("["
+                + "{\"id\": 1, \"name\": \"Ann\", \"userId\": 1.0, \"total\": 7},"
+                + "{\"id\": 2, \"name\": \"Bob\", \"userId\": 2, \"total\": 5},"
+                + "{\"id\": 2, \"name\": \"Bob\", \"userId\": 2, \"total\": 9},"
+                + "{\"id\": 2, \"name\": \"Bea\", \"userId\": 2, \"total\": 5},"
+                + "{\"id\": 2, \"name\": \"Bea\", \"userId\": 2, \"total\": 9}]");
+        assertEquals(expected, result.at("/report/rows"));
+
+        // members is larger than orders, so orders is indexed instead; keyless elements drop out
+        result = machine.execute(JsonPathTransformer.generateJoinInstructions(
+                "$.members[*].id", "$.orders[*].userId", "$.report.memberRows", JsonTransformationMachine.JoinType.INNER));
+        assertEquals(expected, result.at("/report/memberRows"));
+
+        // Unmatched left elements survive a left join, whichever side is indexed
+        result = machine.execute(JsonPathTransformer.generateJoinInstructions(
+                "$.orders[*].userId", "$.users[*].id", "$.enriched[*]", JsonTransformationMachine.JoinType.LEFT));
+        assertEquals(6, result.get("enriched").size());
+        assertEquals("Bob", result.at("/enriched/0/name").asText());
+        assertEquals("Bea", result.at("/enriched/1/name").asText());
+        assertEquals("ignored", result.at("/enriched/3/name").asText());
+        assertEquals(mapper.readTree("{\"userId\": 4, \"total\": 1}"), result.at("/enriched/5"));
+        assertEquals(3, result.get("users").size());
+
+        result = machine.execute(JsonPathTransformer.generateJoinInstructions(
+                "$.orders[*].userId", "$.members[*].id", "$.enrichedMembers[*]", JsonTransformationMachine.JoinType.LEFT));
+        assertEquals(result.get("enriched"), result.get("enrichedMembers"));
+
+        assertThrows(IllegalArgumentException.class, () -> JsonPathTransformer.generateJoinInstructions(
+                "$.users[*]", "$.orders[*].userId", "$.rows", JsonTransformationMachine.JoinType.INNER));
+    }
+
+    @Test
+    void testGroupBy() throws Exception {
+        JsonNode inputJson = mapper.readTree("{\"users\": ["
+                + "{\"name\": \"Ann\", \"role\": \"developer\", \"level\": 2, \"salary\": 100},"
+                + "{\"name\": \"Bob\", \"role\": \"designer\", \"level\": 1, \"salary\": 80},"
+                + "{\"name\": \"Cy\", \"role\": \"developer\", \"level\": 2.0, \"salary\": 120.5},"
+                + "{\"name\": \"Di\", \"role\": \"developer\", \"level\": 1}, {\"name\": \"Ed\"}]}");
+        JsonTransformationMachine machine = new JsonTransformationMachine(inputJson);
+
+        JsonNode result = machine.execute(JsonPathTransformer.generateGroupByInstructions(
+                "$.users[*].role", "$.byRole", JsonTransformationMachine.GroupShape.OBJECT));
+        assertEquals(List.of("developer", "designer", "null"), List.copyOf(result.get("byRole").properties())
+                .stream().map(Map.Entry::getKey).toList());
+        assertEquals(3, result.at("/byRole/developer").size());
+        assertEquals("Di", result.at("/byRole/developer/2/name").asText());
+        assertEquals("Ed", result.at("/byRole/null/0/name").asText());
+
+        // Numeric keys group by value; aggregates are computed per group
+        Program program = Program.of(JsonPathTransformer.generateGroupByInstructions(
+                "$.users[*].level", "$.byLevel[*]", JsonTransformationMachine.GroupShape.ARRAY,
+                GroupAggregate.of(Command.SUM, "payroll", List.of("salary")),
+                GroupAggregate.of(Command.MAX, "top", List.of("salary")),
+                GroupAggregate.of(Command.COUNT, "paid", List.of("salary"))));
+        ByteArrayOutputStream bundle = new ByteArrayOutputStream();
+        ProgramBundle.write(Map.of("levels", program), bundle);
+        program = ProgramBundle.read(new ByteArrayInputStream(bundle.toByteArray())).get("levels");
+        result = machine.execute(program);
+        assertEquals("{\"level\":2,\"payroll\":220.5,\"top\":120.5,\"paid\":2}",
+                ((ObjectNode) result.at("/byLevel/0").deepCopy()).without("items").toString());
+        assertEquals("{\"level\":1,\"payroll\":80,\"top\":80,\"paid\":1}",
+                ((ObjectNode) result.at("/byLevel/1").deepCopy()).without("items").toString());
+        assertTrue(result.at("/byLevel/2/level").isNull());
+        assertTrue(result.at("/byLevel/2/top").isNull());
+        assertEquals(2, result.at("/byLevel/1/items").size());
+
+        machine.reset(inputJson);
+        result = machine.execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "users"),
+                Instruction.of(Command.GROUP_BY, JsonTransformationMachine.GroupShape.OBJECT,
+                        List.of("role"), List.of("level"), GroupAggregate.of(Command.AVG, "avg", List.of("salary"))),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_OBJECT, "nested"),
+                Instruction.of(Command.POP_ELEMENT)));
+        assertEquals(110.25, result.at("/nested/developer/2/avg").asDouble());
+        assertTrue(result.at("/nested/developer/1/avg").isNull());
+        assertEquals(5, result.get("users").size());
+
+        assertThrows(IllegalArgumentException.class, () -> Program.of(List.of(Instruction.of(Command.GROUP_BY,
+                JsonTransformationMachine.GroupShape.ARRAY, GroupAggregate.of(Command.SUM, "s", List.of())))));
+        assertThrows(IllegalArgumentException.class, () -> GroupAggregate.of(Command.SORT_ARRAY, "s", List.of()));
+
+        // Distinct keys with the same text cannot share a field of the OBJECT shape
+        for (String keys : List.of("1, \"1\"", "true, \"true\"", "null, \"null\"")) {
+            JsonNode tagged = mapper.readTree("{\"tags\": [{\"k\": " + keys.replace(", ", "}, {\"k\": ") + "}]}");
+            RuntimeException error = assertThrows(RuntimeException.class, () -> new JsonTransformationMachine(tagged)
+                    .execute(JsonPathTransformer.generateGroupByInstructions(
+                            "$.tags[*].k", "$.byKey", JsonTransformationMachine.GroupShape.OBJECT)));
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+            assertEquals(2, new JsonTransformationMachine(tagged).execute(JsonPathTransformer.generateGroupByInstructions(
+                    "$.tags[*].k", "$.byKey[*]", JsonTransformationMachine.GroupShape.ARRAY)).get("byKey").size());
+        }
+    }
+}
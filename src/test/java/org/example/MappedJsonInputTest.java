@@ -0,0 +1,104 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedJsonInputTest {
+    private static final String DOCUMENT = "{\"company\": {\"name\": \"Acme\"},\n" +
+            "  \"users\": [{\"email\": \"a@test.com\"}, {\"email\": \"b@test.com\"}],\n" +
+            "  \"archive\": {\"years\": [2019, 2020, {\"note\": \"not read\"}]},\n" +
+            "  \"big\": 12345678901234567890, \"small\": -7, \"ratio\": 1.5e3, \"flag\": true, \"none\": null,\n" +
+            "  \"text\": \"line\\nbreak \\\"quoted\\\" \\u00e9t\\u00e9 über\"}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testTransformsMappedFileWithoutDecodingUntouchedSubtrees(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("input.json");
+        Files.writeString(file, DOCUMENT, StandardCharsets.UTF_8);
+        JsonNode root = MappedJsonInput.open(file).root();
+
+        JsonTransformationMachine machine = new JsonTransformationMachine(root);
+        machine.execute(Move.compile(List.of(
+                Move.of("$.users[*].email", "$.contactInfo[*].email"),
+                Move.of("$.company.name", "$.info.companyName"))));
+
+        assertFalse(((LazyObjectNode) root.get("archive")).isMaterialized());
+        assertTrue(((LazyArrayNode) root.get("users")).isMaterialized());
+
+        JsonNode expected = mapper.readTree(DOCUMENT);
+        new JsonTransformationMachine(expected).execute(Move.compile(List.of(
+                Move.of("$.users[*].email", "$.contactInfo[*].email"),
+                Move.of("$.company.name", "$.info.companyName"))));
+        assertEquals(expected, mapper.readTree(mapper.writeValueAsBytes(root)));
+        assertEquals(expected, root);
+    }
+
+    @Test
+    void testDecodesLikeJackson() throws Exception {
+        JsonNode root = MappedJsonInput.wrap(DOCUMENT.getBytes(StandardCharsets.UTF_8)).root();
+
+        assertEquals(mapper.readTree(DOCUMENT), root);
+        assertEquals("line\nbreak \"quoted\" été über", root.get("text").asText());
+        assertTrue(root.get("big").isBigInteger());
+        assertTrue(root.get("small").isInt());
+    }
+
+    @Test
+    void testUntouchedContainersAreCopiedAndWrittenRaw() throws Exception {
+        JsonNode root = MappedJsonInput.wrap(DOCUMENT.getBytes(StandardCharsets.UTF_8)).root();
+        JsonNode archive = root.get("archive");
+
+        JsonNode copy = archive.deepCopy();
+
+        assertEquals("{\"years\": [2019, 2020, {\"note\": \"not read\"}]}", mapper.writeValueAsString(archive));
+        assertFalse(((LazyObjectNode) archive).isMaterialized());
+        assertEquals(archive, copy);
+    }
+
+    @Test
+    void testDecodedButUnchangedContainersAreWrittenRaw() throws Exception {
+        JsonNode root = MappedJsonInput.wrap(DOCUMENT.getBytes(StandardCharsets.UTF_8)).root();
+        JsonNode users = root.get("users");
+        JsonNode archive = root.get("archive");
+
+        new JsonTransformationMachine(root).execute(Move.compile(List.of(
+                Move.of("$.users[*].email", "$.contactInfo[*].email"),
+                Move.of("$.archive.years[2].note", "$.note"))));
+
+        assertTrue(((LazyArrayNode) users).isMaterialized());
+        assertTrue(((LazyArrayNode) users).isClean());
+        assertEquals("[{\"email\": \"a@test.com\"}, {\"email\": \"b@test.com\"}]", mapper.writeValueAsString(users));
+        assertTrue(users.deepCopy() instanceof LazyArrayNode);
+        // Only the path to a change is re-encoded
+        ((ObjectNode) archive.at("/years/2")).put("note", "read");
+        assertFalse(((LazyObjectNode) archive).isClean());
+        assertEquals("{\"years\":[2019,2020,{\"note\":\"read\"}]}", mapper.writeValueAsString(archive));
+        assertTrue(((LazyObjectNode) root.get("company")).isClean());
+
+        Iterator<Map.Entry<String, JsonNode>> fields = root.get("company").fields();
+        fields.next();
+        fields.remove();
+        assertEquals("{}", mapper.writeValueAsString(root.get("company")));
+    }
+
+    @Test
+    void testRejectsMalformedInput() {
+        assertThrows(JsonText.MalformedJsonException.class,
+                () -> MappedJsonInput.wrap("{\"a\": [1, 2}".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(JsonText.MalformedJsonException.class,
+                () -> MappedJsonInput.wrap("{\"a\": tru}".getBytes(StandardCharsets.UTF_8)).root().get("a"));
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelMoveExecutorTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode createDocument() throws Exception {
+        return mapper.readTree("{\"company\":{\"name\":\"Acme\"}," +
+                "\"users\":[{\"email\":\"a@test.com\"},{\"email\":\"b@test.com\"}]," +
+                "\"data\":{\"employees\":[{\"email\":\"c@test.com\"}]}," +
+                "\"meta\":{\"version\":1}}");
+    }
+
+    private JsonNode runSequentially(List<Move> moves, JsonNode document) {
+        JsonTransformationMachine machine = new JsonTransformationMachine(document);
+        return machine.execute(Move.compile(moves));
+    }
+
+    @Test
+    void testMatchesSequentialResult() throws Exception {
+        List<Move> moves = List.of(
+                Move.of("$.users[*].email", "$.contactInfo[*].email"),
+                Move.of("$.meta.version", "$.output.version"),
+                Move.of("$.data.employees[*].email", "$.contactInfo[*+$.users].email"),
+                Move.of("$.company.name", "$.info.companyName"),
+                Move.of("$.company.name", "$.contactInfo[*].companyName"),
+                Move.of("$.info.companyName", "$.summary.name")
+        );
+        ParallelMoveExecutor executor = new ParallelMoveExecutor(moves);
+
+        JsonNode expected = runSequentially(moves, createDocument());
+        JsonNode result = executor.execute(createDocument());
+
+        assertEquals(expected, result);
+        assertEquals(expected.toString(), result.toString());
+        assertEquals(List.of(List.of(List.of(0, 2, 3, 4, 5), List.of(1))), executor.getSchedule());
+    }
+
+    @Test
+    void testRecursiveDescentIsABarrier() throws Exception {
+        List<Move> moves = List.of(
+                Move.of("$.users[*].email", "$.contactInfo[*].email"),
+                Move.of("$.meta.version", "$.output.version"),
+                Move.of("$..email", "$.emails"),
+                Move.of("$.company.name", "$.info.companyName"),
+                Move.of("$.meta.version", "$.info2.version")
+        );
+        ParallelMoveExecutor executor = new ParallelMoveExecutor(moves);
+
+        assertEquals(List.of(
+                List.of(List.of(0), List.of(1)),
+                List.of(List.of(2)),
+                List.of(List.of(3), List.of(4))), executor.getSchedule());
+        assertEquals(runSequentially(moves, createDocument()).toString(),
+                executor.execute(createDocument()).toString());
+    }
+
+    @Test
+    void testManyIndependentSections() throws Exception {
+        StringBuilder json = new StringBuilder("{");
+        List<Move> moves = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            json.append(i == 0 ? "" : ",").append("\"in").append(i).append("\":{\"items\":[");
+            for (int j = 0; j < 20; j++) {
+                json.append(j == 0 ? "" : ",").append("{\"v\":").append(i * 100 + j).append("}");
+            }
+            json.append("]}");
+            moves.add(Move.of("$.in" + i + ".items[*].v", "$.out" + i + "[*].value"));
+        }
+        json.append("}");
+        ParallelMoveExecutor executor = new ParallelMoveExecutor(moves);
+
+        JsonNode result = executor.execute(mapper.readTree(json.toString()));
+
+        assertEquals(50, executor.getSchedule().get(0).size());
+        assertEquals(runSequentially(moves, mapper.readTree(json.toString())).toString(), result.toString());
+        assertEquals(4919, result.get("out49").get(19).get("value").asInt());
+    }
+}
@@ -0,0 +1,91 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgramBundleTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String SPEC = "{\"version\":1,"
+            + "\"mappings\":{\"status\":{\"A\":\"active\",\"I\":\"inactive\"}},"
+            + "\"transformations\":{"
+            + "\"contacts\":{\"moves\":["
+            + "{\"source\":\"$.users[*].email\",\"target\":\"$.contacts[*].email\"},"
+            + "{\"source\":\"$.users[*].state\",\"target\":\"$.contacts[*].status\",\"mapping\":\"status\"},"
+            + "{\"source\":\"$.company\",\"target\":\"$.contacts[*].company\"}]},"
+            + "\"recent\":{\"moves\":["
+            + "{\"source\":\"$.users[-2:]\",\"target\":\"$.recent[*]\"},"
+            + "{\"source\":\"$.users[0].state\",\"target\":\"$.firstStatus\",\"mapping\":{\"A\":1}}]}}}";
+
+    private static final String INPUT = "{\"company\":\"Acme\",\"users\":["
+            + "{\"email\":\"a@x.com\",\"state\":\"A\"},"
+            + "{\"email\":\"b@x.com\",\"state\":\"I\"},"
+            + "{\"email\":\"c@x.com\",\"state\":\"A\"}]}";
+
+    @Test
+    void testCompiledSpecRoundTrip() throws IOException {
+        TransformationSpec spec = TransformationSpec.parse(MAPPER.readTree(SPEC));
+        Map<String, Program> compiled = spec.compile();
+        assertEquals(List.of("contacts", "recent"), List.copyOf(spec.getNames()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgramBundle.write(compiled, out);
+        Map<String, Program> loaded = ProgramBundle.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(List.copyOf(compiled.keySet()), List.copyOf(loaded.keySet()));
+        for (String name : compiled.keySet()) {
+            assertEquals(compiled.get(name).toString(), loaded.get(name).toString());
+            assertEquals(run(compiled.get(name)), run(loaded.get(name)));
+        }
+        JsonNode contacts = run(loaded.get("contacts"));
+        assertEquals("inactive", contacts.at("/contacts/1/status").asText());
+        assertEquals("Acme", contacts.at("/contacts/2/company").asText());
+        JsonNode recent = run(loaded.get("recent"));
+        assertEquals(2, recent.get("recent").size());
+        assertEquals("b@x.com", recent.at("/recent/0/email").asText());
+        assertEquals(1, recent.get("firstStatus").asInt());
+    }
+
+    @Test
+    void testRejectsUnstorableAndForeignData() throws IOException {
+        Program filter = Program.of(List.of(
+                Instruction.of(Command.FILTER_ARRAY, (Predicate<JsonNode>) JsonNode::isTextual)));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProgramBundle.write(Map.of("filter", filter), new ByteArrayOutputStream()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgramBundle.write(Map.of("p", Program.of(List.of(Instruction.of(Command.STORE_VALUE, "x")))), out);
+        byte[] bytes = out.toByteArray();
+        bytes[7] = 99; // format version
+        assertThrows(ProgramBundle.InvalidBundleException.class,
+                () -> ProgramBundle.read(new ByteArrayInputStream(bytes)));
+        assertThrows(ProgramBundle.InvalidBundleException.class,
+                () -> ProgramBundle.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4})));
+    }
+
+    @Test
+    void testInvalidSpec() {
+        assertThrows(IllegalArgumentException.class, () -> TransformationSpec.parse(MAPPER.readTree(
+                "{\"transformations\":{\"t\":{\"moves\":[{\"source\":\"$.a\",\"target\":\"$.b\",\"mapping\":\"missing\"}]}}}")));
+        assertThrows(IllegalArgumentException.class, () -> TransformationSpec.parse(MAPPER.readTree(
+                "{\"transformations\":{\"t\":{\"moves\":[{\"source\":\"$.a[\",\"target\":\"$.b\"}]}}}")));
+        assertThrows(IllegalArgumentException.class, () -> TransformationSpec.parse(MAPPER.readTree(
+                "{\"version\":2,\"transformations\":{}}")));
+    }
+
+    private static JsonNode run(Program program) throws IOException {
+        JsonNode document = MAPPER.readTree(INPUT);
+        new JsonTransformationMachine(document).execute(program);
+        return document;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectedParserTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String INPUT = "{\"meta\":{\"id\":7,\"tags\":[\"a\",\"b\"]},"
+            + "\"payload\":{\"blob\":[1,2,{\"deep\":true}],\"text\":\"x\\u00e9\"},"
+            + "\"users\":[{\"email\":\"a@x.com\",\"profile\":{\"bio\":\"long\"}},{\"email\":\"b@x.com\",\"profile\":{}}],"
+            + "\"count\":3}";
+
+    private static final List<Move> MOVES = List.of(
+            Move.of("$.users[*].email", "$.contacts[*].email"),
+            Move.of("$.meta.id", "$.contacts[*].source"));
+
+    @Test
+    void testSkipsSubtreesOutsideProjection() throws Exception {
+        JsonNode root = new ProjectedParser(MOVES).parse(bytes(INPUT));
+
+        assertTrue(root.get("payload") instanceof LazyObjectNode);
+        assertFalse(((LazyObjectNode) root.get("payload")).isMaterialized());
+        assertTrue(root.at("/users/0/profile") instanceof LazyObjectNode);
+        assertTrue(root.at("/meta/tags") instanceof LazyArrayNode);
+        assertEquals("a@x.com", root.at("/users/0/email").asText());
+        assertEquals(MAPPER.readTree(INPUT), root);
+        // Skipped regions are decoded when touched
+        assertTrue(root.at("/payload/blob/2/deep").asBoolean());
+    }
+
+    @Test
+    void testTransformMatchesFullParse() throws Exception {
+        JsonNode projected = new ProjectedParser(MOVES).transform(bytes(INPUT));
+        JsonNode full = MAPPER.readTree(INPUT);
+        new JsonTransformationMachine(full).execute(Move.compile(MOVES));
+
+        String written = MAPPER.writeValueAsString(projected);
+        assertEquals(full, MAPPER.readTree(written));
+        // The untouched payload is copied from the input, escapes included
+        assertTrue(written.contains("\"text\":\"x\\u00e9\""));
+        assertEquals("b@x.com", projected.at("/contacts/1/email").asText());
+        assertFalse(((LazyObjectNode) projected.get("payload")).isMaterialized());
+    }
+
+    @Test
+    void testProjectsSizeReadPaths() throws Exception {
+        List<Move> moves = List.of(
+                Move.of("$.users[?(@.profile.bio)].email", "$.contacts[*+$.meta.tags].email"));
+        ProjectedParser parser = new ProjectedParser(moves);
+
+        assertTrue(parser.getProjection().contains(List.of("meta", "tags")));
+        assertTrue(parser.getProjection().contains(List.of("users", AccessPaths.ANY, "profile", "bio")));
+        JsonNode root = parser.parse(bytes(INPUT));
+        assertFalse(root.at("/meta/tags") instanceof LazyArrayNode);
+        assertFalse(root.at("/users/0/profile") instanceof LazyObjectNode);
+
+        JsonNode full = MAPPER.readTree(INPUT);
+        new JsonTransformationMachine(full).execute(Move.compile(moves));
+        JsonNode projected = parser.transform(bytes(INPUT));
+        assertEquals(full, projected);
+        assertEquals("a@x.com", projected.at("/contacts/2/email").asText());
+    }
+
+    @Test
+    void testDescendantMoveParsesEverything() throws Exception {
+        JsonNode root = new ProjectedParser(List.of(Move.of("$..email", "$.emails"))).parse(bytes(INPUT));
+
+        assertFalse(root.get("payload") instanceof LazyObjectNode);
+        assertThrows(Exception.class, () -> new ProjectedParser(MOVES).parse(bytes(INPUT + "{}")));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,90 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RopeArrayNodeTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ArrayNode range(int from, int to) {
+        ArrayNode array = mapper.createArrayNode();
+        for (int i = from; i < to; i++) {
+            array.add(i);
+        }
+        return array;
+    }
+
+    @Test
+    void testRepeatedConcatStaysBalanced() throws Exception {
+        JsonNode accumulated = mapper.createArrayNode();
+        int size = 0;
+        for (int part = 0; part < 5000; part++) {
+            int length = part % 7;
+            accumulated = RopeArrayNode.concat(JsonNodeFactory.instance, accumulated, range(size, size + length));
+            size += length;
+        }
+
+        assertEquals(range(0, size), accumulated);
+        assertEquals(mapper.writeValueAsString(range(0, size)), mapper.writeValueAsString(accumulated));
+        assertTrue(((RopeArrayNode) accumulated).depth() <= 2 * (32 - Integer.numberOfLeadingZeros(size)));
+        for (int i = 0; i < size; i += 97) {
+            assertEquals(i, accumulated.get(i).asInt());
+        }
+    }
+
+    @Test
+    void testConcatenationsShareButDoNotInterfere() {
+        RopeArrayNode base = RopeArrayNode.concat(JsonNodeFactory.instance, range(0, 100), range(100, 200));
+        RopeArrayNode first = RopeArrayNode.concat(JsonNodeFactory.instance, base, range(200, 210));
+        RopeArrayNode second = RopeArrayNode.concat(JsonNodeFactory.instance, base, range(500, 505));
+
+        first.set(5, mapper.getNodeFactory().textNode("changed"));
+        first.add(999);
+        second.insert(0, -1);
+        second.remove(200);
+        base.add(200);
+
+        assertEquals("changed", first.get(5).asText());
+        assertEquals(5, second.get(6).asInt());
+        assertEquals(5, base.get(5).asInt());
+        assertEquals(211, first.size());
+        assertEquals(205, second.size());
+        assertEquals(-1, second.get(0).asInt());
+        assertEquals(501, second.get(201).asInt());
+        assertEquals(201, base.size());
+
+        List<Integer> values = new ArrayList<>();
+        first.forEach(node -> values.add(node.asInt()));
+        assertEquals(211, values.size());
+        assertEquals(999, values.get(210));
+        first.removeAll();
+        assertTrue(first.isEmpty());
+    }
+
+    @Test
+    void testMachineConcatenatesWithoutCopying() throws Exception {
+        JsonNode input = mapper.readTree("{\"a\": [1, 2], \"b\": [3]}");
+        JsonTransformationMachine machine = new JsonTransformationMachine(input);
+        machine.execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "a"),
+                Instruction.of(Command.PUSH_ELEMENT),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_ARRAY, "b"),
+                Instruction.of(Command.PUSH_ELEMENT),
+                Instruction.of(Command.CONCAT_ARRAYS),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_FIELD, "c"),
+                Instruction.of(Command.POP_ELEMENT)));
+
+        assertEquals(mapper.readTree("[1, 2, 3]"), input.get("c"));
+        assertEquals(mapper.readTree("[1, 2]"), input.get("a"));
+    }
+}
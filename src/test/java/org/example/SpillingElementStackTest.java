@@ -0,0 +1,125 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillingElementStackTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testSpillsColdEntriesAndFaultsThemBackIn() {
+        List<JsonNode> pushed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            pushed.add(block(i, 200));
+        }
+        long oneBlock = SpillingElementStack.estimateBytes(pushed.get(0));
+        SpillingElementStack stack = new SpillingElementStack(oneBlock * 2);
+
+        for (JsonNode block : pushed) {
+            stack.push(block.deepCopy());
+        }
+        stack.push(null);
+        assertEquals(6, stack.size());
+        assertTrue(stack.getSpilledCount() >= 3);
+        assertTrue(stack.getResidentBytes() <= oneBlock * 2);
+        assertTrue(stack.toString().contains("<spilled "));
+
+        // Peeking faults an entry back in; changes to it are kept when it is spilled again
+        JsonNode bottom = stack.peek(5);
+        assertEquals(pushed.get(0), bottom);
+        ((ObjectNode) bottom.get(0)).put("touched", true);
+        stack.push(block(9, 200));
+        assertNull(stack.peek(1));
+
+        assertEquals(block(9, 200), stack.pop());
+        assertNull(stack.pop());
+        for (int i = 4; i >= 1; i--) {
+            assertEquals(pushed.get(i), stack.pop());
+        }
+        assertTrue(stack.pop().get(0).get("touched").asBoolean());
+        assertTrue(stack.isEmpty());
+        assertEquals(0, stack.getSpilledCount());
+        assertEquals(0, stack.getResidentBytes());
+        assertThrows(IllegalStateException.class, stack::pop);
+    }
+
+    @Test
+    void testSpilledDecimalsKeepTheirScale() {
+        SpillingElementStack stack = new SpillingElementStack(0);
+        ObjectNode price = mapper.createObjectNode().set("amount", DecimalNode.valueOf(new BigDecimal("1.50")));
+        stack.push(DecimalNode.valueOf(new BigDecimal("1.50")));
+        stack.push(price);
+        stack.push(null);
+        assertEquals(2, stack.getSpilledCount());
+
+        assertNull(stack.pop());
+        JsonNode popped = stack.pop();
+        assertEquals("1.50", popped.get("amount").toString());
+        assertTrue(popped.get("amount").isBigDecimal());
+        assertEquals(new BigDecimal("1.50"), stack.pop().decimalValue());
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    void testSpilledEntriesKeepTheirNodeTypes() throws Exception {
+        JsonNode parsed = mapper.readTree("{\"x\": 1.5, \"y\": [0.1, 2, 12345678901, 123456789012345678901234567890],"
+                + " \"z\": {\"t\": \"\\u00e9\", \"b\": true, \"n\": null}}");
+        ArrayNode mixed = mapper.createArrayNode().add(1.5f).add((short) 3).add(new byte[]{1, 2});
+        SpillingElementStack stack = new SpillingElementStack(0);
+        stack.push(parsed.deepCopy());
+        stack.push(mixed.deepCopy());
+        stack.push(null);
+        assertEquals(2, stack.getSpilledCount());
+
+        assertNull(stack.pop());
+        assertEquals(mixed, stack.pop());
+        JsonNode popped = stack.pop();
+        assertEquals(parsed, popped);
+        assertTrue(popped.get("x").isDouble());
+        assertTrue(popped.at("/y/2").isLong());
+    }
+
+    @Test
+    void testMachineWithSpillThreshold() {
+        ObjectNode input = mapper.createObjectNode();
+        input.set("a", block(1, 500));
+        input.set("b", block(2, 500));
+        JsonTransformationMachine machine = new JsonTransformationMachine(input);
+        machine.setElementSpillThreshold(1024);
+        assertEquals(1024, machine.getElementSpillThreshold());
+
+        JsonNode result = machine.execute(List.of(
+                Instruction.of(Command.MOVE_INTO_ARRAY, "a"),
+                Instruction.of(Command.PUSH_ELEMENT),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_ARRAY, "b"),
+                Instruction.of(Command.PUSH_ELEMENT),
+                Instruction.of(Command.CONCAT_ARRAYS),
+                Instruction.of(Command.MOVE_TO_ROOT),
+                Instruction.of(Command.MOVE_INTO_OBJECT, "both"),
+                Instruction.of(Command.POP_ELEMENT)));
+
+        assertEquals(1000, result.get("both").size());
+        assertEquals(input.get("a").get(499), result.get("both").get(499));
+        assertEquals(input.get("b").get(0), result.get("both").get(500));
+        assertEquals(0, machine.getElementStackSize());
+    }
+
+    private ArrayNode block(int id, int size) {
+        ArrayNode array = mapper.createArrayNode();
+        for (int i = 0; i < size; i++) {
+            array.addObject().put("id", id).put("index", i).put("name", "element-" + i);
+        }
+        return array;
+    }
+}
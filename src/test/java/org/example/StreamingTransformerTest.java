@@ -0,0 +1,59 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingTransformerTest {
+    private static final String DOCUMENT = "{\"header\":{\"id\":7}," +
+            "\"company\":{\"name\":\"Acme\"}," +
+            "\"users\":[{\"email\":\"a@test.com\"},{\"email\":\"b@test.com\"}]," +
+            "\"footer\":\"end\"}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testOutputMatchesSequentialResult() throws Exception {
+        List<Move> moves = List.of(
+                Move.of("$.users[*].email", "$.contactInfo[*].email"),
+                Move.of("$.company.name", "$.info.companyName"),
+                Move.of("$.company.name", "$.contactInfo[*].companyName"),
+                Move.of("$.header.id", "$.info.id")
+        );
+        JsonNode expected = new JsonTransformationMachine(mapper.readTree(DOCUMENT)).execute(Move.compile(moves));
+        JsonNode document = mapper.readTree(DOCUMENT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new StreamingTransformer(moves).transform(document, out);
+
+        assertEquals(mapper.writeValueAsString(expected), out.toString(StandardCharsets.UTF_8));
+        assertEquals(0, document.size());
+    }
+
+    @Test
+    void testStreamsUntouchedMappedSectionsRaw() throws Exception {
+        JsonNode document = MappedJsonInput.wrap(DOCUMENT.getBytes(StandardCharsets.UTF_8)).root();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new StreamingTransformer(List.of(Move.of("$.company.name", "$.info.companyName"))).transform(document, out);
+
+        assertEquals(mapper.readTree("{\"header\":{\"id\":7},\"company\":{\"name\":\"Acme\"}," +
+                        "\"users\":[{\"email\":\"a@test.com\"},{\"email\":\"b@test.com\"}]," +
+                        "\"footer\":\"end\",\"info\":{\"companyName\":\"Acme\"}}"),
+                mapper.readTree(out.toByteArray()));
+    }
+
+    @Test
+    void testRejectsMovesWithUnknownFootprint() {
+        List<Move> moves = List.of(Move.of("$..email", "$.emails"));
+
+        assertFalse(StreamingTransformer.supports(moves));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingTransformer(moves));
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TapeDocumentTest {
+    private static final String DOCUMENT = "{\"company\": {\"name\": \"Acme\", \"employees\": 1200},\n" +
+            "  \"users\": [{\"email\": \"a@test.com\", \"age\": 31}, {\"email\": \"b@test.com\", \"age\": -4}],\n" +
+            "  \"archive\": {\"years\": [2019, 2020, {\"note\": \"not read\"}], \"empty\": [], \"obj\": {}},\n" +
+            "  \"ratio\": 1.5e3, \"flag\": true, \"none\": null, \"big\": 123456789012345678901,\n" +
+            "  \"esc\\\"key\": \"line\\nbreak \\u00e9t\\u00e9 über\"}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private TapeDocument parse() {
+        return TapeDocument.parse(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testCursorNavigation() {
+        TapeCursor cursor = parse().cursor();
+
+        assertEquals(JsonNodeType.OBJECT, cursor.getNodeType());
+        assertEquals(8, cursor.size());
+        assertTrue(cursor.moveTo("$.users[1].email"));
+        assertTrue(cursor.textEquals("b@test.com"));
+        assertFalse(cursor.textEquals("a@test.com"));
+        assertTrue(cursor.moveOut());
+        assertTrue(cursor.moveIntoObject("age"));
+        assertEquals(-4, cursor.asLong());
+
+        assertTrue(cursor.moveTo("$.archive.years[2].note"));
+        assertEquals("not read", cursor.asText());
+        assertTrue(cursor.moveTo("$.esc\"key"));
+        assertEquals("line\nbreak été über", cursor.asText());
+
+        assertFalse(cursor.moveTo("$.users[2].email"));
+        assertFalse(cursor.moveIntoObject("missing"));
+        assertTrue(cursor.moveIntoObject("ratio"));
+        assertEquals(1500.0, cursor.asDouble());
+        cursor.moveToRoot();
+        assertTrue(cursor.moveIntoObject("flag"));
+        assertTrue(cursor.asBoolean());
+        assertTrue(cursor.moveTo("$.archive.empty"));
+        assertEquals(0, cursor.size());
+    }
+
+    @Test
+    void testRootViewMatchesJackson() throws Exception {
+        TapeDocument document = parse();
+
+        assertEquals(mapper.readTree(DOCUMENT), document.root());
+        assertEquals(mapper.readTree(DOCUMENT).get("users"), document.cursor().toJsonNode().get("users"));
+    }
+
+    @Test
+    void testTransformsOverlayAndWritesUntouchedSectionsRaw() throws Exception {
+        List<Move> moves = List.of(
+                Move.of("$.users[*].email", "$.contactInfo[*].email"),
+                Move.of("$.company.name", "$.info.companyName"));
+        TapeDocument document = parse();
+
+        new JsonTransformationMachine(document.root()).execute(Move.compile(moves));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            document.writeTo(generator);
+        }
+
+        JsonNode expected = new JsonTransformationMachine(mapper.readTree(DOCUMENT)).execute(Move.compile(moves));
+        assertEquals(expected, mapper.readTree(out.toByteArray()));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\"archive\":{\"years\": [2019, 2020"));
+        assertTrue(document.cursor().moveTo("$.company.name"));
+        assertFalse(document.cursor().moveTo("$.info.companyName"));
+    }
+
+    @Test
+    void testRejectsMalformedInput() {
+        assertThrows(JsonText.MalformedJsonException.class, () -> TapeDocument.parse("{\"a\": [1, 2}".getBytes()));
+        assertThrows(JsonText.MalformedJsonException.class, () -> TapeDocument.parse("{\"a\": tru}".getBytes()));
+        assertThrows(JsonText.MalformedJsonException.class, () -> TapeDocument.parse("[1,]".getBytes()));
+        assertThrows(JsonText.MalformedJsonException.class, () -> TapeDocument.parse("{\"a\" 1}".getBytes()));
+        assertThrows(JsonText.MalformedJsonException.class, () -> TapeDocument.parse("[1] 2".getBytes()));
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeCodecTest {
+    private static final ZoneId PARIS = TimeCodec.zone("Europe/Paris");
+
+    @Test
+    void testIsoFormatMatchesJavaTime() {
+        long[] seconds = {0L, 1_734_024_732L, -1L, -86_400L * 365 * 200, 951_782_400L, 253_402_300_799L};
+        for (long second : seconds) {
+            for (ZoneId zone : new ZoneId[]{ZoneOffset.UTC, ZoneOffset.ofHours(-5), PARIS}) {
+                String expected = DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(Instant.ofEpochSecond(second).atZone(zone));
+                assertEquals(expected, TimeCodec.format(second, TimeCodec.Unit.SECONDS, TimeCodec.ISO, zone));
+                assertEquals(second, TimeCodec.parse(expected, TimeCodec.ISO, TimeCodec.Unit.SECONDS, ZoneOffset.UTC));
+            }
+        }
+        assertEquals("2024-12-12T17:32:12.045Z",
+                TimeCodec.format(1_734_024_732_045L, TimeCodec.Unit.MILLIS, TimeCodec.ISO, ZoneOffset.UTC));
+        assertEquals("1969-12-31T23:59:59.999999Z",
+                TimeCodec.format(-1L, TimeCodec.Unit.MICROS, TimeCodec.ISO, ZoneOffset.UTC));
+    }
+
+    @Test
+    void testIsoParseVariants() {
+        TimeCodec.Unit ms = TimeCodec.Unit.MILLIS;
+        assertEquals(1_734_024_732_045L, TimeCodec.parse("2024-12-12T17:32:12.045Z", TimeCodec.ISO, ms, ZoneOffset.UTC));
+        assertEquals(1_734_024_732_045L, TimeCodec.parse("2024-12-12 18:32:12.0451+01:00", TimeCodec.ISO, ms, ZoneOffset.UTC));
+        assertEquals(1_734_024_732_000L, TimeCodec.parse("2024-12-12T18:32:12+0100", TimeCodec.ISO, ms, ZoneOffset.UTC));
+        assertEquals(1_734_024_720_000L, TimeCodec.parse("2024-12-12T18:32", TimeCodec.ISO, ms, PARIS));
+        assertEquals(1_733_961_600_000L, TimeCodec.parse("2024-12-12", TimeCodec.ISO, ms, ZoneOffset.UTC));
+        // Region ids are left to java.time
+        assertEquals(1_734_024_732_000L,
+                TimeCodec.parse("2024-12-12T18:32:12+01:00[Europe/Paris]", TimeCodec.ISO, ms, ZoneOffset.UTC));
+        assertThrows(RuntimeException.class, () -> TimeCodec.parse("2024-02-30", TimeCodec.ISO, ms, ZoneOffset.UTC));
+    }
+
+    @Test
+    void testEpochFormatsAndPatterns() {
+        assertEquals("1734024732045000",
+                TimeCodec.format(1_734_024_732_045L, TimeCodec.Unit.MILLIS, TimeCodec.EPOCH_MICROS, ZoneOffset.UTC));
+        assertEquals(1_734_024_732L,
+                TimeCodec.parse("1734024732999", TimeCodec.EPOCH_MILLIS, TimeCodec.Unit.SECONDS, ZoneOffset.UTC));
+        assertEquals(-1L, TimeCodec.convert(-1L, TimeCodec.Unit.MILLIS, TimeCodec.Unit.SECONDS));
+
+        assertEquals("12/12/2024 18:32", TimeCodec.format(1_734_024_732L, TimeCodec.Unit.SECONDS, "dd/MM/yyyy HH:mm", PARIS));
+        assertEquals(1_733_958_000L, TimeCodec.parse("12/12/2024", "dd/MM/yyyy", TimeCodec.Unit.SECONDS, PARIS));
+        assertThrows(IllegalArgumentException.class, () -> TimeCodec.Unit.of("ns"));
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformationExecutorTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ObjectNode createDocument(int id) {
+        ObjectNode root = mapper.createObjectNode();
+        ArrayNode users = root.putArray("users");
+        users.addObject().put("email", "user" + id + "@test.com");
+        users.addObject().put("email", "other" + id + "@test.com");
+        return root;
+    }
+
+    @Test
+    void testConcurrentSubmissions() throws Exception {
+        Program program = Program.compile("$.users[*].email", "$.contactInfo[*].email", null);
+
+        try (TransformationExecutor executor = new TransformationExecutor(8)) {
+            List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(program, createDocument(i)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                JsonNode result = futures.get(i).get();
+                assertEquals("user" + i + "@test.com", result.get("contactInfo").get(0).get("email").asText());
+                assertEquals("other" + i + "@test.com", result.get("contactInfo").get(1).get("email").asText());
+            }
+            assertEquals(0, executor.getActiveCount());
+        }
+    }
+
+    @Test
+    void testFailureCompletesExceptionally() {
+        Program program = Program.of(Arrays.asList(Instruction.of(Command.POP_VALUE)));
+
+        try (TransformationExecutor executor = new TransformationExecutor(1)) {
+            CompletableFuture<JsonNode> future = executor.submit(program, createDocument(0));
+            assertThrows(ExecutionException.class, future::get);
+        }
+    }
+
+    @Test
+    void testProgramIsDetachedFromSource() {
+        List<Instruction> body = new ArrayList<>(List.of(Instruction.of(Command.INCREMENT)));
+        ObjectNode mapped = mapper.createObjectNode().put("value", 1);
+        Program program = Program.of(Arrays.asList(
+                Instruction.of(Command.MAP_ELEMENT, Map.of("a", mapped)),
+                Instruction.of(Command.PUSH_COMMAND, body)
+        ));
+
+        body.add(Instruction.of(Command.DECREMENT));
+        mapped.put("value", 2);
+
+        assertEquals(1, ((List<?>) program.getInstructions().get(1).getParam(0)).size());
+        @SuppressWarnings("unchecked")
+        Map<String, JsonNode> mapping = (Map<String, JsonNode>) program.getInstructions().get(0).getParam(0);
+        assertEquals(1, mapping.get("a").get("value").asInt());
+        assertThrows(UnsupportedOperationException.class, () -> program.getInstructions().clear());
+    }
+
+    @Test
+    void testValidationRejectsInvalidInstructions() {
+        assertThrows(IllegalArgumentException.class, () ->
+                Program.of(Arrays.asList(Instruction.of(Command.MOVE_INTO_OBJECT))));
+        assertThrows(IllegalArgumentException.class, () ->
+                Program.of(Arrays.asList(Instruction.of(Command.MOVE_INTO_INDEX, "zero"))));
+        assertThrows(IllegalArgumentException.class, () ->
+                Program.of(Arrays.asList(Instruction.of(Command.COMPARE, "<>"))));
+        assertThrows(IllegalArgumentException.class, () ->
+                Program.of(Arrays.asList(Instruction.of(Command.LOOP_UNTIL,
+                        (java.util.function.Predicate<JsonTransformationMachine>) m -> true))));
+    }
+}
@@ -0,0 +1,124 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformationServerTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private TransformationServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Map<String, Program> programs = Map.of(
+                "emails", Program.compile("$.users[*].email", "$.contactInfo[*].email", null)
+        );
+        server = new TransformationServer(new InetSocketAddress("localhost", 0), programs, 4);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testTransform() throws Exception {
+        HttpResponse<String> response = post("/transform/emails",
+                "{\"users\":[{\"email\":\"a@test.com\"},{\"email\":\"b@test.com\"}]}");
+
+        assertEquals(200, response.statusCode());
+        JsonNode result = mapper.readTree(response.body());
+        assertEquals("b@test.com", result.get("contactInfo").get(1).get("email").asText());
+    }
+
+    @Test
+    void testErrors() throws Exception {
+        assertEquals(404, post("/transform/missing", "{}").statusCode());
+        assertEquals(400, post("/transform/emails", "{not json").statusCode());
+    }
+
+    @Test
+    void testStats() throws Exception {
+        post("/transform/emails", "{\"users\":[]}");
+
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.getPort() + "/stats")).GET().build();
+        JsonNode stats = mapper.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+
+        assertEquals(1, stats.get("completed").asLong());
+        assertEquals(0, stats.get("inFlight").asLong());
+        assertTrue(stats.has("averageLatencyMicros"));
+    }
+
+    @Test
+    void testWarmUpAndReadiness() throws Exception {
+        ProgramWarmup.Report report = server.warmUp(50).get();
+
+        assertEquals(1, report.getPrograms());
+        assertEquals(50, report.getRuns());
+        assertTrue(report.getFailures().isEmpty(), report.getFailures().toString());
+        assertTrue(server.isReady());
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.getPort() + "/ready")).GET().build();
+        assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(0, server.getStats().getCompleted());
+    }
+
+    @Test
+    void testAwaitedWarmUp() throws Exception {
+        server.close();
+        server = new TransformationServer(new InetSocketAddress("localhost", 0),
+                Map.of("emails", Program.compile("$.users[*].email", "$.contactInfo[*].email", null)), 4, true);
+        server.start();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.getPort() + "/ready")).GET().build();
+        assertFalse(server.isReady());
+        assertEquals(503, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        // A failed warm-up is reported instead of marking the server ready
+        assertThrows(ExecutionException.class, () -> server.warmUp(0).get());
+        assertFalse(server.isReady());
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(503, response.statusCode());
+        assertTrue(mapper.readTree(response.body()).get("error").asText().contains("iterations must be positive"));
+
+        server.warmUp(5).get();
+        assertTrue(server.isReady());
+        assertNull(server.getWarmUpFailure());
+        assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void testSampleDocument() {
+        JsonNode sample = ProgramWarmup.sampleDocument(
+                Program.compile("$.users[*].email", "$.contactInfo[*].email", null));
+
+        assertEquals(ProgramWarmup.ARRAY_SIZE, sample.get("users").size());
+        assertEquals("sample", sample.at("/users/3/email").asText());
+        JsonNode result = new JsonTransformationMachine(sample.deepCopy())
+                .execute(Program.compile("$.users[*].email", "$.contactInfo[*].email", null));
+        assertEquals("sample", result.at("/contactInfo/3/email").asText());
+    }
+}